@@ -1,14 +1,37 @@
 package com.shortener.cli;
 
 import com.shortener.core.domain.User;
+import com.shortener.core.repository.LinkRepository;
 import com.shortener.core.service.*;
+import com.shortener.infra.clock.CoarseClock;
+import com.shortener.infra.cluster.NodeLease;
+import com.shortener.infra.concurrent.PregeneratedCodePool;
+import com.shortener.infra.concurrent.Threads;
 import com.shortener.infra.config.AppConfig;
+import com.shortener.infra.http.RedirectHttpServer;
+import com.shortener.infra.http.RedirectResponseCache;
 import com.shortener.infra.scheduler.LinkCleanupScheduler;
+import com.shortener.infra.storage.CachingLinkRepository;
 import com.shortener.infra.storage.InMemoryLinkRepository;
 import com.shortener.infra.storage.InMemoryUserRepository;
+import com.shortener.infra.storage.JournaledLinkRepository;
+import com.shortener.infra.storage.LinkWriteAheadLog;
+import com.shortener.infra.storage.MappedLinkRepository;
+import com.shortener.infra.storage.ObservableLinkRepository;
+import com.shortener.infra.storage.WriteBehindClickBuffer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Clock;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CLIApplication {
     private final LinkService linkService;
@@ -16,6 +39,16 @@ public class CLIApplication {
     private final NotificationService notificationService;
     private final LinkCleanupScheduler cleanupScheduler;
     private final CommandProcessor commandProcessor;
+    private final Clock clock;
+    private final WriteBehindClickBuffer clickBuffer;
+    private final PregeneratedCodePool codePool;
+    private final NodeLease nodeLease;
+    private final JournaledLinkRepository journal;
+    private final MappedLinkRepository mappedStorage;
+    private final RedirectHttpServer httpServer;
+    private final boolean cliEnabled;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final CountDownLatch stoppedLatch = new CountDownLatch(1);
     private final int defaultTtlHours;
     private final int defaultMaxClicks;
     private User currentUser;
@@ -25,28 +58,73 @@ public class CLIApplication {
         instance = this;
         this.defaultTtlHours = config.getDefaultTtlHours();
         this.defaultMaxClicks = config.getDefaultMaxClicks();
+        this.clock = createClock(config);
+        boolean virtualThreads = Threads.resolveVirtualMode(config.isVirtualThreadsEnabled());
 
         // Инициализация репозиториев
-        InMemoryLinkRepository linkRepository = new InMemoryLinkRepository();
+        this.mappedStorage = "MAPPED".equalsIgnoreCase(config.getStorageEngine())
+                ? openMappedStorage(config, clock)
+                : null;
+        ObservableLinkRepository storage = mappedStorage != null
+                ? mappedStorage
+                : new InMemoryLinkRepository(
+                        config.getBloomFilterExpectedLinks(),
+                        config.getBloomFilterFalsePositiveRate()
+                );
+        // Журнал проигрывается до подписки на удаления: восстановление не освобождает коды
+        this.journal = config.isWalEnabled() ? openJournal(config, storage, clock) : null;
+        LinkRepository durable = journal != null ? journal : storage;
+        // Кэш горячих ссылок нужен только перед медленным хранилищем
+        LinkRepository linkRepository = config.getHotLinkCacheSize() > 0
+                ? new CachingLinkRepository(durable, config.getHotLinkCacheSize(), clock)
+                : durable;
         InMemoryUserRepository userRepository = new InMemoryUserRepository();
 
+        // Номер узла арендуется до создания генератора: от него зависит доля пространства кодов
+        this.nodeLease = acquireNodeLease(config);
+        NodePartition partition = nodeLease != null
+                ? nodeLease.getPartition()
+                : new NodePartition(config.getNodeId(), config.getNodeCount());
+
         // Инициализация сервисов
         ShortCodeGenerator codeGenerator = new ShortCodeGenerator(
                 ShortCodeGenerator.Algorithm.valueOf(config.getGenerationAlgorithm()),
-                config.getShortCodeLength()
+                config.getShortCodeLength(),
+                new SequentialIdBlockAllocator(),
+                config.getCounterBlockSize(),
+                config.getCounterScrambleKey(),
+                config.getDedupCacheSize(),
+                config.isAdaptiveCodeLengthEnabled() ? config.getCodeLengthGrowthThreshold() : 0,
+                partition
         );
+        codeGenerator.setBlockedWords(loadBlockedWords(config));
+        // Коды восстановленных из журнала ссылок уже выданы; COUNTER продолжает за старшим из них
+        storage.findAll().forEach(link -> codeGenerator.reserveCode(link.getShortCode()));
+        this.codePool = createCodePool(config, codeGenerator);
+        // Код удаленной ссылки (в том числе очисткой просроченных) снова свободен; хранилище не
+        // сообщает об удалении, если код уже перехвачен другой живой ссылкой
+        storage.addRemovalListener(link -> codeGenerator.releaseCode(link.getShortCode()));
+
+        // Переходы пишутся в репозиторий пачками, если включена отложенная запись
+        this.clickBuffer = config.isClickWriteBehindEnabled()
+                ? new WriteBehindClickBuffer(linkRepository, config.getClickBatchSize(),
+                        config.getClickFlushIntervalMillis())
+                : null;
 
         this.linkService = new LinkService(
                 linkRepository,
                 codeGenerator,
                 config.getDefaultTtlHours(),
-                config.getDefaultMaxClicks()
+                config.getDefaultMaxClicks(),
+                clock,
+                clickBuffer != null ? clickBuffer : linkRepository::save
         );
 
         // ИЗМЕНЕНО: передаем int напрямую (теперь UserService ожидает int)
         this.userService = new UserService(
                 userRepository,
-                config.getUserSessionTtlHours()
+                config.getUserSessionTtlHours(),
+                clock
         );
 
         this.notificationService = new NotificationService();
@@ -61,8 +139,106 @@ public class CLIApplication {
                 linkRepository,
                 notificationService,
                 config.isAutoDeleteExpired(),
-                config.getCleanupIntervalMinutes()
+                config.getCleanupIntervalMinutes(),
+                clock,
+                Threads.factory("link-cleanup", virtualThreads)
+        );
+
+        this.cliEnabled = config.isCliEnabled();
+        this.httpServer = config.isHttpEnabled()
+                ? new RedirectHttpServer(linkService, config.getHttpPort(),
+                        config.getHttpWorkerThreads(), config.getHttpKeepAliveTimeoutMillis(), virtualThreads,
+                        createResponseCache(config, storage))
+                : null;
+    }
+
+    private static MappedLinkRepository openMappedStorage(AppConfig config, Clock clock) {
+        try {
+            return new MappedLinkRepository(Paths.get(config.getMappedStorageDir()), clock);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open mapped link storage", e);
+        }
+    }
+
+    private static JournaledLinkRepository openJournal(AppConfig config, ObservableLinkRepository storage,
+                                                       Clock clock) {
+        try {
+            LinkWriteAheadLog log = new LinkWriteAheadLog(
+                    Paths.get(config.getWalPath()),
+                    LinkWriteAheadLog.FsyncPolicy.valueOf(config.getWalFsyncPolicy()),
+                    config.getWalFsyncIntervalMillis(),
+                    clock
+            );
+            JournaledLinkRepository journal = new JournaledLinkRepository(storage, log);
+            if (config.getWalSnapshotIntervalSeconds() > 0) {
+                journal.startSnapshots(config.getWalSnapshotIntervalSeconds() * 1000L);
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-ahead log", e);
+        }
+    }
+
+    private static BlockedWordFilter loadBlockedWords(AppConfig config) {
+        if (config.getBlockedWordsFile().isEmpty()) {
+            return BlockedWordFilter.EMPTY;
+        }
+        try (Stream<String> lines = Files.lines(Paths.get(config.getBlockedWordsFile()), StandardCharsets.UTF_8)) {
+            return BlockedWordFilter.compile(lines
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toList()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blocked words", e);
+        }
+    }
+
+    private static NodeLease acquireNodeLease(AppConfig config) {
+        if (config.getNodeLeaseDir().isEmpty()) {
+            return null;
+        }
+        try {
+            return NodeLease.acquire(Paths.get(config.getNodeLeaseDir()), config.getNodeCount());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to acquire node lease", e);
+        }
+    }
+
+    private static PregeneratedCodePool createCodePool(AppConfig config, ShortCodeGenerator codeGenerator) {
+        if (!config.isCodePoolEnabled()) {
+            return null;
+        }
+        if (!codeGenerator.supportsCodePool()) {
+            System.err.println("⚠️  Code pool requires RANDOM or COUNTER generation, generating codes inline");
+            return null;
+        }
+        PregeneratedCodePool pool = new PregeneratedCodePool(
+                codeGenerator::generateFreshCode,
+                codeGenerator::releaseCode,
+                config.getCodePoolSize(),
+                config.getCodePoolLowWatermark(),
+                config.getCodePoolProducerThreads(),
+                Threads.factory("code-pool", false)
         );
+        codeGenerator.setCodePool(pool);
+        return pool;
+    }
+
+    private static RedirectResponseCache createResponseCache(AppConfig config, ObservableLinkRepository storage) {
+        if (config.getHttpResponseCacheSize() <= 0) {
+            return null;
+        }
+        // Готовый ответ живет, пока ссылка есть в хранилище
+        RedirectResponseCache cache = new RedirectResponseCache(config.getHttpResponseCacheSize());
+        storage.addRemovalListener(link -> cache.evict(link.getShortCode()));
+        return cache;
+    }
+
+    private static Clock createClock(AppConfig config) {
+        if ("COARSE".equalsIgnoreCase(config.getClockMode())) {
+            return CoarseClock.start(config.getClockTickMillis());
+        }
+        return Clock.systemDefaultZone();
     }
 
     public static CLIApplication getInstance() {
@@ -71,6 +247,29 @@ public class CLIApplication {
 
     public void start() {
         cleanupScheduler.start();
+        if (clickBuffer != null) {
+            clickBuffer.start();
+        }
+        if (codePool != null) {
+            codePool.start();
+        }
+        // Накопленные переходы записываются и при завершении JVM без команды exit
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "shortener-shutdown"));
+        if (httpServer != null) {
+            try {
+                httpServer.start();
+            } catch (IOException e) {
+                shutdown();
+                throw new UncheckedIOException("Failed to start HTTP server", e);
+            }
+        }
+
+        if (!cliEnabled) {
+            // Только HTTP: работаем до остановки JVM
+            awaitShutdown();
+            return;
+        }
+
         notificationService.showWelcomeMessage(defaultTtlHours);
 
         try (Scanner scanner = new Scanner(System.in)) {
@@ -101,10 +300,48 @@ public class CLIApplication {
             }
         }
 
-        cleanupScheduler.shutdown();
+        shutdown();
         System.out.println("\n👋 Thank you for using Shortener Service. Goodbye!\n");
     }
 
+    private void awaitShutdown() {
+        try {
+            stoppedLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        if (httpServer != null) {
+            httpServer.close();
+        }
+        cleanupScheduler.shutdown();
+        if (codePool != null) {
+            codePool.shutdown();
+        }
+        if (clickBuffer != null) {
+            clickBuffer.shutdown();
+        }
+        // После финального сброса переходов: он тоже пишется в журнал
+        if (journal != null) {
+            journal.close();
+        }
+        if (mappedStorage != null) {
+            mappedStorage.close();
+        }
+        if (clock instanceof CoarseClock) {
+            ((CoarseClock) clock).close();
+        }
+        if (nodeLease != null) {
+            nodeLease.close();
+        }
+        stoppedLatch.countDown();
+    }
+
     private void showPrompt() {
         if (currentUser == null) {
             System.out.print("👤 guest> ");
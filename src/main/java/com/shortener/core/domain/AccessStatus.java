@@ -0,0 +1,11 @@
+package com.shortener.core.domain;
+
+/**
+ * Результат попытки перехода по ссылке без выброса исключений.
+ */
+public enum AccessStatus {
+    GRANTED,
+    EXPIRED,
+    LIMIT_REACHED,
+    INACTIVE
+}
@@ -1,5 +1,6 @@
 package com.shortener.core.domain;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -10,8 +11,12 @@ public class ClickStatistic {
     private final String ipAddress;
 
     public ClickStatistic(UUID linkId, String userAgent, String ipAddress) {
+        this(linkId, userAgent, ipAddress, Clock.systemDefaultZone());
+    }
+
+    public ClickStatistic(UUID linkId, String userAgent, String ipAddress, Clock clock) {
         this.linkId = linkId;
-        this.clickedAt = LocalDateTime.now();
+        this.clickedAt = LocalDateTime.now(clock);
         this.userAgent = userAgent;
         this.ipAddress = ipAddress;
     }
@@ -2,31 +2,55 @@ package com.shortener.core.domain;
 
 import org.apache.commons.validator.routines.UrlValidator;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Доменный объект, представляющий сокращенную ссылку.
  * Включает все параметры: лимит переходов, время жизни, уникальность для пользователя.
  * Важно: время жизни (expiresAt) задается только при создании и не может быть изменено .
+ * Моменты времени хранятся как epoch-миллисекунды; LocalDateTime строится только для отображения.
  */
 public class Link {
     private static final UrlValidator URL_VALIDATOR = new UrlValidator(
             new String[]{"http", "https", "ftp"}
     );
 
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    // Лимит, счетчик и активность меняются одним CAS по слову состояния без отдельного
+    // атомика на каждую ссылку: лимит в старших 32 битах, счетчик в битах 1-31, активность в бите 0
+    private static final AtomicLongFieldUpdater<Link> STATE =
+            AtomicLongFieldUpdater.newUpdater(Link.class, "state");
+    private static final long ACTIVE = 1L;
+
     private final UUID id;
     private final UUID userId;
     private final String originalUrl;
     private final String shortCode;
-    private final LocalDateTime createdAt;
-    private final LocalDateTime expiresAt; // final - время жизни нельзя изменить после создания
-    private int maxClicks;
-    private int currentClicks;
-    private boolean isActive;
+    private final long createdAtMillis;
+    private final long expiresAtMillis; // final - время жизни нельзя изменить после создания
+    private volatile long state;
     private final String description;
+    private final Clock clock;
+    // Готовый результат редиректа, который строит слой сервиса: один на ссылку, создается лениво.
+    // Тип не указан, чтобы домен не зависел от сервиса
+    private volatile Object redirectResult;
+
+    /**
+     * Создает новую ссылку по системным часам.
+     *
+     * @see #Link(UUID, String, String, LocalDateTime, int, String, Clock)
+     */
+    public Link(UUID userId, String originalUrl, String shortCode,
+                LocalDateTime expiresAt, int maxClicks, String description) {
+        this(userId, originalUrl, shortCode, expiresAt, maxClicks, description, Clock.systemDefaultZone());
+    }
 
     /**
      * Создает новую ссылку.
@@ -38,19 +62,19 @@ public class Link {
      * @param expiresAt время истечения срока действия (из конфигурации)
      * @param maxClicks максимальное количество переходов (может быть задано пользователем)
      * @param description описание ссылки (опционально)
+     * @param clock часы, по которым считаются создание и истечение срока
      * @throws IllegalArgumentException если URL невалиден или параметры некорректны
      */
     public Link(UUID userId, String originalUrl, String shortCode,
-                LocalDateTime expiresAt, int maxClicks, String description) {
+                LocalDateTime expiresAt, int maxClicks, String description, Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
         this.id = UUID.randomUUID();
         this.userId = Objects.requireNonNull(userId, "UserId cannot be null");
         this.originalUrl = validateUrl(originalUrl);
         this.shortCode = Objects.requireNonNull(shortCode, "ShortCode cannot be null");
-        this.createdAt = LocalDateTime.now();
-        this.expiresAt = Objects.requireNonNull(expiresAt, "ExpiresAt cannot be null");
-        this.maxClicks = maxClicks > 0 ? maxClicks : 1;
-        this.currentClicks = 0;
-        this.isActive = true;
+        this.createdAtMillis = clock.millis();
+        this.expiresAtMillis = toEpochMillis(Objects.requireNonNull(expiresAt, "ExpiresAt cannot be null"));
+        this.state = state(maxClicks > 0 ? maxClicks : 1, 0, true);
         this.description = description != null ? description : "";
 
         validateState();
@@ -63,20 +87,59 @@ public class Link {
     protected Link(UUID userId, String originalUrl, String shortCode,
                    LocalDateTime createdAt, LocalDateTime expiresAt,
                    int maxClicks, int currentClicks, boolean isActive, String description) {
+        this(userId, originalUrl, shortCode, createdAt, expiresAt,
+                maxClicks, currentClicks, isActive, description, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Конструктор для тестирования с явными часами (виртуальное время).
+     * Используется ТОЛЬКО в тестах
+     */
+    protected Link(UUID userId, String originalUrl, String shortCode,
+                   LocalDateTime createdAt, LocalDateTime expiresAt,
+                   int maxClicks, int currentClicks, boolean isActive, String description,
+                   Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
         this.id = UUID.randomUUID();
         this.userId = Objects.requireNonNull(userId, "UserId cannot be null");
         this.originalUrl = validateUrl(originalUrl);
         this.shortCode = Objects.requireNonNull(shortCode, "ShortCode cannot be null");
-        this.createdAt = Objects.requireNonNull(createdAt, "CreatedAt cannot be null");
-        this.expiresAt = Objects.requireNonNull(expiresAt, "ExpiresAt cannot be null");
-        this.maxClicks = maxClicks > 0 ? maxClicks : 1;
-        this.currentClicks = Math.max(0, currentClicks);
-        this.isActive = isActive;
+        this.createdAtMillis = toEpochMillis(Objects.requireNonNull(createdAt, "CreatedAt cannot be null"));
+        this.expiresAtMillis = toEpochMillis(Objects.requireNonNull(expiresAt, "ExpiresAt cannot be null"));
+        this.state = state(maxClicks > 0 ? maxClicks : 1, Math.max(0, currentClicks), isActive);
         this.description = description != null ? description : "";
 
         // Для тестов не проверяем, что expiresAt после createdAt
     }
 
+    /**
+     * Восстанавливает ссылку со словом состояния в кодировке {@link #state(int, int, boolean)}.
+     * Нужен хранилищам, которые строят ссылку-представление над своей записью.
+     */
+    protected Link(UUID id, UUID userId, String originalUrl, String shortCode,
+                   long createdAtMillis, long expiresAtMillis, long state, String description, Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.id = Objects.requireNonNull(id, "Id cannot be null");
+        this.userId = Objects.requireNonNull(userId, "UserId cannot be null");
+        this.originalUrl = Objects.requireNonNull(originalUrl, "OriginalUrl cannot be null");
+        this.shortCode = Objects.requireNonNull(shortCode, "ShortCode cannot be null");
+        this.createdAtMillis = createdAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.state = state;
+        this.description = description != null ? description : "";
+    }
+
+    /**
+     * Восстанавливает ранее сохраненную ссылку (например, из журнала репозитория) с исходными
+     * идентификатором и состоянием. Значения уже прошли проверки при создании и не проверяются повторно.
+     */
+    public static Link restore(UUID id, UUID userId, String originalUrl, String shortCode,
+                               long createdAtMillis, long expiresAtMillis, int maxClicks, int currentClicks,
+                               boolean isActive, String description, Clock clock) {
+        return new Link(id, userId, originalUrl, shortCode, createdAtMillis, expiresAtMillis,
+                state(maxClicks, currentClicks, isActive), description, clock);
+    }
+
     /**
      * Проверяет валидность URL.
      * Использует Apache Commons Validator для строгой проверки.
@@ -106,11 +169,20 @@ public class Link {
         return trimmedUrl;
     }
 
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), clock.getZone());
+    }
+
     /**
      * Проверяет корректность состояния объекта после инициализации.
      */
     private void validateState() {
-        if (expiresAt.isBefore(createdAt)) {
+        int maxClicks = getMaxClicks();
+        if (expiresAtMillis < createdAtMillis) {
             throw new IllegalArgumentException("Expiration date cannot be before creation date");
         }
 
@@ -130,26 +202,57 @@ public class Link {
      * @throws IllegalStateException если ссылка неактивна, просрочена или достигнут лимит
      */
     public void incrementClicks() {
-        if (!isActive) {
-            throw new IllegalStateException("Link is not active");
+        switch (tryIncrementClicks()) {
+            case GRANTED:
+                return;
+            case EXPIRED:
+                throw new IllegalStateException("Link has expired");
+            case LIMIT_REACHED:
+                throw new IllegalStateException("Click limit reached");
+            default:
+                throw new IllegalStateException("Link is not active");
         }
+    }
 
-        if (isExpired()) {
-            this.isActive = false;
-            throw new IllegalStateException("Link has expired");
+    /**
+     * Пытается засчитать переход, не выбрасывая исключений.
+     * Лимит, счетчик и активность меняются одним compare-and-set без блокировок: при одновременных
+     * переходах ни один клик не теряется, лимит не превышается, деактивацию выполняет ровно тот
+     * поток, который забрал последний разрешенный клик, а одновременное повышение лимита
+     * не теряется - переход и деактивация видят тот лимит, что был в момент CAS.
+     *
+     * @return GRANTED если переход засчитан, иначе причина отказа
+     */
+    public AccessStatus tryIncrementClicks() {
+        if ((loadState() & ACTIVE) == 0) {
+            return AccessStatus.INACTIVE;
         }
 
-        // Проверяем, не достигли ли лимита УЖЕ
-        if (currentClicks >= maxClicks) {
-            this.isActive = false;
-            throw new IllegalStateException("Click limit reached");
+        if (isExpired()) {
+            deactivate();
+            return AccessStatus.EXPIRED;
         }
 
-        this.currentClicks++;
-
-        // Проверяем, не достигли ли лимита ПОСЛЕ увеличения
-        if (currentClicks >= maxClicks) {
-            this.isActive = false;
+        while (true) {
+            long current = loadState();
+            if ((current & ACTIVE) == 0) {
+                return AccessStatus.INACTIVE;
+            }
+            int limit = maxClicksOf(current);
+            int clicks = clicksOf(current);
+
+            // Проверяем, не достигли ли лимита УЖЕ
+            if (clicks >= limit) {
+                if (compareAndSetState(current, state(limit, clicks, false))) {
+                    return AccessStatus.LIMIT_REACHED;
+                }
+                continue;
+            }
+
+            // Деактивация при достижении лимита - в том же CAS, что и увеличение счетчика
+            if (compareAndSetState(current, state(limit, clicks + 1, clicks + 1 < limit))) {
+                return AccessStatus.GRANTED;
+            }
         }
     }
 
@@ -159,7 +262,18 @@ public class Link {
      * @return true если срок действия истек, иначе false
      */
     public boolean isExpired() {
-        return LocalDateTime.now().isAfter(expiresAt);
+        return isExpiredAt(clock.millis());
+    }
+
+    /**
+     * Проверяет, истек ли срок действия ссылки на указанный момент.
+     * Позволяет проверить пачку ссылок за одно чтение часов.
+     *
+     * @param epochMillis момент времени в epoch-миллисекундах
+     * @return true если срок действия истек к этому моменту
+     */
+    public boolean isExpiredAt(long epochMillis) {
+        return epochMillis > expiresAtMillis;
     }
 
     /**
@@ -168,7 +282,8 @@ public class Link {
      * @return true если лимит достигнут, иначе false
      */
     public boolean hasReachedLimit() {
-        return currentClicks >= maxClicks;
+        long current = loadState();
+        return clicksOf(current) >= maxClicksOf(current);
     }
 
     /**
@@ -178,7 +293,7 @@ public class Link {
      * @return true если ссылка доступна, иначе false
      */
     public boolean canBeAccessed() {
-        return isActive && !isExpired() && !hasReachedLimit();
+        return isActive() && !isExpired() && !hasReachedLimit();
     }
 
     /**
@@ -197,18 +312,24 @@ public class Link {
             throw new IllegalArgumentException("Max clicks cannot exceed 1,000,000");
         }
 
-        if (newMaxClicks < currentClicks) {
-            throw new IllegalArgumentException(
-                    String.format("New max clicks (%d) cannot be less than current clicks (%d)",
-                            newMaxClicks, currentClicks)
-            );
-        }
-
-        this.maxClicks = newMaxClicks;
-
-        // Реактивация ссылки, если она была деактивирована из-за лимита
-        if (!isActive && !isExpired()) {
-            this.isActive = true;
+        // Проверка счетчика, новый лимит и реактивация - одним CAS: параллельный переход
+        // не может ни обогнать проверку, ни деактивировать ссылку по старому лимиту после нее
+        boolean expired = isExpired();
+        while (true) {
+            long current = loadState();
+            int clicks = clicksOf(current);
+            if (newMaxClicks < clicks) {
+                throw new IllegalArgumentException(
+                        String.format("New max clicks (%d) cannot be less than current clicks (%d)",
+                                newMaxClicks, clicks)
+                );
+            }
+
+            // Реактивация ссылки, если она была деактивирована из-за лимита
+            boolean active = (current & ACTIVE) != 0 || !expired;
+            if (compareAndSetState(current, state(newMaxClicks, clicks, active))) {
+                return;
+            }
         }
     }
 
@@ -217,7 +338,39 @@ public class Link {
      * Используется при ручном удалении или системных операциях.
      */
     public void deactivate() {
-        this.isActive = false;
+        while (true) {
+            long current = loadState();
+            if ((current & ACTIVE) == 0 || compareAndSetState(current, current & ~ACTIVE)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Слово состояния. Хранилище, которое держит состояние у себя (ссылка-представление над
+     * записью), переопределяет оба метода: все проверки и CAS ссылки идут через них.
+     */
+    protected long loadState() {
+        return state;
+    }
+
+    protected boolean compareAndSetState(long expected, long updated) {
+        return STATE.compareAndSet(this, expected, updated);
+    }
+
+    /**
+     * @return слово состояния: лимит в старших 32 битах, счетчик в битах 1-31, активность в бите 0
+     */
+    protected static long state(int maxClicks, int currentClicks, boolean active) {
+        return (long) maxClicks << 32 | (currentClicks & 0x7FFFFFFFL) << 1 | (active ? ACTIVE : 0);
+    }
+
+    private static int maxClicksOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int clicksOf(long state) {
+        return (int) state >>> 1;
     }
 
     // ==================== ГЕТТЕРЫ ====================
@@ -239,35 +392,55 @@ public class Link {
     }
 
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return toLocalDateTime(createdAtMillis);
     }
 
     public LocalDateTime getExpiresAt() {
-        return expiresAt;
+        return toLocalDateTime(expiresAtMillis);
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
     }
 
     public int getMaxClicks() {
-        return maxClicks;
+        return maxClicksOf(loadState());
     }
 
     public int getCurrentClicks() {
-        return currentClicks;
+        return clicksOf(loadState());
     }
 
     public boolean isActive() {
-        return isActive;
+        return (loadState() & ACTIVE) != 0;
     }
 
     public String getDescription() {
         return description;
     }
 
+    /**
+     * @return закэшированный результат редиректа или null, если он еще не построен
+     */
+    public Object getRedirectResult() {
+        return redirectResult;
+    }
+
+    public void setRedirectResult(Object redirectResult) {
+        this.redirectResult = redirectResult;
+    }
+
     // ==================== УТИЛИТНЫЕ МЕТОДЫ ====================
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        // Представление хранилища равно обычной ссылке с тем же id
+        if (!(o instanceof Link)) return false;
         Link link = (Link) o;
         return id.equals(link.id);
     }
@@ -285,10 +458,10 @@ public class Link {
                 id,
                 shortCode,
                 originalUrl.length() > 30 ? originalUrl.substring(0, 27) + "..." : originalUrl,
-                expiresAt,
-                currentClicks,
-                maxClicks,
-                isActive,
+                getExpiresAt(),
+                getCurrentClicks(),
+                getMaxClicks(),
+                isActive(),
                 userId
         );
     }
@@ -299,7 +472,10 @@ public class Link {
      * @return детализированное описание ссылки
      */
     public String toDetailedString() {
-        long hoursLeft = java.time.Duration.between(LocalDateTime.now(), expiresAt).toHours();
+        long hoursLeft = getHoursRemaining();
+        long current = loadState();
+        int currentClicks = clicksOf(current);
+        int maxClicks = maxClicksOf(current);
         double usagePercentage = maxClicks > 0 ? (currentClicks * 100.0) / maxClicks : 0;
 
         return String.format(
@@ -313,8 +489,8 @@ public class Link {
                         "User ID: %s",
                 shortCode,
                 originalUrl,
-                createdAt,
-                expiresAt,
+                getCreatedAt(),
+                getExpiresAt(),
                 Math.max(0, hoursLeft),
                 currentClicks,
                 maxClicks,
@@ -331,16 +507,15 @@ public class Link {
      * @return описание статуса
      */
     public String getStatusDescription() {
+        // Одно чтение часов на всю проверку
         if (isExpired()) {
             return "EXPIRED";
         } else if (hasReachedLimit()) {
             return "LIMIT REACHED";
-        } else if (!isActive) {
+        } else if (!isActive()) {
             return "INACTIVE (manually deactivated)";
-        } else if (canBeAccessed()) {
-            return "ACTIVE";
         } else {
-            return "UNKNOWN";
+            return "ACTIVE";
         }
     }
 
@@ -360,6 +535,9 @@ public class Link {
      * @return процент использования (0-100)
      */
     public double getUsagePercentage() {
+        long current = loadState();
+        int currentClicks = clicksOf(current);
+        int maxClicks = maxClicksOf(current);
         if (maxClicks == 0) return 0;
         return Math.min(100.0, (currentClicks * 100.0) / maxClicks);
     }
@@ -370,7 +548,7 @@ public class Link {
      * @return количество оставшихся часов (может быть отрицательным, если срок истек)
      */
     public long getHoursRemaining() {
-        return java.time.Duration.between(LocalDateTime.now(), expiresAt).toHours();
+        return (expiresAtMillis - clock.millis()) / MILLIS_PER_HOUR;
     }
 
     /**
@@ -380,11 +558,12 @@ public class Link {
      * @return true если до истечения осталось меньше thresholdHours
      */
     public boolean isExpiringSoon(int thresholdHours) {
-        long hoursRemaining = getHoursRemaining();
+        long remainingMillis = expiresAtMillis - clock.millis();
+        long hoursRemaining = remainingMillis / MILLIS_PER_HOUR;
 
         // Если осталось меньше часа, проверяем минуты
         if (hoursRemaining == 0) {
-            long minutesRemaining = java.time.Duration.between(LocalDateTime.now(), expiresAt).toMinutes();
+            long minutesRemaining = remainingMillis / MILLIS_PER_MINUTE;
             return minutesRemaining > 0 && minutesRemaining <= (thresholdHours * 60);
         }
 
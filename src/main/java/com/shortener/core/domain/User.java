@@ -1,5 +1,6 @@
 package com.shortener.core.domain;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -9,19 +10,22 @@ public class User {
     private final Set<UUID> linkIds;
     private String notificationEmail;
     private LocalDateTime lastActivity;
+    private final Clock clock;
 
     public User() {
-        this.id = UUID.randomUUID();
-        this.createdAt = LocalDateTime.now();
-        this.linkIds = new HashSet<>();
-        this.lastActivity = LocalDateTime.now();
+        this(UUID.randomUUID());
     }
 
     public User(UUID id) {
+        this(id, Clock.systemDefaultZone());
+    }
+
+    public User(UUID id, Clock clock) {
         this.id = id;
-        this.createdAt = LocalDateTime.now();
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.createdAt = LocalDateTime.now(clock);
         this.linkIds = new HashSet<>();
-        this.lastActivity = LocalDateTime.now();
+        this.lastActivity = createdAt;
     }
 
     public void addLink(UUID linkId) {
@@ -39,7 +43,7 @@ public class User {
     }
 
     public void updateActivity() {
-        this.lastActivity = LocalDateTime.now();
+        this.lastActivity = LocalDateTime.now(clock);
     }
 
     // Getters
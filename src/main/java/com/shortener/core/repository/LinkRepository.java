@@ -2,6 +2,7 @@ package com.shortener.core.repository;
 
 import com.shortener.core.domain.Link;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -9,9 +10,36 @@ import java.util.UUID;
 public interface LinkRepository {
     Optional<Link> findById(UUID id);
     Optional<Link> findByShortCode(String shortCode);
+
+    /**
+     * Поиск по короткому коду без обертки Optional - для пути редиректа, где на каждый
+     * переход не должно выделяться ничего.
+     *
+     * @return ссылка или null
+     */
+    default Link findByShortCodeOrNull(String shortCode) {
+        return findByShortCode(shortCode).orElse(null);
+    }
     List<Link> findByUserId(UUID userId);
     List<Link> findAll();
     Link save(Link link);
+
+    /**
+     * Сохраняет пачку ссылок. Реализации с внешним хранилищем могут записать ее одной операцией.
+     */
+    default void saveAll(Collection<Link> links) {
+        links.forEach(this::save);
+    }
+
+    /**
+     * Сохраняет пачку ссылок, которые еще есть в хранилище; удаленные к моменту записи пропускаются.
+     * Проверка и запись атомарны относительно delete той же ссылки, так что отложенная запись
+     * не воскрешает удаленную или просроченную ссылку.
+     *
+     * @return сколько ссылок записано
+     */
+    int saveAllIfPresent(Collection<Link> links);
+
     void delete(UUID id);
     void deleteAll();
     long count();
@@ -0,0 +1,91 @@
+package com.shortener.core.service;
+
+/**
+ * Кодирование 128-битного дайджеста в Base62 без BigInteger: число хранится в двух long,
+ * деление на 62 выполняется по 32-битным половинам, цифры пишутся сразу в char[] кода.
+ *
+ * Результат совпадает с прежним алгоритмом BASE62 (младшие цифры числа, старшая слева).
+ * Если у числа меньше цифр, чем нужно коду, хвост раньше добивался Math.random();
+ * теперь он детерминированно выводится из дайджеста, поэтому код любой длины воспроизводим.
+ */
+public final class Base62Encoder {
+    private static final char[] BASE62_CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final long LOW_32_BITS = 0xFFFFFFFFL;
+
+    private Base62Encoder() {
+    }
+
+    /**
+     * @param digest дайджест не короче 16 байт (используются первые 16, big-endian)
+     * @param length длина кода
+     */
+    public static String encode(byte[] digest, int length) {
+        if (digest.length < 16) {
+            throw new IllegalArgumentException("Digest must be at least 16 bytes");
+        }
+        return encode(readLong(digest, 0), readLong(digest, 8), length);
+    }
+
+    /**
+     * @param high старшие 64 бита беззнакового 128-битного числа
+     * @param low  младшие 64 бита
+     */
+    public static String encode(long high, long low, int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Code length must be positive");
+        }
+        char[] code = new char[length];
+        long seed = high ^ Long.rotateLeft(low, 32);
+
+        // Цифры пишутся справа налево: первой выходит младшая
+        int digits = 0;
+        while ((high | low) != 0 && digits < length) {
+            long h1 = high >>> 32;
+            long h0 = high & LOW_32_BITS;
+            long l1 = low >>> 32;
+            long l0 = low & LOW_32_BITS;
+
+            long q3 = h1 / 62;
+            long remainder = h1 % 62;
+            long current = (remainder << 32) | h0;
+            long q2 = current / 62;
+            remainder = current % 62;
+            current = (remainder << 32) | l1;
+            long q1 = current / 62;
+            remainder = current % 62;
+            current = (remainder << 32) | l0;
+            long q0 = current / 62;
+            remainder = current % 62;
+
+            high = (q3 << 32) | q2;
+            low = (q1 << 32) | q0;
+            code[length - 1 - digits] = BASE62_CHARS[(int) remainder];
+            digits++;
+        }
+
+        if (digits < length) {
+            // Число кончилось раньше: цифры сдвигаются в начало, хвост добивается из дайджеста
+            System.arraycopy(code, length - digits, code, 0, digits);
+            for (int i = digits; i < length; i++) {
+                seed = mix(seed + 0x9E3779B97F4A7C15L);
+                code[i] = BASE62_CHARS[(int) Long.remainderUnsigned(seed, 62)];
+            }
+        }
+        return new String(code);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static long mix(long value) {
+        long h = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,158 @@
+package com.shortener.core.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Фильтр кодов, в которых встречается запрещенное слово.
+ *
+ * Список слов один раз компилируется в автомат Ахо-Корасик, достроенный до полной таблицы
+ * переходов (DFA): проверка кода - один проход по символам с одним чтением массива на символ,
+ * независимо от числа слов. Символы кода и слов сначала приводятся к канонической букве:
+ * регистр не важен, а цифры leetspeak заменяются похожими буквами (0 - o, 1 и l - i, 3 - e, 4 - a,
+ * 5 - s, 6 и 9 - g, 7 - t, 8 - b, 2 - z). Прочие символы (например, '-' и '_' кодов HASH)
+ * разрывают слово.
+ */
+public final class BlockedWordFilter {
+    private static final int SYMBOLS = 26;
+    private static final int SEPARATOR = -1;
+    private static final byte[] CANONICAL = new byte[128];
+
+    static {
+        Arrays.fill(CANONICAL, (byte) SEPARATOR);
+        for (char c = 'a'; c <= 'z'; c++) {
+            CANONICAL[c] = (byte) (c - 'a');
+            CANONICAL[Character.toUpperCase(c)] = (byte) (c - 'a');
+        }
+        String leet = "0o1i2z3e4a5s6g7t8b9g";
+        for (int i = 0; i < leet.length(); i += 2) {
+            CANONICAL[leet.charAt(i)] = (byte) (leet.charAt(i + 1) - 'a');
+        }
+        // l и 1 неотличимы от i
+        CANONICAL['l'] = CANONICAL['L'] = (byte) ('i' - 'a');
+    }
+
+    public static final BlockedWordFilter EMPTY = compile(List.of());
+
+    // transitions[state * SYMBOLS + symbol] - следующее состояние; 0 - корень
+    private final int[] transitions;
+    // Состояние завершает запрещенное слово (свое или по суффиксной ссылке)
+    private final boolean[] accepting;
+    private final int words;
+
+    private BlockedWordFilter(int[] transitions, boolean[] accepting, int words) {
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.words = words;
+    }
+
+    /**
+     * Строит автомат по списку слов. Пустые строки и строки из одних разделителей пропускаются.
+     */
+    public static BlockedWordFilter compile(Collection<String> blockedWords) {
+        // Бор: ребра хранятся сразу в таблице, -1 - ребра нет
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(newNode());
+        terminal.add(false);
+        int words = 0;
+
+        for (String word : blockedWords) {
+            int state = 0;
+            int length = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int symbol = canonical(word.charAt(i));
+                if (symbol == SEPARATOR) {
+                    continue;
+                }
+                int next = trie.get(state)[symbol];
+                if (next < 0) {
+                    next = trie.size();
+                    trie.get(state)[symbol] = next;
+                    trie.add(newNode());
+                    terminal.add(false);
+                }
+                state = next;
+                length++;
+            }
+            if (length > 0 && !terminal.get(state)) {
+                terminal.set(state, true);
+                words++;
+            }
+        }
+
+        // Обход в ширину: недостающие переходы берутся у суффиксной ссылки
+        int states = trie.size();
+        int[] transitions = new int[states * SYMBOLS];
+        boolean[] accepting = new boolean[states];
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+            int child = trie.get(0)[symbol];
+            if (child > 0) {
+                transitions[symbol] = child;
+                queue.add(child);
+            }
+        }
+        accepting[0] = terminal.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] = terminal.get(state) || accepting[fail[state]];
+            for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+                int child = trie.get(state)[symbol];
+                int viaFail = transitions[fail[state] * SYMBOLS + symbol];
+                if (child > 0) {
+                    fail[child] = viaFail;
+                    transitions[state * SYMBOLS + symbol] = child;
+                    queue.add(child);
+                } else {
+                    transitions[state * SYMBOLS + symbol] = viaFail;
+                }
+            }
+        }
+        return new BlockedWordFilter(transitions, accepting, words);
+    }
+
+    /**
+     * @return true, если в коде есть запрещенное слово (с учетом регистра и leetspeak)
+     */
+    public boolean matches(String code) {
+        if (words == 0) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int symbol = canonical(code.charAt(i));
+            if (symbol == SEPARATOR) {
+                state = 0;
+                continue;
+            }
+            state = transitions[state * SYMBOLS + symbol];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return words;
+    }
+
+    public boolean isEmpty() {
+        return words == 0;
+    }
+
+    private static int canonical(char c) {
+        return c < 128 ? CANONICAL[c] : SEPARATOR;
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[SYMBOLS];
+        Arrays.fill(node, -1);
+        return node;
+    }
+}
@@ -0,0 +1,24 @@
+package com.shortener.core.service;
+
+import com.shortener.core.domain.Link;
+
+/**
+ * Приемник засчитанных переходов. Счетчик в самой ссылке уже увеличен,
+ * буфер лишь решает, когда записать новое состояние в репозиторий.
+ */
+@FunctionalInterface
+public interface ClickBuffer {
+
+    /**
+     * Фиксирует переход по ссылке.
+     *
+     * @param link ссылка с уже увеличенным счетчиком
+     */
+    void recordClick(Link link);
+
+    /**
+     * Записывает накопленные изменения в репозиторий.
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,316 @@
+package com.shortener.core.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Множество занятых коротких кодов в виде сжатого битового множества.
+ *
+ * Код фиксированной длины L в алфавите из B символов - это число из [0, B^L). Число делится
+ * на старшую часть (номер контейнера) и младшие containerBits бит, как в Roaring bitmap:
+ * разреженный контейнер хранит отсортированный int[] младших частей, плотный - битовую карту.
+ * В отличие от Roaring с фиксированными 16 битами, ширина контейнера подбирается под
+ * пространство кодов так, чтобы контейнеров было не больше 2^18: случайные 7-символьные коды
+ * крайне разрежены (10M кодов из 3.5 * 10^12), и при 16-битных контейнерах почти каждый код
+ * платил бы за собственный контейнер.
+ *
+ * Коды другой длины или с символами вне алфавита хранятся в обычном множестве строк.
+ * Контейнеры распределены по сегментам со своими блокировками.
+ */
+public final class CodeOccupancyBitmap {
+    private static final int SEGMENTS = 64;
+    private static final int DIRECTORY_BITS = 18;
+    private static final int MIN_CONTAINER_BITS = 16;
+    // Младшая часть хранится в int без знака
+    private static final int MAX_CONTAINER_BITS = 31;
+    // Битовая карта контейнера шире 2^24 бит (2 МБ) не заводится
+    private static final int MAX_BITMAP_CONTAINER_BITS = 24;
+    private static final int INITIAL_ARRAY_CAPACITY = 4;
+
+    private final int codeLength;
+    private final int radix;
+    private final byte[] digits = new byte[128];
+    private final boolean encodable;
+    private final int containerBits;
+    private final int lowMask;
+    // Порог перехода контейнера в битовую карту: столько int занимают столько же памяти, сколько карта
+    private final int bitmapThreshold;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Set<String> fallback = ConcurrentHashMap.newKeySet();
+    private final LongAdder encodedCount = new LongAdder();
+
+    /**
+     * @param alphabet   символы кода в порядке значений цифр
+     * @param codeLength длина кодов, кодируемых числами
+     */
+    public CodeOccupancyBitmap(String alphabet, int codeLength) {
+        if (alphabet.length() < 2 || alphabet.length() > 64) {
+            throw new IllegalArgumentException("Alphabet must have between 2 and 64 characters");
+        }
+        this.codeLength = codeLength;
+        this.radix = alphabet.length();
+        Arrays.fill(digits, (byte) -1);
+        for (int i = 0; i < alphabet.length(); i++) {
+            char c = alphabet.charAt(i);
+            if (c >= 128 || digits[c] >= 0) {
+                throw new IllegalArgumentException("Alphabet must consist of distinct ASCII characters");
+            }
+            digits[c] = (byte) i;
+        }
+
+        // Пространство B^L должно помещаться в long
+        double spaceBits = codeLength * (Math.log(radix) / Math.log(2));
+        this.encodable = codeLength > 0 && spaceBits < 63;
+        int bits = (int) Math.ceil(spaceBits) - DIRECTORY_BITS;
+        this.containerBits = Math.max(MIN_CONTAINER_BITS, Math.min(MAX_CONTAINER_BITS, bits));
+        this.lowMask = (int) ((1L << containerBits) - 1);
+        this.bitmapThreshold = containerBits <= MAX_BITMAP_CONTAINER_BITS
+                ? (1 << containerBits) / Integer.SIZE
+                : Integer.MAX_VALUE;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * @return true, если код был свободен и теперь занят
+     */
+    public boolean add(String code) {
+        long value = encode(code);
+        if (value < 0) {
+            return fallback.add(code);
+        }
+        long key = value >>> containerBits;
+        Segment segment = segmentFor(key);
+        boolean added;
+        synchronized (segment) {
+            Container container = segment.containers.get(key);
+            if (container == null) {
+                container = new Container();
+                segment.containers.put(key, container);
+            }
+            added = container.add((int) value & lowMask, bitmapThreshold, containerBits);
+        }
+        if (added) {
+            encodedCount.increment();
+        }
+        return added;
+    }
+
+    /**
+     * @return true, если код был занят и освобожден
+     */
+    public boolean remove(String code) {
+        long value = encode(code);
+        if (value < 0) {
+            return fallback.remove(code);
+        }
+        long key = value >>> containerBits;
+        Segment segment = segmentFor(key);
+        boolean removed;
+        synchronized (segment) {
+            Container container = segment.containers.get(key);
+            if (container == null) {
+                return false;
+            }
+            removed = container.remove((int) value & lowMask, bitmapThreshold);
+            if (container.size == 0) {
+                segment.containers.remove(key);
+            }
+        }
+        if (removed) {
+            encodedCount.decrement();
+        }
+        return removed;
+    }
+
+    public boolean contains(String code) {
+        long value = encode(code);
+        if (value < 0) {
+            return fallback.contains(code);
+        }
+        long key = value >>> containerBits;
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Container container = segment.containers.get(key);
+            return container != null && container.contains((int) value & lowMask);
+        }
+    }
+
+    public long size() {
+        return encodedCount.sum() + fallback.size();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                encodedCount.add(-segment.size());
+                segment.containers.clear();
+            }
+        }
+        fallback.clear();
+    }
+
+    public Map<String, Object> getMetrics() {
+        long containers = 0;
+        long bitmapContainers = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                containers += segment.containers.size();
+                for (Container container : segment.containers.values()) {
+                    if (container.bits != null) {
+                        bitmapContainers++;
+                    }
+                    bytes += container.estimateBytes();
+                }
+            }
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("codes", size());
+        metrics.put("containerBits", containerBits);
+        metrics.put("containers", containers);
+        metrics.put("bitmapContainers", bitmapContainers);
+        metrics.put("fallbackCodes", fallback.size());
+        metrics.put("estimatedBytes", bytes);
+        return metrics;
+    }
+
+    /**
+     * @return число кода или -1, если код нельзя закодировать
+     */
+    private long encode(String code) {
+        if (!encodable || code.length() != codeLength) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < codeLength; i++) {
+            char c = code.charAt(i);
+            int digit = c < 128 ? digits[c] : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * radix + digit;
+        }
+        return value;
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (key ^ (key >>> 7) ^ (key >>> 13)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment {
+        final Map<Long, Container> containers = new HashMap<>();
+
+        long size() {
+            long size = 0;
+            for (Container container : containers.values()) {
+                size += container.size;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Контейнер одного диапазона 2^containerBits: отсортированный массив или битовая карта.
+     */
+    private static final class Container {
+        int[] values = new int[INITIAL_ARRAY_CAPACITY];
+        long[] bits;
+        int size;
+
+        boolean contains(int low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        boolean add(int low, int bitmapThreshold, int containerBits) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                bits[low >>> 6] |= mask;
+                size++;
+                return true;
+            }
+
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                return false;
+            }
+            if (size >= bitmapThreshold) {
+                toBitmap(containerBits);
+                return add(low, bitmapThreshold, containerBits);
+            }
+            int insertAt = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(bitmapThreshold, size + (size >> 1) + 1));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = low;
+            size++;
+            return true;
+        }
+
+        boolean remove(int low, int bitmapThreshold) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                bits[low >>> 6] &= ~mask;
+                size--;
+                // Обратно в массив с запасом, чтобы не переключаться на каждой операции у порога
+                if (size <= bitmapThreshold / 2) {
+                    toArray();
+                }
+                return true;
+            }
+
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        long estimateBytes() {
+            // Объект контейнера, узел HashMap и ключ Long
+            long overhead = 24 + 32 + 16;
+            return overhead + (bits != null ? 16 + 8L * bits.length : 16 + 4L * values.length);
+        }
+
+        private void toBitmap(int containerBits) {
+            bits = new long[1 << (containerBits - 6)];
+            for (int i = 0; i < size; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            int[] array = new int[Math.max(INITIAL_ARRAY_CAPACITY, size)];
+            int count = 0;
+            for (int word = 0; word < bits.length; word++) {
+                long w = bits[word];
+                while (w != 0) {
+                    array[count++] = (word << 6) + Long.numberOfTrailingZeros(w);
+                    w &= w - 1;
+                }
+            }
+            values = array;
+            bits = null;
+        }
+    }
+}
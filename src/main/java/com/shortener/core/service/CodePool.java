@@ -0,0 +1,14 @@
+package com.shortener.core.service;
+
+/**
+ * Источник заранее сгенерированных кодов. Коды уже зарезервированы генератором как уникальные,
+ * поэтому на пути создания ссылки остается только взять следующий.
+ */
+@FunctionalInterface
+public interface CodePool {
+
+    /**
+     * @return готовый код или null, если пул пуст (тогда код генерируется на месте)
+     */
+    String poll();
+}
@@ -0,0 +1,14 @@
+package com.shortener.core.service;
+
+import java.util.UUID;
+
+/**
+ * Проверка перед повторной выдачей кода из индекса "пользователь + URL": индекс хранит только
+ * отпечаток URL и ничего не знает о судьбе ссылки, поэтому код отдается повторно, только если
+ * ссылка с ним все еще существует, действует и принадлежит тому же пользователю с тем же URL.
+ */
+@FunctionalInterface
+public interface CodeReuseVerifier {
+
+    boolean canReuse(String shortCode, String originalUrl, UUID userId);
+}
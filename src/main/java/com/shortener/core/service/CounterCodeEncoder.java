@@ -0,0 +1,160 @@
+package com.shortener.core.service;
+
+/**
+ * Взаимно однозначное отображение числовых идентификаторов в Base62-коды для алгоритма COUNTER.
+ *
+ * Идентификаторы из [0, 62^L) дают коды ровно длины L (L - настроенная длина кода), следующие
+ * диапазоны - коды длины L+1 и т.д. до 10 символов. Внутри каждого диапазона идентификатор может
+ * перемешиваться 4-раундовой сетью Фейстеля с cycle-walking: это биекция на [0, 62^L), поэтому
+ * коды остаются уникальными, но соседние идентификаторы не дают похожих кодов.
+ */
+public final class CounterCodeEncoder {
+    public static final int MAX_CODE_LENGTH = 10;
+
+    private static final String BASE62_CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int ROUNDS = 4;
+    private static final long[] POW62 = new long[MAX_CODE_LENGTH + 1];
+
+    static {
+        POW62[0] = 1;
+        for (int i = 1; i <= MAX_CODE_LENGTH; i++) {
+            POW62[i] = POW62[i - 1] * 62;
+        }
+    }
+
+    private final int codeLength;
+    private final long[] roundKeys;
+
+    /**
+     * @param codeLength  минимальная длина кода (1..10)
+     * @param scrambleKey ключ перемешивания; 0 - коды идут по порядку идентификаторов
+     */
+    public CounterCodeEncoder(int codeLength, long scrambleKey) {
+        if (codeLength < 1 || codeLength > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Counter code length must be between 1 and " + MAX_CODE_LENGTH);
+        }
+        this.codeLength = codeLength;
+        this.roundKeys = scrambleKey != 0 ? deriveRoundKeys(scrambleKey) : null;
+    }
+
+    /**
+     * @return число идентификаторов, кодируемых кодами минимальной длины
+     */
+    public long capacity() {
+        return POW62[codeLength];
+    }
+
+    public String encode(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must be non-negative");
+        }
+        // Диапазон [offset, offset + 62^length) кодируется кодами одной длины
+        int length = codeLength;
+        long offset = 0;
+        while (id - offset >= POW62[length]) {
+            offset += POW62[length];
+            if (++length > MAX_CODE_LENGTH) {
+                throw new IllegalStateException("Counter code space exhausted");
+            }
+        }
+
+        long value = scramble(id - offset, POW62[length]);
+        char[] code = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            code[i] = BASE62_CHARS.charAt((int) (value % 62));
+            value /= 62;
+        }
+        return new String(code);
+    }
+
+    public long decode(String code) {
+        int length = code.length();
+        if (length < codeLength || length > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Invalid counter code length: " + code);
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = BASE62_CHARS.indexOf(code.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid counter code: " + code);
+            }
+            value = value * 62 + digit;
+        }
+
+        long offset = 0;
+        for (int l = codeLength; l < length; l++) {
+            offset += POW62[l];
+        }
+        return offset + unscramble(value, POW62[length]);
+    }
+
+    private long scramble(long value, long domain) {
+        if (roundKeys == null) {
+            return value;
+        }
+        // Cycle-walking: сеть работает на ближайшей степени двойки, выходы за домен прогоняются повторно
+        int halfBits = halfBits(domain);
+        do {
+            value = feistel(value, halfBits);
+        } while (value >= domain);
+        return value;
+    }
+
+    private long unscramble(long value, long domain) {
+        if (roundKeys == null) {
+            return value;
+        }
+        int halfBits = halfBits(domain);
+        do {
+            value = inverseFeistel(value, halfBits);
+        } while (value >= domain);
+        return value;
+    }
+
+    private long feistel(long value, int halfBits) {
+        long mask = (1L << halfBits) - 1;
+        long left = value >>> halfBits;
+        long right = value & mask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right, roundKeys[round]) & mask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long inverseFeistel(long value, int halfBits) {
+        long mask = (1L << halfBits) - 1;
+        long left = value >>> halfBits;
+        long right = value & mask;
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            long previous = right ^ (mix(left, roundKeys[round]) & mask);
+            right = left;
+            left = previous;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private static int halfBits(long domain) {
+        int bits = 64 - Long.numberOfLeadingZeros(domain - 1);
+        return (bits + 1) / 2;
+    }
+
+    private static long mix(long value, long key) {
+        long h = (value + key) * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private static long[] deriveRoundKeys(long scrambleKey) {
+        long[] keys = new long[ROUNDS];
+        long state = scrambleKey;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            keys[i] = mix(state, 0);
+        }
+        return keys;
+    }
+}
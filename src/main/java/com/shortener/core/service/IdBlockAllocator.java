@@ -0,0 +1,24 @@
+package com.shortener.core.service;
+
+/**
+ * Источник непересекающихся блоков монотонно растущего пространства идентификаторов
+ * для алгоритма COUNTER. Генератор берет блок целиком и раздает идентификаторы из него локально.
+ */
+@FunctionalInterface
+public interface IdBlockAllocator {
+
+    /**
+     * Резервирует блок [start, start + size).
+     *
+     * @return первый идентификатор блока
+     */
+    long allocate(int size);
+
+    /**
+     * Сдвигает источник так, чтобы следующие блоки начинались не раньше id: генератор сообщает
+     * сюда отметку, восстановленную по кодам, выданным до перезапуска. Источник, сам хранящий
+     * свою позицию, может ничего не делать.
+     */
+    default void advanceTo(long id) {
+    }
+}
@@ -7,6 +7,7 @@ import com.shortener.core.exception.LinkNotFoundException;
 import com.shortener.core.exception.AccessDeniedException;
 import com.shortener.core.repository.LinkRepository;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -16,13 +17,30 @@ public class LinkService {
     private final ShortCodeGenerator codeGenerator;
     private final int defaultTtlHours;
     private final int defaultMaxClicks;
+    private final Clock clock;
+    private final ClickBuffer clickBuffer;
 
     public LinkService(LinkRepository linkRepository, ShortCodeGenerator codeGenerator,
                        int defaultTtlHours, int defaultMaxClicks) {
+        this(linkRepository, codeGenerator, defaultTtlHours, defaultMaxClicks, Clock.systemDefaultZone());
+    }
+
+    public LinkService(LinkRepository linkRepository, ShortCodeGenerator codeGenerator,
+                       int defaultTtlHours, int defaultMaxClicks, Clock clock) {
+        // По умолчанию каждый переход сразу записывается в репозиторий
+        this(linkRepository, codeGenerator, defaultTtlHours, defaultMaxClicks, clock, linkRepository::save);
+    }
+
+    public LinkService(LinkRepository linkRepository, ShortCodeGenerator codeGenerator,
+                       int defaultTtlHours, int defaultMaxClicks, Clock clock, ClickBuffer clickBuffer) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.clickBuffer = Objects.requireNonNull(clickBuffer, "ClickBuffer cannot be null");
         this.linkRepository = linkRepository;
         this.codeGenerator = codeGenerator;
         this.defaultTtlHours = defaultTtlHours;
         this.defaultMaxClicks = defaultMaxClicks;
+        // Генератор помнит только отпечатки URL; жива ли ссылка с кодом, знает репозиторий
+        codeGenerator.setReuseVerifier(this::canReuseCode);
     }
 
     // Время жизни ТОЛЬКО из конфигурации
@@ -31,7 +49,7 @@ public class LinkService {
         String shortCode = codeGenerator.generateCode(originalUrl, user.getId());
 
         // Время жизни ТОЛЬКО из конфигурации
-        LocalDateTime expiresAt = LocalDateTime.now().plusHours(defaultTtlHours);
+        LocalDateTime expiresAt = LocalDateTime.now(clock).plusHours(defaultTtlHours);
 
         // Установка лимита переходов (может быть задан пользователем)
         int actualMaxClicks = maxClicks != null ? maxClicks : defaultMaxClicks;
@@ -43,7 +61,8 @@ public class LinkService {
                 shortCode,
                 expiresAt,
                 actualMaxClicks,
-                description
+                description,
+                clock
         );
 
         // Сохранение
@@ -52,24 +71,106 @@ public class LinkService {
         return link;
     }
 
-    public String getOriginalUrl(String shortCode) {
-        Link link = linkRepository.findByShortCode(shortCode)
-                .orElseThrow(() -> new LinkNotFoundException("Link not found: " + shortCode));
+    private boolean canReuseCode(String shortCode, String originalUrl, UUID userId) {
+        return linkRepository.findByShortCode(shortCode)
+                .filter(link -> link.isOwnedBy(userId)
+                        && link.getOriginalUrl().equals(originalUrl)
+                        && link.canBeAccessed())
+                .isPresent();
+    }
 
-        if (!link.canBeAccessed()) {
-            if (link.isExpired()) {
+    /**
+     * Возвращает оригинальный URL и засчитывает переход.
+     * Тонкая обертка над {@link #resolve(String)}, сообщающая о промахах исключениями.
+     *
+     * @throws LinkNotFoundException если ссылка не найдена
+     * @throws LinkExpiredException если срок действия истек
+     * @throws IllegalStateException если достигнут лимит или ссылка неактивна
+     */
+    public String getOriginalUrl(String shortCode) {
+        ResolveResult result = resolve(shortCode);
+
+        switch (result.getStatus()) {
+            case REDIRECT:
+                return result.getOriginalUrl();
+            case NOT_FOUND:
+                throw new LinkNotFoundException("Link not found: " + shortCode);
+            case EXPIRED:
                 throw new LinkExpiredException("Link has expired");
-            } else if (link.hasReachedLimit()) {
+            case LIMIT_REACHED:
                 throw new IllegalStateException("Click limit reached");
-            } else {
+            default:
                 throw new IllegalStateException("Link is not active");
-            }
         }
+    }
 
-        link.incrementClicks();
-        linkRepository.save(link);
+    /**
+     * Разрешает короткий код и засчитывает переход без выброса исключений.
+     * Для промахов возвращаются заранее созданные результаты, поэтому поток
+     * случайных или просроченных кодов не тратит CPU на построение стектрейсов.
+     *
+     * @param shortCode короткий код
+     * @return исход разрешения
+     */
+    public ResolveResult resolve(String shortCode) {
+        Link link = linkRepository.findByShortCodeOrNull(shortCode);
+        if (link == null) {
+            return ResolveResult.NOT_FOUND;
+        }
+
+        ResolveResult refusal = refusalOf(link);
+        if (refusal != null) {
+            return refusal;
+        }
 
-        return link.getOriginalUrl();
+        // Между проверкой и кликом ссылку мог исчерпать конкурентный переход
+        switch (link.tryIncrementClicks()) {
+            case GRANTED:
+                break;
+            case EXPIRED:
+                return ResolveResult.EXPIRED;
+            case LIMIT_REACHED:
+                return ResolveResult.LIMIT_REACHED;
+            default:
+                return link.hasReachedLimit() ? ResolveResult.LIMIT_REACHED : ResolveResult.INACTIVE;
+        }
+
+        clickBuffer.recordClick(link);
+
+        return ResolveResult.redirect(link);
+    }
+
+    /**
+     * Разрешает короткий код, не засчитывая переход: статус и URL те же, что вернул бы resolve,
+     * но счетчик и лимит не меняются. Для запросов HEAD - превью ссылок и проверки доступности
+     * не должны расходовать лимит переходов.
+     *
+     * @param shortCode короткий код
+     * @return исход разрешения
+     */
+    public ResolveResult peek(String shortCode) {
+        Link link = linkRepository.findByShortCodeOrNull(shortCode);
+        if (link == null) {
+            return ResolveResult.NOT_FOUND;
+        }
+        ResolveResult refusal = refusalOf(link);
+        return refusal != null ? refusal : ResolveResult.redirect(link);
+    }
+
+    /**
+     * @return причина, по которой ссылка недоступна, или null, если переход возможен
+     */
+    private static ResolveResult refusalOf(Link link) {
+        if (link.canBeAccessed()) {
+            return null;
+        }
+        if (link.isExpired()) {
+            return ResolveResult.EXPIRED;
+        } else if (link.hasReachedLimit()) {
+            return ResolveResult.LIMIT_REACHED;
+        } else {
+            return ResolveResult.INACTIVE;
+        }
     }
 
     public Link getLink(String shortCode, UUID userId) {
@@ -109,8 +210,9 @@ public class LinkService {
     }
 
     public List<Link> findExpiredLinks() {
+        long now = clock.millis();
         return linkRepository.findAll().stream()
-                .filter(Link::isExpired)
+                .filter(link -> link.isExpiredAt(now))
                 .collect(Collectors.toList());
     }
 
@@ -140,9 +242,7 @@ public class LinkService {
         stats.put("canBeAccessed", link.canBeAccessed());
         stats.put("description", link.getDescription());
 
-        long hoursLeft = java.time.Duration.between(
-                LocalDateTime.now(), link.getExpiresAt()
-        ).toHours();
+        long hoursLeft = link.getHoursRemaining();
         stats.put("hoursLeft", Math.max(0, hoursLeft));
 
         double usagePercentage = link.getMaxClicks() > 0 ?
@@ -0,0 +1,110 @@
+package com.shortener.core.service;
+
+/**
+ * MurmurHash3 x64_128 (Austin Appleby): некриптографический 128-битный хеш для алгоритма MURMUR3.
+ * Стойкость к подбору коротким кодам не нужна - уникальность все равно проверяется по множеству
+ * выданных кодов, а распределения Murmur3 хватает, чтобы коллизии были редки.
+ *
+ * Результат последнего вызова hash128 остается в полях объекта (high/low), поэтому хешер
+ * не создает объектов, но и не потокобезопасен: у каждого потока должен быть свой экземпляр.
+ */
+public final class Murmur3 {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long h1;
+    private long h2;
+
+    public void hash128(byte[] data, int offset, int length, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+        int blocksEnd = offset + (length & ~15);
+
+        for (int i = offset; i < blocksEnd; i += 16) {
+            long k1 = readLongLE(data, i);
+            long k2 = readLongLE(data, i + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // Хвост короче 16 байт: байты 0..7 идут в k1, 8..15 - в k2 (little-endian)
+        long k1 = 0;
+        long k2 = 0;
+        int tail = length & 15;
+        for (int i = tail - 1; i >= 8; i--) {
+            k2 = (k2 << 8) | (data[blocksEnd + i] & 0xFFL);
+        }
+        for (int i = Math.min(tail, 8) - 1; i >= 0; i--) {
+            k1 = (k1 << 8) | (data[blocksEnd + i] & 0xFFL);
+        }
+        if (tail > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+
+        this.h1 = h1;
+        this.h2 = h2;
+    }
+
+    /**
+     * @return первое 64-битное слово хеша (h1)
+     */
+    public long high() {
+        return h1;
+    }
+
+    /**
+     * @return второе 64-битное слово хеша (h2)
+     */
+    public long low() {
+        return h2;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long readLongLE(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,67 @@
+package com.shortener.core.service;
+
+/**
+ * Доля пространства кодов, принадлежащая одному узлу из нескольких процессов сервиса.
+ *
+ * Узел nodeId из nodeCount выдает только коды, числовое значение которых (последние до 10
+ * символов кода как число в алфавите) сравнимо с nodeId по модулю nodeCount, а для COUNTER -
+ * идентификаторы nodeId, nodeId + nodeCount, ... Доли узлов не пересекаются, поэтому узлы
+ * создают ссылки параллельно без согласования между собой.
+ */
+public final class NodePartition {
+    public static final NodePartition SINGLE = new NodePartition(0, 1);
+
+    private final int nodeId;
+    private final int nodeCount;
+
+    public NodePartition(int nodeId, int nodeCount) {
+        if (nodeCount <= 0) {
+            throw new IllegalArgumentException("Node count must be positive");
+        }
+        if (nodeId < 0 || nodeId >= nodeCount) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + (nodeCount - 1));
+        }
+        this.nodeId = nodeId;
+        this.nodeCount = nodeCount;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public boolean isPartitioned() {
+        return nodeCount > 1;
+    }
+
+    /**
+     * Переносит значение из [0, space) в ближайшее значение доли узла, не выходя за space.
+     */
+    long assign(long value, long space) {
+        long assigned = value - Math.floorMod(value, nodeCount) + nodeId;
+        return assigned < space ? assigned : assigned - nodeCount;
+    }
+
+    /**
+     * @return глобальный идентификатор COUNTER для локального номера localId этого узла
+     */
+    long globalId(long localId) {
+        return localId * nodeCount + nodeId;
+    }
+
+    /**
+     * @return локальный номер этого узла для глобального идентификатора COUNTER или -1,
+     *         если идентификатор принадлежит другому узлу
+     */
+    long localIdOf(long globalId) {
+        return globalId % nodeCount == nodeId ? globalId / nodeCount : -1;
+    }
+
+    @Override
+    public String toString() {
+        return nodeId + "/" + nodeCount;
+    }
+}
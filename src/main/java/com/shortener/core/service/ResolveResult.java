@@ -0,0 +1,65 @@
+package com.shortener.core.service;
+
+import com.shortener.core.domain.Link;
+
+/**
+ * Исход разрешения короткого кода: статус и, при успехе, оригинальный URL.
+ * Для всех неуспешных статусов возвращаются заранее созданные экземпляры,
+ * поэтому промахи (несуществующие, просроченные, исчерпанные ссылки) не выделяют память.
+ * Результат REDIRECT создается один раз на ссылку и хранится в ней, так что и успешный
+ * переход по живой ссылке не выделяет нового результата.
+ */
+public final class ResolveResult {
+
+    public enum Status {
+        REDIRECT,
+        NOT_FOUND,
+        EXPIRED,
+        LIMIT_REACHED,
+        INACTIVE
+    }
+
+    public static final ResolveResult NOT_FOUND = new ResolveResult(Status.NOT_FOUND, null);
+    public static final ResolveResult EXPIRED = new ResolveResult(Status.EXPIRED, null);
+    public static final ResolveResult LIMIT_REACHED = new ResolveResult(Status.LIMIT_REACHED, null);
+    public static final ResolveResult INACTIVE = new ResolveResult(Status.INACTIVE, null);
+
+    private final Status status;
+    private final String originalUrl;
+
+    private ResolveResult(Status status, String originalUrl) {
+        this.status = status;
+        this.originalUrl = originalUrl;
+    }
+
+    static ResolveResult redirect(Link link) {
+        Object cached = link.getRedirectResult();
+        if (cached instanceof ResolveResult) {
+            return (ResolveResult) cached;
+        }
+        // URL ссылки неизменен; при гонке лишний экземпляр просто перезапишется равным
+        ResolveResult result = new ResolveResult(Status.REDIRECT, link.getOriginalUrl());
+        link.setRedirectResult(result);
+        return result;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return оригинальный URL для статуса REDIRECT, иначе null
+     */
+    public String getOriginalUrl() {
+        return originalUrl;
+    }
+
+    public boolean isRedirect() {
+        return status == Status.REDIRECT;
+    }
+
+    @Override
+    public String toString() {
+        return originalUrl != null ? status + " -> " + originalUrl : status.toString();
+    }
+}
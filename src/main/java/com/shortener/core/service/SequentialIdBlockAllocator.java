@@ -0,0 +1,40 @@
+package com.shortener.core.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Источник блоков COUNTER в пределах одного процесса: блоки идут подряд от начального значения.
+ * Позиция не хранится между перезапусками и восстанавливается генератором по уже выданным кодам
+ * через {@link #advanceTo(long)}.
+ */
+public final class SequentialIdBlockAllocator implements IdBlockAllocator {
+    private final AtomicLong next;
+
+    public SequentialIdBlockAllocator() {
+        this(0);
+    }
+
+    public SequentialIdBlockAllocator(long start) {
+        if (start < 0) {
+            throw new IllegalArgumentException("Start id must be non-negative");
+        }
+        this.next = new AtomicLong(start);
+    }
+
+    @Override
+    public long allocate(int size) {
+        return next.getAndAdd(size);
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        next.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * @return первый идентификатор следующего блока
+     */
+    public long peekNext() {
+        return next.get();
+    }
+}
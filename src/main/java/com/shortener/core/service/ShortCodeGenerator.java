@@ -1,38 +1,262 @@
 package com.shortener.core.service;
 
-import org.apache.commons.lang3.RandomStringUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Генератор коротких кодов. Безопасен для конкурентного использования без общей блокировки:
+ * код резервируется атомарным add в битовое множество занятых кодов (блокировка только на уровне
+ * его сегмента), а индекс "пользователь + URL" заполняется через putIfAbsent. Код удаленной
+ * ссылки освобождается через {@link #releaseCode(String)} и может быть выдан снова.
+ *
+ * Индекс повторной выдачи ограничен по размеру и хранит не строки, а ключ из 128-битного
+ * идентификатора пользователя и 64-битного отпечатка URL (Murmur3); вторая половина хеша
+ * отсекает коллизии отпечатков, а {@link CodeReuseVerifier} - удаленные и истекшие ссылки.
+ *
+ * В адаптивном режиме длина новых кодов растет: как только доля занятых кодов текущей длины
+ * (она же вероятность коллизии одной попытки) достигает порога, новые коды получают длину N+1,
+ * вплоть до {@link CounterCodeEncoder#MAX_CODE_LENGTH}. Занятость каждой длины учитывается
+ * отдельно, поэтому выданные короткие коды остаются зарезервированными и продолжают работать.
+ * COUNTER растет так же сам по себе: за диапазоном длины N его идентификаторы кодируются длиной N+1.
+ *
+ * При нескольких процессах сервиса каждый генератор выдает коды только из своей доли
+ * пространства ({@link NodePartition}), поэтому коды узлов не совпадают без согласования.
+ */
 public class ShortCodeGenerator {
     private static final String BASE62_CHARS =
             "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final String BASE64_URL_CHARS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
     private static final int DEFAULT_CODE_LENGTH = 7;
+    private static final int DEFAULT_BLOCK_SIZE = 1000;
+    private static final long DEFAULT_DEDUP_CACHE_SIZE = 100_000;
+    private static final int MAX_ATTEMPTS = 100;
+    // Доля узла определяется последними символами кода: 64^10 еще помещается в long
+    private static final int PARTITION_CHARS = 10;
 
-    private final Map<String, String> urlUserCache = new HashMap<>();
-    private final Set<String> generatedCodes = new HashSet<>();
+    // Буфер входа хеша и экземпляры дайджестов переиспользуются потоком между вызовами
+    private static final ThreadLocal<HashInput> HASH_INPUT = ThreadLocal.withInitial(HashInput::new);
+
+    private final Cache<DedupKey, DedupEntry> dedupIndex;
+    // Занятые коды по длинам: [0] - настроенная длина, [i] - длина codeLength + i
+    private final CodeOccupancyBitmap[] generatedCodes;
+    private volatile CodeReuseVerifier reuseVerifier = (shortCode, originalUrl, userId) -> true;
+    private volatile CodePool codePool;
+    private volatile BlockedWordFilter blockedWords = BlockedWordFilter.EMPTY;
+    // Были ли зарезервированы коды, выданные до перезапуска (COUNTER тогда сверяется с ними)
+    private volatile boolean hasReservedCodes;
 
     public enum Algorithm {
         RANDOM,
         BASE62,
-        HASH
+        HASH,
+        // Идентификаторы из выделенного блока счетчика: без коллизий и повторных попыток
+        COUNTER,
+        // Некриптографический Murmur3 x64_128: в разы дешевле MD5/SHA-256
+        MURMUR3
     }
 
     private final Algorithm algorithm;
     private final int codeLength;
+    private final String alphabet;
+    private final int radix;
+    private final byte[] digits = new byte[128];
+    private final NodePartition partition;
+    // Порог доли занятых кодов для перехода на следующую длину; 0 - длина фиксирована
+    private final double lengthGrowthThreshold;
+    private final AtomicInteger currentLength;
+
+    // Состояние COUNTER: общий источник блоков и текущий блок этого генератора
+    private final IdBlockAllocator idAllocator;
+    private final int blockSize;
+    private final CounterCodeEncoder counterEncoder;
+    private volatile IdBlock currentBlock = new IdBlock(0, 0);
+    // Локальный номер, следующий за самым старшим из кодов, выданных до перезапуска
+    private final AtomicLong counterHighWater = new AtomicLong();
 
     public ShortCodeGenerator(Algorithm algorithm, int codeLength) {
+        this(algorithm, codeLength, new SequentialIdBlockAllocator(), DEFAULT_BLOCK_SIZE, 0);
+    }
+
+    /**
+     * @param idAllocator источник блоков идентификаторов для COUNTER (общий для всех генераторов)
+     * @param blockSize   размер блока, забираемого за одно обращение к источнику
+     * @param scrambleKey ключ перемешивания кодов COUNTER; 0 - коды идут по порядку
+     */
+    public ShortCodeGenerator(Algorithm algorithm, int codeLength, IdBlockAllocator idAllocator,
+                              int blockSize, long scrambleKey) {
+        this(algorithm, codeLength, idAllocator, blockSize, scrambleKey, DEFAULT_DEDUP_CACHE_SIZE);
+    }
+
+    /**
+     * @param dedupCacheSize сколько пар "пользователь + URL" помнить для повторной выдачи кода;
+     *                       давно не запрашиваемые пары вытесняются и получат новый код
+     */
+    public ShortCodeGenerator(Algorithm algorithm, int codeLength, IdBlockAllocator idAllocator,
+                              int blockSize, long scrambleKey, long dedupCacheSize) {
+        this(algorithm, codeLength, idAllocator, blockSize, scrambleKey, dedupCacheSize, 0);
+    }
+
+    /**
+     * @param lengthGrowthThreshold доля занятых кодов текущей длины (0..1), после которой новые
+     *                              коды становятся на символ длиннее; 0 - длина фиксирована
+     */
+    public ShortCodeGenerator(Algorithm algorithm, int codeLength, IdBlockAllocator idAllocator,
+                              int blockSize, long scrambleKey, long dedupCacheSize,
+                              double lengthGrowthThreshold) {
+        this(algorithm, codeLength, idAllocator, blockSize, scrambleKey, dedupCacheSize, lengthGrowthThreshold,
+                NodePartition.SINGLE);
+    }
+
+    /**
+     * @param partition доля пространства кодов этого узла среди нескольких процессов сервиса
+     */
+    public ShortCodeGenerator(Algorithm algorithm, int codeLength, IdBlockAllocator idAllocator,
+                              int blockSize, long scrambleKey, long dedupCacheSize,
+                              double lengthGrowthThreshold, NodePartition partition) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        if (dedupCacheSize <= 0) {
+            throw new IllegalArgumentException("Dedup cache size must be positive");
+        }
+        if (!(lengthGrowthThreshold >= 0 && lengthGrowthThreshold < 1)) {
+            throw new IllegalArgumentException("Length growth threshold must be in [0, 1)");
+        }
         this.algorithm = algorithm;
         this.codeLength = codeLength > 0 ? codeLength : DEFAULT_CODE_LENGTH;
+        this.idAllocator = idAllocator;
+        this.blockSize = blockSize;
+        this.counterEncoder = algorithm == Algorithm.COUNTER
+                ? new CounterCodeEncoder(this.codeLength, scrambleKey)
+                : null;
+        this.alphabet = algorithm == Algorithm.HASH ? BASE64_URL_CHARS : BASE62_CHARS;
+        this.radix = alphabet.length();
+        for (int i = 0; i < radix; i++) {
+            digits[alphabet.charAt(i)] = (byte) i;
+        }
+        this.partition = Objects.requireNonNull(partition, "Node partition cannot be null");
+        if (algorithm != Algorithm.COUNTER
+                && partition.getNodeCount() > Math.pow(radix, Math.min(this.codeLength, PARTITION_CHARS))) {
+            throw new IllegalArgumentException("Code space of length " + this.codeLength
+                    + " is too small for " + partition.getNodeCount() + " nodes");
+        }
+        // COUNTER не резервирует коды в множестве и удлиняет их сам
+        this.lengthGrowthThreshold = algorithm == Algorithm.COUNTER ? 0 : lengthGrowthThreshold;
+        int lengths = this.lengthGrowthThreshold > 0
+                ? Math.max(1, CounterCodeEncoder.MAX_CODE_LENGTH - this.codeLength + 1)
+                : 1;
+        this.generatedCodes = new CodeOccupancyBitmap[lengths];
+        for (int i = 0; i < lengths; i++) {
+            generatedCodes[i] = new CodeOccupancyBitmap(alphabet, this.codeLength + i);
+        }
+        this.currentLength = new AtomicInteger(this.codeLength);
+        // Обслуживание кэша в вызывающем потоке: размер ограничен сразу после записи
+        this.dedupIndex = Caffeine.newBuilder()
+                .maximumSize(dedupCacheSize)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Задает проверку, без которой код из индекса выдается повторно безусловно.
+     */
+    public void setReuseVerifier(CodeReuseVerifier reuseVerifier) {
+        this.reuseVerifier = Objects.requireNonNull(reuseVerifier, "Reuse verifier cannot be null");
+    }
+
+    /**
+     * Задает запрещенные слова: код, содержащий любое из них, не выдается и генерируется заново.
+     */
+    public void setBlockedWords(BlockedWordFilter blockedWords) {
+        this.blockedWords = Objects.requireNonNull(blockedWords, "Blocked word filter cannot be null");
+    }
+
+    /**
+     * Пул готовых кодов возможен только для алгоритмов, код которых не зависит от URL.
+     */
+    public boolean supportsCodePool() {
+        return algorithm == Algorithm.RANDOM || algorithm == Algorithm.COUNTER;
+    }
+
+    /**
+     * Подключает пул заранее сгенерированных кодов; при пустом пуле код генерируется на месте.
+     */
+    public void setCodePool(CodePool codePool) {
+        if (codePool != null && !supportsCodePool()) {
+            throw new IllegalArgumentException("Code pool is not supported for " + algorithm + " codes");
+        }
+        this.codePool = codePool;
+    }
+
+    /**
+     * Генерирует и резервирует новый код, не привязанный к URL (производитель пула).
+     */
+    public String generateFreshCode() {
+        if (!supportsCodePool()) {
+            throw new IllegalStateException(algorithm + " codes depend on the URL");
+        }
+        return algorithm == Algorithm.COUNTER ? generateCounterCode() : generateUniqueCode(null);
+    }
+
+    /**
+     * Снимает резерв с кода, который так и не был выдан или ссылка с которым удалена.
+     */
+    public void releaseCode(String code) {
+        occupancyFor(code.length()).remove(code);
+    }
+
+    /**
+     * Резервирует уже выданный код, например код ссылки, восстановленной после перезапуска,
+     * чтобы он не был выдан повторно. Для COUNTER код заодно сдвигает отметку счетчика:
+     * новые блоки начинаются за самым старшим восстановленным идентификатором, а не с нуля.
+     */
+    public void reserveCode(String code) {
+        occupancyFor(code.length()).add(code);
+        hasReservedCodes = true;
+        if (algorithm == Algorithm.COUNTER) {
+            advanceCounterPast(code);
+        }
+    }
+
+    /**
+     * @return первый локальный номер COUNTER, не занятый восстановленными кодами
+     */
+    public long getCounterHighWaterMark() {
+        return counterHighWater.get();
+    }
+
+    private void advanceCounterPast(String code) {
+        long globalId;
+        try {
+            globalId = counterEncoder.decode(code);
+        } catch (IllegalArgumentException e) {
+            // Код не из пространства COUNTER (другой алгоритм или длина) - его прикрывает проверка занятости
+            return;
+        }
+        long localId = partition.localIdOf(globalId);
+        if (localId >= 0) {
+            counterHighWater.accumulateAndGet(localId + 1, Math::max);
+        }
+    }
+
+    /**
+     * @return длина, которую получают новые коды
+     */
+    public int getCurrentCodeLength() {
+        return currentLength.get();
     }
 
     public String generateCode(String input, UUID userId) {
@@ -44,86 +268,407 @@ public class ShortCodeGenerator {
             throw new NullPointerException("userId cannot be null");
         }
 
-        String cacheKey = userId.toString() + ":" + input;
+        // Вход хеша "input:userId:attempt" собирается в байтах без промежуточных строк
+        HashInput hashInput = HASH_INPUT.get();
+        hashInput.reset(input, userId);
+        Murmur3 urlHash = hashInput.hashUrl();
+        DedupKey key = new DedupKey(userId, urlHash.high());
+        long urlCheck = urlHash.low();
 
-        if (urlUserCache.containsKey(cacheKey)) {
-            return urlUserCache.get(cacheKey);
+        Map<DedupKey, DedupEntry> index = dedupIndex.asMap();
+        DedupEntry cached = index.get(key);
+        if (cached != null && cached.urlCheck == urlCheck && reuseVerifier.canReuse(cached.code, input, userId)) {
+            return cached.code;
         }
+        // Иначе коллизия отпечатков либо ссылка удалена или истекла - нужен новый код
+
+        String code = nextCode(hashInput);
 
+        DedupEntry entry = new DedupEntry(code, urlCheck);
+        boolean indexed = cached == null
+                ? index.putIfAbsent(key, entry) == null
+                : index.replace(key, cached, entry);
+        if (!indexed) {
+            DedupEntry winner = index.get(key);
+            if (winner != null && winner.urlCheck == urlCheck) {
+                // Параллельный запрос с тем же URL успел раньше - возвращаем его код
+                releaseCode(code);
+                return winner.code;
+            }
+        }
+
+        return code;
+    }
+
+    private String nextCode(HashInput hashInput) {
+        CodePool pool = codePool;
+        if (pool != null) {
+            String pooled = pool.poll();
+            if (pooled != null) {
+                return pooled;
+            }
+        }
+        return algorithm == Algorithm.COUNTER ? generateCounterCode() : generateUniqueCode(hashInput);
+    }
+
+    private String generateUniqueCode(HashInput hashInput) {
         String code;
         int attempts = 0;
-        int maxAttempts = 100;
+        BlockedWordFilter blocked = blockedWords;
+        int length = currentLength.get();
+        CodeOccupancyBitmap occupancy = occupancyFor(length);
 
         do {
-            if (attempts++ > maxAttempts) {
-                throw new RuntimeException("Failed to generate unique code after " + maxAttempts + " attempts");
+            if (attempts++ > MAX_ATTEMPTS) {
+                // Пространство текущей длины забито раньше, чем его доля дошла до порога
+                if (!growFrom(length)) {
+                    throw new RuntimeException("Failed to generate unique code after " + MAX_ATTEMPTS + " attempts");
+                }
+                attempts = 1;
+                length = currentLength.get();
+                occupancy = occupancyFor(length);
             }
 
-            String uniqueInput = input + ":" + userId.toString() + ":" + attempts;
-
             switch (algorithm) {
                 case RANDOM:
-                    code = generateRandomCode();
+                    code = generateRandomCode(length);
                     break;
                 case BASE62:
-                    code = generateBase62Code(uniqueInput);
+                    code = generateBase62Code(hashInput.withAttempt(attempts), length);
                     break;
                 case HASH:
-                    code = generateHashCode(uniqueInput);
+                    code = generateHashCode(hashInput.withAttempt(attempts), length);
+                    break;
+                case MURMUR3:
+                    code = generateMurmur3Code(hashInput.withAttempt(attempts), length);
                     break;
                 default:
-                    code = generateRandomCode();
+                    code = generateRandomCode(length);
             }
-        } while (generatedCodes.contains(code));
+            if (partition.isPartitioned()) {
+                code = assignToNode(code);
+            }
+            // Код с запрещенным словом тратит попытку; add - атомарная проверка и резервирование кода
+        } while (blocked.matches(code) || !occupancy.add(code));
+
+        if (lengthGrowthThreshold > 0 && fillRatio(occupancy, length) >= lengthGrowthThreshold) {
+            growFrom(length);
+        }
+        return code;
+    }
+
+    /**
+     * Переводит новые коды на длину length + 1, если другой поток еще не сделал этого.
+     *
+     * @return false, если рост выключен или длина уже предельная
+     */
+    private boolean growFrom(int length) {
+        if (lengthGrowthThreshold <= 0 || length >= codeLength + generatedCodes.length - 1) {
+            return false;
+        }
+        currentLength.compareAndSet(length, length + 1);
+        return true;
+    }
 
-        generatedCodes.add(code);
-        urlUserCache.put(cacheKey, code);
+    /**
+     * Сдвигает значение последних символов кода в долю этого узла.
+     */
+    private String assignToNode(String code) {
+        int length = code.length();
+        int from = Math.max(0, length - PARTITION_CHARS);
+        long value = 0;
+        long space = 1;
+        for (int i = from; i < length; i++) {
+            value = value * radix + digits[code.charAt(i) & 0x7F];
+            space *= radix;
+        }
+        value = partition.assign(value, space);
+
+        char[] chars = code.toCharArray();
+        for (int i = length - 1; i >= from; i--) {
+            chars[i] = alphabet.charAt((int) (value % radix));
+            value /= radix;
+        }
+        return new String(chars);
+    }
 
+    private CodeOccupancyBitmap occupancyFor(int length) {
+        int index = length - codeLength;
+        // Коды другой длины (например, обрезанные HASH) попадают в множество-запасник базовой длины
+        return index >= 0 && index < generatedCodes.length ? generatedCodes[index] : generatedCodes[0];
+    }
+
+    /**
+     * Доля занятых кодов длины length в доле узла - вероятность, что случайный код уже выдан.
+     */
+    private double fillRatio(CodeOccupancyBitmap occupancy, int length) {
+        return occupancy.size() * (double) partition.getNodeCount() / Math.pow(radix, length);
+    }
+
+    /**
+     * Каждый идентификатор выдается ровно один раз, поэтому код уникален без проверки
+     * по множеству выданных кодов. Идентификаторы узлов чередуются: у узла свой остаток от деления.
+     */
+    private String generateCounterCode() {
+        BlockedWordFilter blocked = blockedWords;
+        boolean checkReserved = hasReservedCodes;
+        String code;
+        do {
+            // Идентификатор кода с запрещенным словом или уже выданного до перезапуска просто пропускается
+            code = counterEncoder.encode(partition.globalId(nextCounterId()));
+        } while (blocked.matches(code) || checkReserved && occupancyFor(code.length()).contains(code));
         return code;
     }
 
-    private String generateRandomCode() {
-        return RandomStringUtils.randomAlphanumeric(codeLength);
+    private long nextCounterId() {
+        while (true) {
+            IdBlock block = currentBlock;
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refillBlock(block);
+        }
     }
 
-    private String generateBase62Code(String input) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(input.getBytes(StandardCharsets.UTF_8));
-            BigInteger number = new BigInteger(1, digest);
-
-            StringBuilder code = new StringBuilder();
-            while (number.compareTo(BigInteger.ZERO) > 0 && code.length() < codeLength) {
-                BigInteger[] divmod = number.divideAndRemainder(BigInteger.valueOf(62));
-                code.insert(0, BASE62_CHARS.charAt(divmod[1].intValue()));
-                number = divmod[0];
+    private synchronized void refillBlock(IdBlock exhausted) {
+        // Блок меняет только первый поток, упершийся в его конец
+        if (currentBlock == exhausted) {
+            long highWater = counterHighWater.get();
+            idAllocator.advanceTo(highWater);
+            long start = idAllocator.allocate(blockSize);
+            // Источник, не умеющий сдвигаться, может вернуть блок ниже отметки: его начало пропускается целиком
+            currentBlock = new IdBlock(Math.max(start, highWater), start + blockSize);
+        }
+    }
+
+    private String generateRandomCode(int length) {
+        // ThreadLocalRandom: без общего зерна, за которое конкурируют потоки
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] code = new char[length];
+        for (int i = 0; i < length; i++) {
+            code[i] = BASE62_CHARS.charAt(random.nextInt(BASE62_CHARS.length()));
+        }
+        return new String(code);
+    }
+
+    private String generateBase62Code(HashInput input, int codeLength) {
+        MessageDigest md = input.md5();
+        md.update(input.bytes, 0, input.length);
+        return Base62Encoder.encode(input.digest(md), codeLength);
+    }
+
+    private String generateHashCode(HashInput input, int codeLength) {
+        MessageDigest md = input.sha256();
+        md.update(input.bytes, 0, input.length);
+        byte[] hash = input.digest(md);
+        // Первые символы Base64url (без паддинга) дайджеста: 6 бит на символ, старшие биты первыми
+        int length = Math.min(codeLength, (hash.length * 8 + 5) / 6);
+        char[] code = new char[length];
+        for (int i = 0; i < length; i++) {
+            int bit = i * 6;
+            int index = bit >>> 3;
+            int pair = (hash[index] & 0xFF) << 8;
+            if (index + 1 < hash.length) {
+                pair |= hash[index + 1] & 0xFF;
+            }
+            code[i] = BASE64_URL_CHARS.charAt((pair >>> (10 - (bit & 7))) & 0x3F);
+        }
+        return new String(code);
+    }
+
+    private String generateMurmur3Code(HashInput input, int codeLength) {
+        Murmur3 murmur = input.murmur;
+        murmur.hash128(input.bytes, 0, input.length, 0);
+        return Base62Encoder.encode(murmur.high(), murmur.low(), codeLength);
+    }
+
+    public Map<String, Object> getOccupancyMetrics() {
+        int length = currentLength.get();
+        CodeOccupancyBitmap occupancy = occupancyFor(length);
+        double fillRatio = fillRatio(occupancy, length);
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("codeLength", length);
+        metrics.put("fillRatio", fillRatio);
+        // Среднее число попыток на новый код при такой занятости: 1 / (1 - p)
+        metrics.put("expectedAttempts", 1 / (1 - fillRatio));
+        metrics.put("lengthGrowthThreshold", lengthGrowthThreshold);
+        metrics.put("node", partition.toString());
+        metrics.putAll(occupancy.getMetrics());
+        return metrics;
+    }
+
+    public void clearCache() {
+        for (CodeOccupancyBitmap occupancy : generatedCodes) {
+            occupancy.clear();
+        }
+        currentLength.set(codeLength);
+        dedupIndex.invalidateAll();
+    }
+
+    /**
+     * Вход хеша потока: байты "input:userId:" и номер попытки, дописываемый на месте,
+     * плюс лениво созданные MessageDigest (getInstance на каждый код заметно дороже самого хеша).
+     */
+    private static final class HashInput {
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        byte[] bytes = new byte[256];
+        int length;
+        private int inputLength;
+        private int prefixLength;
+        private final byte[] digestBuffer = new byte[32];
+        private final Murmur3 murmur = new Murmur3();
+        private MessageDigest md5;
+        private MessageDigest sha256;
+
+        void reset(String input, UUID userId) {
+            byte[] inputBytes = input.getBytes(StandardCharsets.UTF_8);
+            // 1 + 36 (UUID) + 1 + до 10 цифр попытки
+            ensureCapacity(inputBytes.length + 48);
+            System.arraycopy(inputBytes, 0, bytes, 0, inputBytes.length);
+            inputLength = inputBytes.length;
+            int position = inputBytes.length;
+            bytes[position++] = ':';
+            position = writeUuid(userId, position);
+            bytes[position++] = ':';
+            prefixLength = position;
+        }
+
+        /**
+         * Хеш одного URL (без пользователя и попытки) для ключа индекса повторной выдачи.
+         */
+        Murmur3 hashUrl() {
+            murmur.hash128(bytes, 0, inputLength, 0);
+            return murmur;
+        }
+
+        HashInput withAttempt(int attempt) {
+            // Цифры попытки пишутся с конца, как в Integer.toString
+            int digits = 1;
+            for (int value = attempt; value >= 10; value /= 10) {
+                digits++;
+            }
+            int position = prefixLength + digits;
+            for (int value = attempt; position > prefixLength; value /= 10) {
+                bytes[--position] = (byte) ('0' + value % 10);
             }
+            length = prefixLength + digits;
+            return this;
+        }
 
-            while (code.length() < codeLength) {
-                code.append(BASE62_CHARS.charAt(
-                        (int) (Math.random() * BASE62_CHARS.length())
-                ));
+        MessageDigest md5() {
+            if (md5 == null) {
+                md5 = newDigest("MD5");
             }
+            return md5;
+        }
 
-            return code.substring(0, codeLength);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 algorithm not available", e);
+        MessageDigest sha256() {
+            if (sha256 == null) {
+                sha256 = newDigest("SHA-256");
+            }
+            return sha256;
+        }
+
+        byte[] digest(MessageDigest md) {
+            int digestLength = md.getDigestLength();
+            try {
+                md.digest(digestBuffer, 0, digestLength);
+            } catch (DigestException e) {
+                throw new IllegalStateException("Digest buffer too small for " + md.getAlgorithm(), e);
+            }
+            // Base62Encoder читает первые 16 байт, HASH - весь дайджест SHA-256 (32 байта)
+            return digestBuffer;
+        }
+
+        private int writeUuid(UUID uuid, int position) {
+            // Формат UUID.toString(): 8-4-4-4-12 шестнадцатеричных цифр в нижнем регистре
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            position = writeHex(msb >>> 32, 8, position);
+            bytes[position++] = '-';
+            position = writeHex(msb >>> 16, 4, position);
+            bytes[position++] = '-';
+            position = writeHex(msb, 4, position);
+            bytes[position++] = '-';
+            position = writeHex(lsb >>> 48, 4, position);
+            bytes[position++] = '-';
+            return writeHex(lsb, 12, position);
+        }
+
+        private int writeHex(long value, int digits, int position) {
+            for (int i = digits - 1; i >= 0; i--) {
+                bytes[position + i] = HEX[(int) (value & 0xF)];
+                value >>>= 4;
+            }
+            return position + digits;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (bytes.length < capacity) {
+                bytes = new byte[Math.max(capacity, bytes.length * 2)];
+            }
+        }
+
+        private static MessageDigest newDigest(String algorithm) {
+            try {
+                return MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(algorithm + " algorithm not available", e);
+            }
         }
     }
 
-    private String generateHashCode(String input) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(input.getBytes(StandardCharsets.UTF_8));
-            String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-            return encoded.substring(0, Math.min(codeLength, encoded.length()));
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
+    /**
+     * Ключ индекса: 24 байта данных вместо строки "userId:URL".
+     */
+    private static final class DedupKey {
+        final long userMsb;
+        final long userLsb;
+        final long urlFingerprint;
+
+        DedupKey(UUID userId, long urlFingerprint) {
+            this.userMsb = userId.getMostSignificantBits();
+            this.userLsb = userId.getLeastSignificantBits();
+            this.urlFingerprint = urlFingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DedupKey)) return false;
+            DedupKey other = (DedupKey) o;
+            return userMsb == other.userMsb && userLsb == other.userLsb && urlFingerprint == other.urlFingerprint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(urlFingerprint ^ userMsb ^ Long.rotateLeft(userLsb, 32));
         }
     }
 
-    public void clearCache() {
-        generatedCodes.clear();
-        urlUserCache.clear();
+    /**
+     * Код и вторая половина хеша URL: совпадение отпечатка при разной второй половине - коллизия.
+     * equals не переопределен: replace в индексе сравнивает записи по идентичности.
+     */
+    private static final class DedupEntry {
+        final String code;
+        final long urlCheck;
+
+        DedupEntry(String code, long urlCheck) {
+            this.code = code;
+            this.urlCheck = urlCheck;
+        }
+    }
+
+    private static final class IdBlock {
+        final AtomicLong next;
+        final long end;
+
+        IdBlock(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
     }
 }
@@ -3,15 +3,23 @@ package com.shortener.core.service;
 import com.shortener.core.domain.User;
 import com.shortener.core.repository.UserRepository;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 public class UserService {
     private final UserRepository userRepository;
     private final int userSessionTtlHours;
+    private final Clock clock;
 
     public UserService(UserRepository userRepository, int userSessionTtlHours) {
+        this(userRepository, userSessionTtlHours, Clock.systemDefaultZone());
+    }
+
+    public UserService(UserRepository userRepository, int userSessionTtlHours, Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
         this.userRepository = userRepository;
         this.userSessionTtlHours = userSessionTtlHours;
     }
@@ -25,7 +33,7 @@ public class UserService {
     }
 
     public User createUser() {
-        User user = new User();
+        User user = new User(UUID.randomUUID(), clock);
         userRepository.save(user);
         return user;
     }
@@ -35,7 +43,7 @@ public class UserService {
         if (userRepository.findById(userId).isPresent()) {
             throw new IllegalArgumentException("User with this UUID already exists");
         }
-        User user = new User(userId);
+        User user = new User(userId, clock);
         userRepository.save(user);
         return user;
     }
@@ -49,7 +57,7 @@ public class UserService {
     }
 
     public void cleanupInactiveUsers() {
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(userSessionTtlHours);
+        LocalDateTime cutoff = LocalDateTime.now(clock).minusHours(userSessionTtlHours);
         userRepository.findAll().stream()
                 .filter(user -> user.getLastActivity().isBefore(cutoff))
                 .forEach(user -> userRepository.delete(user.getId()));
@@ -0,0 +1,102 @@
+package com.shortener.infra.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Грубые часы: фоновый тикер раз в tickMillis публикует текущее epoch-время
+ * в volatile-поле, а чтение времени на горячем пути (редиректы) сводится
+ * к одному volatile-чтению без обращения к системным часам.
+ * Точность ограничена периодом тика.
+ */
+public final class CoarseClock extends Clock implements AutoCloseable {
+    private final Ticker ticker;
+    private final ZoneId zone;
+
+    private CoarseClock(Ticker ticker, ZoneId zone) {
+        this.ticker = ticker;
+        this.zone = zone;
+    }
+
+    /**
+     * Запускает тикер и возвращает часы в системной временной зоне.
+     *
+     * @param tickMillis период обновления времени (мс)
+     * @return запущенные часы; остановка через {@link #close()}
+     */
+    public static CoarseClock start(long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick period must be positive");
+        }
+        return new CoarseClock(new Ticker(Clock.systemUTC(), tickMillis), ZoneId.systemDefault());
+    }
+
+    @Override
+    public long millis() {
+        return ticker.currentMillis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(ticker.currentMillis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        if (this.zone.equals(zone)) {
+            return this;
+        }
+        return new CoarseClock(ticker, Objects.requireNonNull(zone, "Zone cannot be null"));
+    }
+
+    public long getTickMillis() {
+        return ticker.tickMillis;
+    }
+
+    /**
+     * Останавливает тикер; время после этого больше не обновляется.
+     * Общий для всех представлений, полученных через {@link #withZone(ZoneId)}.
+     */
+    @Override
+    public void close() {
+        ticker.executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "CoarseClock[tick=" + ticker.tickMillis + "ms, zone=" + zone + "]";
+    }
+
+    private static final class Ticker {
+        private final Clock source;
+        private final long tickMillis;
+        private final ScheduledExecutorService executor;
+        private volatile long currentMillis;
+
+        Ticker(Clock source, long tickMillis) {
+            this.source = source;
+            this.tickMillis = tickMillis;
+            this.currentMillis = source.millis();
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "coarse-clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void tick() {
+            currentMillis = source.millis();
+        }
+    }
+}
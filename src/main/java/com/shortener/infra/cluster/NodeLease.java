@@ -0,0 +1,81 @@
+package com.shortener.infra.cluster;
+
+import com.shortener.core.service.NodePartition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Аренда номера узла через файлы в общем каталоге локальной файловой системы.
+ *
+ * Узел перебирает файлы node-0.lease ... node-(N-1).lease и берет первый, на который удалось
+ * поставить исключительную блокировку. Блокировку держит ОС, поэтому номер упавшего процесса
+ * освобождается сам и не требует ручной уборки; живой процесс держит номер до {@link #close()}.
+ */
+public final class NodeLease implements AutoCloseable {
+    private final NodePartition partition;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private NodeLease(NodePartition partition, FileChannel channel, FileLock lock) {
+        this.partition = partition;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * @throws IllegalStateException если все nodeCount номеров уже заняты
+     */
+    public static NodeLease acquire(Path directory, int nodeCount) throws IOException {
+        if (nodeCount <= 0) {
+            throw new IllegalArgumentException("Node count must be positive");
+        }
+        Files.createDirectories(directory);
+        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+            Path file = directory.resolve("node-" + nodeId + ".lease");
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock lock = tryLock(channel);
+            if (lock == null) {
+                channel.close();
+                continue;
+            }
+            // Для диагностики: какой процесс держит номер
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(Long.toString(ProcessHandle.current().pid())
+                    .getBytes(StandardCharsets.US_ASCII)), 0);
+            return new NodeLease(new NodePartition(nodeId, nodeCount), channel, lock);
+        }
+        throw new IllegalStateException("All " + nodeCount + " node leases in " + directory + " are taken");
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Номер уже арендован в этой же JVM
+            return null;
+        }
+    }
+
+    public NodePartition getPartition() {
+        return partition;
+    }
+
+    @Override
+    public void close() {
+        try {
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            // Блокировка снимается и при закрытии процесса
+        }
+    }
+}
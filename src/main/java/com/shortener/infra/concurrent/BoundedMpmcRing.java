@@ -0,0 +1,104 @@
+package com.shortener.infra.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченная очередь без блокировок для многих производителей и потребителей (схема Вьюкова).
+ *
+ * У каждой ячейки есть номер последовательности: он говорит, свободна ли ячейка для записи
+ * на текущем круге или уже заполнена для чтения. Производители и потребители захватывают позицию
+ * CAS-ом своего счетчика и дальше работают только со своей ячейкой, не мешая друг другу.
+ */
+public final class BoundedMpmcRing<T> {
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    /**
+     * @param capacity емкость, округляется вверх до степени двойки
+     */
+    public BoundedMpmcRing(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.elements = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false, если очередь заполнена
+     */
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException("element cannot be null");
+        }
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // Публикация: потребитель увидит элемент после чтения номера последовательности
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                // Ячейку прошлого круга еще не освободил потребитель
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return следующий элемент или null, если очередь пуста
+     */
+    public T poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    T element = elements.get(index);
+                    elements.lazySet(index, null);
+                    // Ячейка свободна для записи на следующем круге
+                    sequences.lazySet(index, position + mask + 1);
+                    return element;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return приблизительное число элементов (точное, если нет конкурентных операций)
+     */
+    public int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,175 @@
+package com.shortener.infra.concurrent;
+
+import com.shortener.core.service.CodePool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Пул заранее сгенерированных уникальных кодов. Фоновые производители держат кольцо
+ * {@link BoundedMpmcRing} заполненным: когда в нем остается не больше lowWatermark кодов,
+ * потребитель будит их, и они дозаполняют кольцо до конца. Путь создания ссылки не берет
+ * блокировок: poll - это один CAS, а пустой пул лишь означает генерацию кода на месте.
+ */
+public class PregeneratedCodePool implements CodePool {
+    // Страховка от потерянного пробуждения: производитель сам проверяет пул с этим периодом
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Supplier<String> producer;
+    private final Consumer<String> discard;
+    private final int capacity;
+    private final int lowWatermark;
+    private final BoundedMpmcRing<String> ring;
+
+    // Создаются в конструкторе и не меняются: poll будит их из любого потока без синхронизации
+    private final Thread[] producers;
+    private boolean started;
+    private volatile boolean running;
+    private volatile boolean refillRequested;
+
+    private final LongAdder produced = new LongAdder();
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder starvations = new LongAdder();
+    private final LongAdder producerErrors = new LongAdder();
+
+    /**
+     * @param producer        генерирует и резервирует новый уникальный код
+     * @param discard         снимает резерв с кода, который так и не был выдан
+     * @param capacity        размер пула
+     * @param lowWatermark    при скольких оставшихся кодах начинается дозаполнение
+     * @param producerThreads число фоновых производителей
+     */
+    public PregeneratedCodePool(Supplier<String> producer, Consumer<String> discard, int capacity,
+                                int lowWatermark, int producerThreads, ThreadFactory threadFactory) {
+        if (capacity <= 0 || producerThreads <= 0) {
+            throw new IllegalArgumentException("Pool size and producer threads must be positive");
+        }
+        if (lowWatermark < 0 || lowWatermark >= capacity) {
+            throw new IllegalArgumentException("Low watermark must be between 0 and pool size");
+        }
+        this.producer = producer;
+        this.discard = discard;
+        this.capacity = capacity;
+        this.lowWatermark = lowWatermark;
+        this.ring = new BoundedMpmcRing<>(capacity);
+        this.producers = new Thread[producerThreads];
+        for (int i = 0; i < producerThreads; i++) {
+            producers[i] = threadFactory.newThread(this::produce);
+        }
+    }
+
+    /**
+     * Запускает производителей. Пул запускается один раз: после shutdown повторный запуск не действует.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        running = true;
+        for (Thread thread : producers) {
+            thread.start();
+        }
+    }
+
+    @Override
+    public String poll() {
+        String code = ring.poll();
+        if (code == null) {
+            starvations.increment();
+        } else {
+            taken.increment();
+        }
+        if (!refillRequested && ring.size() <= lowWatermark) {
+            // Флаг отсекает лишние unpark, пока производители уже работают
+            refillRequested = true;
+            for (Thread thread : producers) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Останавливает производителей и снимает резерв с невыданных кодов.
+     */
+    public synchronized void shutdown() {
+        running = false;
+        for (Thread thread : producers) {
+            LockSupport.unpark(thread);
+        }
+        for (Thread thread : producers) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (String code = ring.poll(); code != null; code = ring.poll()) {
+            discard.accept(code);
+        }
+    }
+
+    public int getDepth() {
+        return ring.size();
+    }
+
+    public long getStarvations() {
+        return starvations.sum();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("depth", ring.size());
+        metrics.put("capacity", capacity);
+        metrics.put("lowWatermark", lowWatermark);
+        metrics.put("produced", produced.sum());
+        metrics.put("taken", taken.sum());
+        metrics.put("starvations", starvations.sum());
+        metrics.put("producerErrors", producerErrors.sum());
+        return metrics;
+    }
+
+    private void produce() {
+        boolean failing = false;
+        while (running) {
+            if (refillRequested || ring.size() <= lowWatermark) {
+                refillRequested = false;
+                try {
+                    fill();
+                    failing = false;
+                } catch (RuntimeException e) {
+                    // Например, пространство кодов почти исчерпано: пул пустеет, коды генерируются на месте
+                    producerErrors.increment();
+                    if (!failing) {
+                        System.err.println("⚠️  Code pool producer failed: " + e.getMessage());
+                    }
+                    failing = true;
+                }
+            }
+            if (running) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+    }
+
+    private void fill() {
+        // Кольцо округлено до степени двойки, заполняется же до заданного размера
+        while (running && ring.size() < capacity) {
+            String code = producer.get();
+            if (!ring.offer(code)) {
+                // Кольцо успел заполнить другой производитель
+                discard.accept(code);
+                return;
+            }
+            produced.increment();
+        }
+    }
+}
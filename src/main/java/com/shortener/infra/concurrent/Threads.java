@@ -0,0 +1,93 @@
+package com.shortener.infra.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фабрики потоков для сервисных пулов: обычные (платформенные) потоки или виртуальные потоки Java 21.
+ *
+ * Виртуальные потоки подключаются через reflection, поэтому сборка остается совместимой с Java 11.
+ * Если режим запрошен на JVM без их поддержки, используются платформенные потоки.
+ */
+public final class Threads {
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private Threads() {
+    }
+
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param namePrefix префикс имени, к нему добавляется номер потока
+     * @param virtual    виртуальные потоки, если их поддерживает JVM
+     */
+    public static ThreadFactory factory(String namePrefix, boolean virtual) {
+        if (virtual && isVirtualSupported()) {
+            return virtualFactory(namePrefix);
+        }
+        AtomicInteger number = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Пул для блокирующих задач. С виртуальными потоками каждая задача получает свой поток
+     * и размер пула не ограничивает число одновременных задач.
+     */
+    public static ExecutorService newWorkerPool(String namePrefix, int platformThreads, boolean virtual) {
+        if (virtual && isVirtualSupported()) {
+            try {
+                Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) perTask.invoke(null, virtualFactory(namePrefix));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads, factory(namePrefix, false));
+    }
+
+    /**
+     * Проверяет запрошенный режим и сообщает, если виртуальные потоки недоступны.
+     *
+     * @return true, если будут использоваться виртуальные потоки
+     */
+    public static boolean resolveVirtualMode(boolean requested) {
+        if (requested && !isVirtualSupported()) {
+            System.err.println("⚠️  Virtual threads require Java 21+, running on platform threads (Java " +
+                    Runtime.version().feature() + ")");
+            return false;
+        }
+        return requested;
+    }
+
+    private static ThreadFactory virtualFactory(String namePrefix) {
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class)
+                    .invoke(builder, namePrefix + "-", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual thread factory", e);
+        }
+    }
+
+    private static Method findOfVirtual() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            // На Java 19-20 метод есть, но без --enable-preview бросает исключение
+            ofVirtual.invoke(null);
+            return ofVirtual;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
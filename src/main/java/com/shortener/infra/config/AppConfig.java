@@ -64,6 +64,59 @@ public class AppConfig {
         return getValue("link.generation-algorithm", "BASE62");
     }
 
+    public int getCounterBlockSize() {
+        return getValue("link.counter.block-size", 1000);
+    }
+
+    public long getCounterScrambleKey() {
+        // YAML отдает Integer или Long в зависимости от величины числа
+        return getValue("link.counter.scramble-key", (Number) 0L).longValue();
+    }
+
+    public long getDedupCacheSize() {
+        return getValue("link.dedup-cache-size", (Number) 100_000L).longValue();
+    }
+
+    public boolean isAdaptiveCodeLengthEnabled() {
+        return getValue("link.adaptive-length.enabled", false);
+    }
+
+    public double getCodeLengthGrowthThreshold() {
+        return getValue("link.adaptive-length.growth-threshold", (Number) 0.5).doubleValue();
+    }
+
+    public String getBlockedWordsFile() {
+        return getValue("link.blocked-words-file", "");
+    }
+
+    public boolean isCodePoolEnabled() {
+        return getValue("link.code-pool.enabled", false);
+    }
+
+    public int getCodePoolSize() {
+        return getValue("link.code-pool.size", 10000);
+    }
+
+    public int getCodePoolLowWatermark() {
+        return getValue("link.code-pool.low-watermark", 2500);
+    }
+
+    public int getCodePoolProducerThreads() {
+        return getValue("link.code-pool.producer-threads", 1);
+    }
+
+    public int getNodeCount() {
+        return getValue("cluster.node-count", 1);
+    }
+
+    public int getNodeId() {
+        return getValue("cluster.node-id", 0);
+    }
+
+    public String getNodeLeaseDir() {
+        return getValue("cluster.lease-dir", "");
+    }
+
     public boolean isExpireNotificationEnabled() {
         return getValue("notification.expire-notification", true);
     }
@@ -88,6 +141,94 @@ public class AppConfig {
         return getValue("security.user-session-ttl-hours", 168);
     }
 
+    public String getStorageEngine() {
+        return getValue("storage.engine", "MEMORY");
+    }
+
+    public String getMappedStorageDir() {
+        return getValue("storage.mapped.directory", "data/links-mapped");
+    }
+
+    public int getBloomFilterExpectedLinks() {
+        return getValue("storage.bloom-filter.expected-links", 1_000_000);
+    }
+
+    public double getBloomFilterFalsePositiveRate() {
+        return getValue("storage.bloom-filter.false-positive-rate", 0.01);
+    }
+
+    public boolean isWalEnabled() {
+        return getValue("storage.wal.enabled", false);
+    }
+
+    public String getWalPath() {
+        return getValue("storage.wal.path", "data/links.wal");
+    }
+
+    public String getWalFsyncPolicy() {
+        return getValue("storage.wal.fsync", "GROUP");
+    }
+
+    public int getWalFsyncIntervalMillis() {
+        return getValue("storage.wal.fsync-interval-ms", 100);
+    }
+
+    public int getWalSnapshotIntervalSeconds() {
+        return getValue("storage.wal.snapshot-interval-seconds", 300);
+    }
+
+    public int getHotLinkCacheSize() {
+        return getValue("storage.cache.max-size", 0);
+    }
+
+    public String getClockMode() {
+        return getValue("clock.mode", "SYSTEM");
+    }
+
+    public int getClockTickMillis() {
+        return getValue("clock.tick-millis", 10);
+    }
+
+    public boolean isClickWriteBehindEnabled() {
+        return getValue("clicks.write-behind", false);
+    }
+
+    public int getClickBatchSize() {
+        return getValue("clicks.batch-size", 1000);
+    }
+
+    public int getClickFlushIntervalMillis() {
+        return getValue("clicks.flush-interval-ms", 1000);
+    }
+
+    public boolean isHttpEnabled() {
+        return getValue("http.enabled", false);
+    }
+
+    public int getHttpPort() {
+        return getValue("http.port", 8080);
+    }
+
+    public int getHttpWorkerThreads() {
+        return getValue("http.worker-threads", 64);
+    }
+
+    public int getHttpKeepAliveTimeoutMillis() {
+        return getValue("http.keep-alive-timeout-ms", 5000);
+    }
+
+    public int getHttpResponseCacheSize() {
+        return getValue("http.response-cache-size", 100_000);
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return getValue("concurrency.virtual-threads", false);
+    }
+
+    public boolean isCliEnabled() {
+        return getValue("cli.enabled", true);
+    }
+
     public String getLoggingLevel() {
         return getValue("logging.level", "INFO");
     }
@@ -0,0 +1,520 @@
+package com.shortener.infra.http;
+
+import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ResolveResult;
+import com.shortener.infra.concurrent.Threads;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP/1.1 фронт редиректов: GET /{shortCode} отвечает 302 на исходный URL,
+ * 404 для неизвестного кода и 410 для истекшей, исчерпанной или неактивной ссылки.
+ *
+ * Один поток принимает соединения, каждое соединение обслуживается потоком из пула
+ * до закрытия клиентом или простоя дольше keepAliveTimeoutMillis. В режиме виртуальных потоков
+ * каждое соединение получает свой виртуальный поток и число соединений пулом не ограничено.
+ *
+ * Запрос разбирается в байтовом буфере соединения без построения строк (кроме самого кода),
+ * а ответ 302 берется готовым из {@link RedirectResponseCache}, так что редирект горячей ссылки
+ * почти не аллоцирует на обслуживающем потоке.
+ */
+public class RedirectHttpServer implements AutoCloseable {
+    private static final int MAX_HEADER_BYTES = 8192;
+
+    private static final byte[] GET = ascii("GET");
+    private static final byte[] HEAD = ascii("HEAD");
+    private static final byte[] HTTP_1_0 = ascii("HTTP/1.0");
+    private static final byte[] HTTP_1_1 = ascii("HTTP/1.1");
+    private static final byte[] CONNECTION = ascii("connection");
+    private static final byte[] CONTENT_LENGTH = ascii("content-length");
+    private static final byte[] TRANSFER_ENCODING = ascii("transfer-encoding");
+    private static final byte[] CLOSE = ascii("close");
+    private static final byte[] KEEP_ALIVE = ascii("keep-alive");
+
+    private final LinkService linkService;
+    private final int port;
+    private final int workerThreads;
+    private final int keepAliveTimeoutMillis;
+    private final boolean virtualThreads;
+    private final RedirectResponseCache responseCache;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder redirects = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder gone = new LongAdder();
+    private final LongAdder badRequests = new LongAdder();
+
+    private volatile ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private Thread acceptor;
+
+    public RedirectHttpServer(LinkService linkService, int port, int workerThreads, int keepAliveTimeoutMillis) {
+        this(linkService, port, workerThreads, keepAliveTimeoutMillis, false);
+    }
+
+    public RedirectHttpServer(LinkService linkService, int port, int workerThreads, int keepAliveTimeoutMillis,
+                              boolean virtualThreads) {
+        this(linkService, port, workerThreads, keepAliveTimeoutMillis, virtualThreads, null);
+    }
+
+    /**
+     * @param responseCache готовые ответы 302 (null - ответы строятся на каждый запрос);
+     *                      удаление ссылок из репозитория должно вытеснять их из кэша
+     */
+    public RedirectHttpServer(LinkService linkService, int port, int workerThreads, int keepAliveTimeoutMillis,
+                              boolean virtualThreads, RedirectResponseCache responseCache) {
+        if (workerThreads <= 0 || keepAliveTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Worker threads and keep-alive timeout must be positive");
+        }
+        this.linkService = linkService;
+        this.port = port;
+        this.workerThreads = workerThreads;
+        this.keepAliveTimeoutMillis = keepAliveTimeoutMillis;
+        this.virtualThreads = Threads.resolveVirtualMode(virtualThreads);
+        this.responseCache = responseCache;
+    }
+
+    public synchronized void start() throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("Server is already started");
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        channel.bind(new InetSocketAddress(port), 1024);
+        serverChannel = channel;
+
+        workers = Threads.newWorkerPool("http-worker", workerThreads, virtualThreads);
+        acceptor = new Thread(this::acceptLoop, "http-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        System.out.println("🌐 HTTP redirect server started on port " + getPort() +
+                (virtualThreads ? " (virtual threads)" : " (workers: " + workerThreads + ")"));
+    }
+
+    /**
+     * @return фактический порт (при настройке порта 0 выбирается свободный)
+     */
+    public int getPort() {
+        ServerSocketChannel channel = serverChannel;
+        return channel != null ? channel.socket().getLocalPort() : port;
+    }
+
+    @Override
+    public synchronized void close() {
+        ServerSocketChannel channel = serverChannel;
+        if (channel == null) {
+            return;
+        }
+        serverChannel = null;
+        closeQuietly(channel);
+        for (SocketChannel connection : connections) {
+            closeQuietly(connection);
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+            acceptor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("openConnections", connections.size());
+        metrics.put("requests", requests.sum());
+        metrics.put("redirects", redirects.sum());
+        metrics.put("notFound", notFound.sum());
+        metrics.put("gone", gone.sum());
+        metrics.put("badRequests", badRequests.sum());
+        if (responseCache != null) {
+            metrics.put("cachedResponses", responseCache.size());
+            metrics.put("cachedResponseHits", responseCache.getHits());
+        }
+        return metrics;
+    }
+
+    private void acceptLoop() {
+        ServerSocketChannel channel = serverChannel;
+        while (channel != null && channel.isOpen()) {
+            try {
+                SocketChannel connection = channel.accept();
+                connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                // Таймаут действует на чтение через потоковый адаптер сокета
+                connection.socket().setSoTimeout(keepAliveTimeoutMillis);
+                connections.add(connection);
+                try {
+                    workers.execute(() -> serve(connection));
+                } catch (RejectedExecutionException e) {
+                    connections.remove(connection);
+                    closeQuietly(connection);
+                }
+            } catch (IOException e) {
+                if (channel.isOpen()) {
+                    System.err.println("HTTP accept failed: " + e.getMessage());
+                    // Например, исчерпаны дескрипторы - не крутим цикл вхолостую
+                    pauseAccepting();
+                }
+            }
+        }
+    }
+
+    private static void pauseAccepting() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        try (connection) {
+            RequestReader reader = new RequestReader(
+                    new BufferedInputStream(connection.socket().getInputStream()));
+            boolean keepAlive = true;
+            while (keepAlive) {
+                keepAlive = handleRequest(reader, connection);
+            }
+        } catch (SocketTimeoutException | SocketException e) {
+            // Простой keep-alive соединения или разрыв клиентом
+        } catch (IOException e) {
+            if (connection.isOpen()) {
+                System.err.println("HTTP connection failed: " + e.getMessage());
+            }
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Читает и обрабатывает один запрос.
+     *
+     * @return true, если соединение остается открытым для следующего запроса
+     */
+    private boolean handleRequest(RequestReader reader, SocketChannel out) throws IOException {
+        if (!reader.readLine()) {
+            return false;
+        }
+        if (reader.length == 0) {
+            // Пустая строка между запросами допускается RFC 9112
+            return true;
+        }
+        requests.increment();
+
+        // Строка запроса: METHOD SP TARGET SP VERSION
+        byte[] line = reader.line;
+        int length = reader.length;
+        int firstSpace = indexOf(line, 0, length, (byte) ' ');
+        int secondSpace = firstSpace < 0 ? -1 : indexOf(line, firstSpace + 1, length, (byte) ' ');
+        boolean http11 = secondSpace > 0 && equalsAt(line, secondSpace + 1, length, HTTP_1_1);
+        if (secondSpace < 0 || !(http11 || equalsAt(line, secondSpace + 1, length, HTTP_1_0))) {
+            badRequests.increment();
+            writeResponse(out, 400, "Bad Request", null, "Malformed request line", false, false, false);
+            return false;
+        }
+        boolean head = equalsAt(line, 0, firstSpace, HEAD);
+        boolean get = equalsAt(line, 0, firstSpace, GET);
+        String shortCode = get || head ? extractShortCode(line, firstSpace + 1, secondSpace) : null;
+
+        // Заголовки: нужны только Connection и Content-Length
+        boolean keepAlive = http11;
+        long contentLength = 0;
+        int headerBytes = 0;
+        while (reader.readLine() && reader.length > 0) {
+            headerBytes += reader.length;
+            if (headerBytes > MAX_HEADER_BYTES) {
+                badRequests.increment();
+                writeResponse(out, 431, "Request Header Fields Too Large", null, "Headers too large",
+                        false, false, http11);
+                return false;
+            }
+            int colon = indexOf(line, 0, reader.length, (byte) ':');
+            if (colon <= 0) {
+                continue;
+            }
+            int valueStart = skipSpaces(line, colon + 1, reader.length);
+            int valueEnd = trimEnd(line, valueStart, reader.length);
+            if (equalsIgnoreCase(line, 0, colon, CONNECTION)) {
+                if (equalsIgnoreCase(line, valueStart, valueEnd, CLOSE)) {
+                    keepAlive = false;
+                } else if (equalsIgnoreCase(line, valueStart, valueEnd, KEEP_ALIVE)) {
+                    keepAlive = true;
+                }
+            } else if (equalsIgnoreCase(line, 0, colon, CONTENT_LENGTH)) {
+                contentLength = parseLength(line, valueStart, valueEnd);
+            } else if (equalsIgnoreCase(line, 0, colon, TRANSFER_ENCODING)) {
+                // Тело запроса редиректу не нужно, а чанки не разбираем
+                contentLength = -1;
+            }
+        }
+        if (reader.length < 0) {
+            return false;
+        }
+        if (contentLength < 0) {
+            badRequests.increment();
+            writeResponse(out, 400, "Bad Request", null, "Unsupported request body", false, false, http11);
+            return false;
+        }
+        reader.skip(contentLength);
+
+        if (!get && !head) {
+            badRequests.increment();
+            writeResponse(out, 405, "Method Not Allowed", null, "Only GET and HEAD are supported",
+                    true, keepAlive, http11);
+            return keepAlive;
+        }
+
+        // HEAD (превью ссылок, проверки доступности) видит тот же ответ, но перехода не засчитывает
+        ResolveResult result = shortCode == null ? ResolveResult.NOT_FOUND
+                : head ? linkService.peek(shortCode) : linkService.resolve(shortCode);
+        switch (result.getStatus()) {
+            case REDIRECT:
+                redirects.increment();
+                if (responseCache != null && http11 && keepAlive) {
+                    // Горячий путь: готовый ответ без построения заголовков и копирования
+                    writeFully(out, responseCache.get(shortCode, result.getOriginalUrl()).duplicate());
+                } else {
+                    writeResponse(out, 302, "Found", result.getOriginalUrl(), null, head, keepAlive, http11);
+                }
+                break;
+            case NOT_FOUND:
+                notFound.increment();
+                writeResponse(out, 404, "Not Found", null, "Link not found", head, keepAlive, http11);
+                break;
+            case EXPIRED:
+                gone.increment();
+                writeResponse(out, 410, "Gone", null, "Link has expired", head, keepAlive, http11);
+                break;
+            case LIMIT_REACHED:
+                gone.increment();
+                writeResponse(out, 410, "Gone", null, "Click limit reached", head, keepAlive, http11);
+                break;
+            default:
+                gone.increment();
+                writeResponse(out, 410, "Gone", null, "Link is not active", head, keepAlive, http11);
+                break;
+        }
+        return keepAlive;
+    }
+
+    /**
+     * Код - единственный сегмент пути; строка запроса и фрагмент отбрасываются.
+     */
+    private static String extractShortCode(byte[] line, int start, int end) {
+        if (start >= end || line[start] != '/') {
+            return null;
+        }
+        int codeEnd = end;
+        for (int i = start + 1; i < end; i++) {
+            byte b = line[i];
+            if (b == '?' || b == '#') {
+                codeEnd = i;
+                break;
+            }
+            if (b == '/') {
+                return null;
+            }
+        }
+        if (codeEnd == start + 1) {
+            return null;
+        }
+        return new String(line, start + 1, codeEnd - start - 1, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeResponse(SocketChannel out, int status, String reason, String location,
+                                      String body, boolean omitBody, boolean keepAlive, boolean http11)
+            throws IOException {
+        byte[] content = body != null ? (body + "\n").getBytes(StandardCharsets.UTF_8) : new byte[0];
+        StringBuilder head = new StringBuilder(128)
+                .append("HTTP/1.1 ").append(status).append(' ').append(reason).append("\r\n");
+        if (location != null) {
+            head.append("Location: ").append(location).append("\r\n");
+        }
+        // Редирект не кэшируется браузером: каждый переход должен дойти до счетчика
+        head.append("Cache-Control: no-store\r\n");
+        if (content.length > 0) {
+            head.append("Content-Type: text/plain; charset=utf-8\r\n");
+        }
+        head.append("Content-Length: ").append(content.length).append("\r\n");
+        // HTTP/1.1 держит соединение по умолчанию, HTTP/1.0 - только по явному keep-alive
+        if (!keepAlive) {
+            head.append("Connection: close\r\n");
+        } else if (!http11) {
+            head.append("Connection: keep-alive\r\n");
+        }
+        head.append("\r\n");
+
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer response = ByteBuffer.allocate(headBytes.length + (omitBody ? 0 : content.length));
+        response.put(headBytes);
+        if (!omitBody) {
+            response.put(content);
+        }
+        response.flip();
+        writeFully(out, response);
+    }
+
+    private static void writeFully(SocketChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean equalsAt(byte[] bytes, int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (bytes[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param lowerCase ожидаемое значение в нижнем регистре
+     */
+    private static boolean equalsIgnoreCase(byte[] bytes, int from, int to, byte[] lowerCase) {
+        if (to - from != lowerCase.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length; i++) {
+            int b = bytes[from + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != lowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(byte[] bytes, int from, int to) {
+        while (from < to && (bytes[from] == ' ' || bytes[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(byte[] bytes, int from, int to) {
+        while (to > from && (bytes[to - 1] == ' ' || bytes[to - 1] == '\t')) {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * @return длина тела или -1, если значение некорректно
+     */
+    private static long parseLength(byte[] bytes, int from, int to) {
+        if (from == to || to - from > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Закрытие при остановке сервера
+        }
+    }
+
+    /**
+     * Построчное чтение запроса в переиспользуемый буфер соединения.
+     */
+    private static final class RequestReader {
+        private final InputStream in;
+        final byte[] line = new byte[MAX_HEADER_BYTES];
+        // Длина прочитанной строки без CRLF; -1 - поток закончился до начала строки
+        int length;
+
+        RequestReader(InputStream in) {
+            this.in = in;
+        }
+
+        boolean readLine() throws IOException {
+            int count = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    if (count > 0 && line[count - 1] == '\r') {
+                        count--;
+                    }
+                    length = count;
+                    return true;
+                }
+                if (count == line.length) {
+                    throw new IOException("Request line too long");
+                }
+                line[count++] = (byte) b;
+            }
+            if (count == 0) {
+                length = -1;
+                return false;
+            }
+            throw new IOException("Unexpected end of stream");
+        }
+
+        void skip(long bytes) throws IOException {
+            long remaining = bytes;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    if (in.read() == -1) {
+                        throw new IOException("Unexpected end of stream");
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+    }
+}
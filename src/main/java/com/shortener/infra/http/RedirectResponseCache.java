@@ -0,0 +1,110 @@
+package com.shortener.infra.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Готовые ответы 302 по коротким кодам. Ответ зависит только от исходного URL ссылки,
+ * поэтому кодируется один раз и дальше отдается в сокет через duplicate() без копирования.
+ *
+ * Размер ограничен, вытеснение - W-TinyLFU (Caffeine), как в кэше горячих ссылок: разовые
+ * коды не вымывают часто запрашиваемые. Первый ответ по коду строится в куче; в прямой буфер
+ * (запись в сокет без промежуточной копии) он переезжает при повторном обращении, так что
+ * поток разовых кодов не выделяет прямую память, освобождаемую только сборщиком.
+ *
+ * Записи удаляются вместе со ссылкой (слушатель удаления репозитория). Кроме того, запись
+ * сверяется с URL из результата resolve, так что код, переиспользованный новой ссылкой,
+ * не получит чужой ответ даже при гонке с удалением.
+ */
+public class RedirectResponseCache {
+    private final Cache<String, Entry> responses;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder encodes = new LongAdder();
+
+    /**
+     * @param maxEntries предел числа закэшированных ответов
+     */
+    public RedirectResponseCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        // Обслуживание кэша в вызывающем потоке: размер ограничен сразу после записи
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Ответ HTTP/1.1 с постоянным соединением (заголовок Connection не нужен).
+     *
+     * @return буфер только для чтения; перед записью нужно взять duplicate()
+     */
+    public ByteBuffer get(String shortCode, String originalUrl) {
+        Entry entry = responses.getIfPresent(shortCode);
+        if (entry != null && entry.originalUrl.equals(originalUrl)) {
+            hits.increment();
+            if (entry.response.isDirect()) {
+                return entry.response;
+            }
+            // Код запрошен повторно, пока ответ в кэше, - ответ переезжает в прямой буфер
+            Entry promoted = new Entry(originalUrl, toDirect(entry.response));
+            responses.asMap().replace(shortCode, entry, promoted);
+            return promoted.response;
+        }
+
+        encodes.increment();
+        Entry encoded = new Entry(originalUrl, encode(originalUrl));
+        responses.put(shortCode, encoded);
+        return encoded.response;
+    }
+
+    public void evict(String shortCode) {
+        responses.invalidate(shortCode);
+    }
+
+    public void clear() {
+        responses.invalidateAll();
+    }
+
+    public int size() {
+        return (int) responses.estimatedSize();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getEncodes() {
+        return encodes.sum();
+    }
+
+    private static ByteBuffer encode(String originalUrl) {
+        byte[] bytes = ("HTTP/1.1 302 Found\r\n" +
+                "Location: " + originalUrl + "\r\n" +
+                "Cache-Control: no-store\r\n" +
+                "Content-Length: 0\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    private static ByteBuffer toDirect(ByteBuffer response) {
+        // Прямой буфер пишется в сокет без промежуточного копирования
+        ByteBuffer buffer = ByteBuffer.allocateDirect(response.remaining());
+        buffer.put(response.duplicate()).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static final class Entry {
+        final String originalUrl;
+        final ByteBuffer response;
+
+        Entry(String originalUrl, ByteBuffer response) {
+            this.originalUrl = originalUrl;
+            this.response = response;
+        }
+    }
+}
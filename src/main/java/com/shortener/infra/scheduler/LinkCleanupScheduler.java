@@ -4,9 +4,12 @@ import com.shortener.core.domain.Link;
 import com.shortener.core.repository.LinkRepository;
 import com.shortener.core.service.NotificationService;
 
+import java.time.Clock;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -16,16 +19,40 @@ public class LinkCleanupScheduler {
     private final boolean autoDeleteExpired;
     private final ScheduledExecutorService scheduler;
     private final int checkIntervalMinutes;
+    private final Clock clock;
 
     public LinkCleanupScheduler(LinkRepository linkRepository,
                                 NotificationService notificationService,
                                 boolean autoDeleteExpired,
                                 int checkIntervalMinutes) {
+        this(linkRepository, notificationService, autoDeleteExpired, checkIntervalMinutes,
+                Clock.systemDefaultZone());
+    }
+
+    public LinkCleanupScheduler(LinkRepository linkRepository,
+                                NotificationService notificationService,
+                                boolean autoDeleteExpired,
+                                int checkIntervalMinutes,
+                                Clock clock) {
+        this(linkRepository, notificationService, autoDeleteExpired, checkIntervalMinutes, clock,
+                Executors.defaultThreadFactory());
+    }
+
+    /**
+     * @param threadFactory фабрика потока очистки (уведомления об очистке рассылаются из него же)
+     */
+    public LinkCleanupScheduler(LinkRepository linkRepository,
+                                NotificationService notificationService,
+                                boolean autoDeleteExpired,
+                                int checkIntervalMinutes,
+                                Clock clock,
+                                ThreadFactory threadFactory) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
         this.linkRepository = linkRepository;
         this.notificationService = notificationService;
         this.autoDeleteExpired = autoDeleteExpired;
         this.checkIntervalMinutes = checkIntervalMinutes;
-        this.scheduler = Executors.newScheduledThreadPool(1);
+        this.scheduler = Executors.newScheduledThreadPool(1, threadFactory);
     }
 
     public void start() {
@@ -53,8 +80,10 @@ public class LinkCleanupScheduler {
     }
 
     private void cleanupExpiredLinks() {
+        // Просроченность определяется по часам планировщика (в тестах - виртуальным)
+        long now = clock.millis();
         List<Link> expiredLinks = linkRepository.findAll().stream()
-                .filter(Link::isExpired)
+                .filter(link -> link.isExpiredAt(now))
                 .collect(Collectors.toList());
 
         if (!expiredLinks.isEmpty()) {
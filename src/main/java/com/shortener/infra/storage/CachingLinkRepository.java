@@ -0,0 +1,170 @@
+package com.shortener.infra.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Кэш горячих ссылок перед медленным репозиторием. Кэшируется только поиск по короткому коду
+ * (путь редиректа), остальные операции идут в исходный репозиторий.
+ *
+ * Вытеснение - W-TinyLFU (Caffeine): при ограниченном размере кэш удерживает часто запрашиваемые
+ * коды, а разовые обращения не вымывают их. Запись живет не дольше срока действия ссылки.
+ * Промахи не кэшируются - их отсекает фильтр промахов репозитория.
+ */
+public class CachingLinkRepository implements LinkRepository {
+    private final LinkRepository delegate;
+    private final Cache<String, Link> cache;
+    private final long maximumSize;
+    // Загрузчик создается один раз: лямбда, захватывающая delegate, выделялась бы на каждый поиск
+    private final Function<String, Link> loader;
+
+    public CachingLinkRepository(LinkRepository delegate, long maximumSize) {
+        this(delegate, maximumSize, Clock.systemDefaultZone());
+    }
+
+    public CachingLinkRepository(LinkRepository delegate, long maximumSize, Clock clock) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.loader = code -> delegate.findByShortCodeOrNull(code);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilLinkExpires(clock))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<Link> findById(UUID id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<Link> findByShortCode(String shortCode) {
+        return Optional.ofNullable(findByShortCodeOrNull(shortCode));
+    }
+
+    @Override
+    public Link findByShortCodeOrNull(String shortCode) {
+        return cache.get(shortCode, loader);
+    }
+
+    @Override
+    public List<Link> findByUserId(UUID userId) {
+        return delegate.findByUserId(userId);
+    }
+
+    @Override
+    public List<Link> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Link save(Link link) {
+        Link saved = delegate.save(link);
+        // Закэшированная запись заменяется сохраненной версией, срок жизни пересчитывается
+        cache.asMap().computeIfPresent(saved.getShortCode(), (code, cached) -> saved);
+        return saved;
+    }
+
+    @Override
+    public void saveAll(Collection<Link> links) {
+        delegate.saveAll(links);
+        for (Link link : links) {
+            cache.asMap().computeIfPresent(link.getShortCode(), (code, cached) -> link);
+        }
+    }
+
+    @Override
+    public int saveAllIfPresent(Collection<Link> links) {
+        int saved = delegate.saveAllIfPresent(links);
+        for (Link link : links) {
+            cache.asMap().computeIfPresent(link.getShortCode(), (code, cached) -> link);
+        }
+        return saved;
+    }
+
+    @Override
+    public void delete(UUID id) {
+        Optional<Link> link = delegate.findById(id);
+        delegate.delete(id);
+        link.ifPresent(l -> cache.invalidate(l.getShortCode()));
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    /**
+     * Метрики кэша: доля попаданий, вытеснения и время загрузки из исходного репозитория.
+     */
+    public Map<String, Object> getMetrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maximumSize", maximumSize);
+        metrics.put("estimatedSize", cache.estimatedSize());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("loads", stats.loadCount());
+        metrics.put("averageLoadNanos", stats.averageLoadPenalty());
+        metrics.put("totalLoadNanos", stats.totalLoadTime());
+        return metrics;
+    }
+
+    /**
+     * Срок жизни записи - до истечения ссылки по часам сервиса.
+     */
+    private static class UntilLinkExpires implements Expiry<String, Link> {
+        private final Clock clock;
+
+        UntilLinkExpires(Clock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(String shortCode, Link link, long currentTime) {
+            return remainingNanos(link);
+        }
+
+        @Override
+        public long expireAfterUpdate(String shortCode, Link link, long currentTime, long currentDuration) {
+            return remainingNanos(link);
+        }
+
+        @Override
+        public long expireAfterRead(String shortCode, Link link, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long remainingNanos(Link link) {
+            long remaining = link.getExpiresAtMillis() - clock.millis();
+            return remaining > 0 ? TimeUnit.MILLISECONDS.toNanos(remaining) : 0;
+        }
+    }
+}
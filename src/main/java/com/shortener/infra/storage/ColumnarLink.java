@@ -0,0 +1,77 @@
+package com.shortener.infra.storage;
+
+import com.shortener.core.domain.Link;
+
+import java.time.Clock;
+import java.util.UUID;
+
+/**
+ * Ссылка-представление над записью {@link ColumnarLinkRepository}: неизменяемые поля прочитаны
+ * из колонок при построении, а слово состояния (лимит, счетчик, активность) читается и меняется
+ * CAS прямо в колонке. Поэтому представления одной записи не обязаны быть одним объектом:
+ * переход, засчитанный через любое из них, сразу виден остальным и хранилищу.
+ *
+ * Запись могут удалить и отдать другой ссылке. Представление сверяет, что запись все еще его,
+ * и после удаления отвязывается: дальше оно живет своим состоянием, как обычная ссылка.
+ */
+final class ColumnarLink extends Link {
+    private final ColumnarLinkRepository owner;
+    private final ColumnarLinkRepository.Page page;
+    private final int slot;
+    private final long idMsb;
+    private final long idLsb;
+    private volatile boolean detached;
+
+    ColumnarLink(ColumnarLinkRepository owner, ColumnarLinkRepository.Page page, int slot, UUID id, UUID userId,
+                 String originalUrl, String shortCode, long createdAtMillis, long expiresAtMillis, long state,
+                 String description, Clock clock) {
+        super(id, userId, originalUrl, shortCode, createdAtMillis, expiresAtMillis, state, description, clock);
+        this.owner = owner;
+        this.page = page;
+        this.slot = slot;
+        this.idMsb = id.getMostSignificantBits();
+        this.idLsb = id.getLeastSignificantBits();
+    }
+
+    /**
+     * Слово состояния обычной ссылки для записи в колонку.
+     */
+    static long stateOf(Link link) {
+        return state(link.getMaxClicks(), link.getCurrentClicks(), link.isActive());
+    }
+
+    /**
+     * @return true, если это еще не отвязанное представление записи slot на странице page хранилища owner
+     */
+    boolean isViewOf(ColumnarLinkRepository owner, ColumnarLinkRepository.Page page, int slot) {
+        return this.owner == owner && this.page == page && this.slot == slot && !detached;
+    }
+
+    @Override
+    protected long loadState() {
+        if (!detached) {
+            // Колонка читается до сверки: запись, отданная другой ссылке, к этому моменту видна
+            long state = page.state.get(slot & ColumnarLinkRepository.PAGE_MASK);
+            if (page.holds(slot & ColumnarLinkRepository.PAGE_MASK, idMsb, idLsb)) {
+                return state;
+            }
+            detached = true;
+        }
+        return super.loadState();
+    }
+
+    @Override
+    protected boolean compareAndSetState(long expected, long updated) {
+        if (!detached) {
+            if (owner.compareAndSetState(page, slot, idMsb, idLsb, expected, updated)) {
+                return true;
+            }
+            if (owner.holds(page, slot, idMsb, idLsb)) {
+                return false;
+            }
+            // Своя копия состояния - на момент построения; вызывающий перечитает его и повторит CAS
+            detached = true;
+        }
+        return super.compareAndSetState(expected, updated);
+    }
+}
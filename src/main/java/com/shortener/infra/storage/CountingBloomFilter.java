@@ -0,0 +1,188 @@
+package com.shortener.infra.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный counting Bloom filter для строковых ключей.
+ * Счетчики 4-битные, по 16 в одном long, обновляются через CAS без блокировок.
+ * Фильтр блочный: все k счетчиков ключа лежат в одном блоке размером с кэш-линию
+ * (8 long = 128 счетчиков), поэтому проверка стоит один промах кэша вместо k.
+ * Ответ "нет" точный; ответ "возможно" ошибается с вероятностью около заданной.
+ * Насыщенный счетчик (15) больше не уменьшается, поэтому ложноотрицательных ответов нет.
+ */
+public class CountingBloomFilter {
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int COUNTERS_PER_BLOCK = COUNTERS_PER_WORD * WORDS_PER_BLOCK;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long SATURATED = 0xFL;
+
+    private final AtomicLongArray words;
+    private final long counterCount;
+    private final long blockCount;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+    private final AtomicLong elementCount = new AtomicLong();
+
+    /**
+     * @param expectedInsertions ожидаемое число одновременно хранимых ключей
+     * @param falsePositiveRate  целевая вероятность ложноположительного ответа (0..1)
+     */
+    public CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+
+        long optimalCounters = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long blocks = Math.max(1, (optimalCounters + COUNTERS_PER_BLOCK - 1) / COUNTERS_PER_BLOCK);
+        if (blocks * WORDS_PER_BLOCK > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter too large for " + expectedInsertions + " insertions");
+        }
+
+        this.words = new AtomicLongArray((int) (blocks * WORDS_PER_BLOCK));
+        this.blockCount = blocks;
+        this.counterCount = blocks * COUNTERS_PER_BLOCK;
+        this.hashFunctions = (int) Math.min(COUNTERS_PER_BLOCK,
+                Math.max(1, Math.round((double) counterCount / expectedInsertions * Math.log(2))));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        long block = blockStart(hash);
+        int step = step(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            increment(block + offset(hash, step, i));
+        }
+        elementCount.incrementAndGet();
+    }
+
+    /**
+     * Удаляет ключ. Вызывать только для ключей, которые действительно были добавлены.
+     */
+    public void remove(String key) {
+        long hash = hash(key);
+        long block = blockStart(hash);
+        int step = step(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            decrement(block + offset(hash, step, i));
+        }
+        elementCount.decrementAndGet();
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long block = blockStart(hash);
+        int step = step(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = block + offset(hash, step, i);
+            long word = words.get((int) (index / COUNTERS_PER_WORD));
+            if (((word >>> shift(index)) & COUNTER_MASK) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+        elementCount.set(0);
+    }
+
+    /**
+     * Оценка вероятности ложноположительного ответа при текущем заполнении:
+     * (1 - e^(-k * n / m))^k.
+     */
+    public double estimatedFalsePositiveRate() {
+        long n = Math.max(0, elementCount.get());
+        return Math.pow(1 - Math.exp(-(double) hashFunctions * n / counterCount), hashFunctions);
+    }
+
+    public long approximateElementCount() {
+        return Math.max(0, elementCount.get());
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public long getCounterCount() {
+        return counterCount;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    public long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    private void increment(long index) {
+        int wordIndex = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+        while (true) {
+            long word = words.get(wordIndex);
+            long counter = (word >>> shift) & COUNTER_MASK;
+            if (counter == SATURATED) {
+                return;
+            }
+            if (words.compareAndSet(wordIndex, word, word + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(long index) {
+        int wordIndex = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+        while (true) {
+            long word = words.get(wordIndex);
+            long counter = (word >>> shift) & COUNTER_MASK;
+            // Насыщенный счетчик "залипает": точное значение потеряно
+            if (counter == 0 || counter == SATURATED) {
+                return;
+            }
+            if (words.compareAndSet(wordIndex, word, word - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    // Начало блока определяют старшие биты хеша
+    private long blockStart(long hash) {
+        return Math.floorMod(hash >>> 20, blockCount) * COUNTERS_PER_BLOCK;
+    }
+
+    // Нечетный шаг по модулю 128 дает k различных позиций внутри блока
+    private static int step(long hash) {
+        return (int) (hash >>> 7) | 1;
+    }
+
+    private static int offset(long hash, int step, int i) {
+        return ((int) hash + i * step) & (COUNTERS_PER_BLOCK - 1);
+    }
+
+    private static int shift(long index) {
+        return (int) (index % COUNTERS_PER_WORD) * 4;
+    }
+
+    // 64-битный FNV-1a с финальным перемешиванием (splitmix64)
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
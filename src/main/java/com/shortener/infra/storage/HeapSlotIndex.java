@@ -0,0 +1,131 @@
+package com.shortener.infra.storage;
+
+/**
+ * Хеш-таблица с открытой адресацией в куче: хеш ключа -> номер записи. Устроена как
+ * {@link OffHeapSlotIndex}, но ячейки лежат в одном long[]: хеш в старших 32 битах, номер
+ * записи + 1 в младших, ключ сверяется с записью через {@link OffHeapSlotIndex.SlotMatcher}.
+ *
+ * Не потокобезопасна: доступ синхронизирует владелец.
+ */
+final class HeapSlotIndex {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final double MAX_LOAD = 0.75;
+
+    private long[] table = new long[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    /**
+     * @return номер записи с этим ключом или -1
+     */
+    int find(int hash, OffHeapSlotIndex.SlotMatcher matcher) {
+        for (int cell = home(hash, mask); ; cell = (cell + 1) & mask) {
+            long entry = table[cell];
+            if (entry == 0) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == hash && matcher.matches(slotOf(entry))) {
+                return slotOf(entry);
+            }
+        }
+    }
+
+    /**
+     * Добавляет ключ; владелец гарантирует, что такого ключа в таблице еще нет.
+     */
+    void add(int hash, int slot) {
+        if (size + 1 > table.length * MAX_LOAD) {
+            grow();
+        }
+        insert(table, mask, entryOf(hash, slot));
+        size++;
+    }
+
+    /**
+     * Перенаправляет ключ с записи oldSlot на newSlot.
+     */
+    void replace(int hash, int oldSlot, int newSlot) {
+        int cell = locate(entryOf(hash, oldSlot));
+        if (cell >= 0) {
+            table[cell] = entryOf(hash, newSlot);
+        }
+    }
+
+    boolean remove(int hash, int slot) {
+        int cell = locate(entryOf(hash, slot));
+        if (cell < 0) {
+            return false;
+        }
+        // Обратный сдвиг, как в OffHeapSlotIndex
+        int hole = cell;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = home((int) (table[next] >>> 32), mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        table = new long[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long tableBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    private int locate(long entry) {
+        for (int cell = home((int) (entry >>> 32), mask); ; cell = (cell + 1) & mask) {
+            long current = table[cell];
+            if (current == 0) {
+                return -1;
+            }
+            if (current == entry) {
+                return cell;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] grown = new long[table.length * 2];
+        int grownMask = grown.length - 1;
+        for (long entry : table) {
+            if (entry != 0) {
+                insert(grown, grownMask, entry);
+            }
+        }
+        table = grown;
+        mask = grownMask;
+    }
+
+    private static void insert(long[] target, int mask, long entry) {
+        int cell = home((int) (entry >>> 32), mask);
+        while (target[cell] != 0) {
+            cell = (cell + 1) & mask;
+        }
+        target[cell] = entry;
+    }
+
+    private static int home(int hash, int mask) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static long entryOf(int hash, int slot) {
+        return ((long) hash << 32) | ((slot + 1) & 0xFFFFFFFFL);
+    }
+
+    private static int slotOf(long entry) {
+        return (int) entry - 1;
+    }
+}
@@ -1,16 +1,48 @@
 package com.shortener.infra.storage;
 
 import com.shortener.core.domain.Link;
-import com.shortener.core.repository.LinkRepository;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class InMemoryLinkRepository implements ObservableLinkRepository {
+    private static final int DEFAULT_EXPECTED_LINKS = 100_000;
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
 
-public class InMemoryLinkRepository implements LinkRepository {
     private final Map<UUID, Link> storage = new ConcurrentHashMap<>();
-    private final Map<String, UUID> shortCodeIndex = new ConcurrentHashMap<>();
+    private final ShortCodeIndex shortCodeIndex = new ShortCodeIndex();
     private final Map<UUID, Set<UUID>> userLinksIndex = new ConcurrentHashMap<>();
 
+    // Фильтр живых коротких кодов: точный промах отвечается без обращения к индексам
+    private final CountingBloomFilter shortCodeFilter;
+    private final LongAdder filterRejects = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+
+    // Подписчики на удаление ссылок (кэши, привязанные к присутствию ссылки в хранилище)
+    private final List<Consumer<Link>> removalListeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryLinkRepository() {
+        this(DEFAULT_EXPECTED_LINKS, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @param expectedLinks     ожидаемое число ссылок (0 - без фильтра промахов)
+     * @param falsePositiveRate целевая доля ложноположительных ответов фильтра
+     */
+    public InMemoryLinkRepository(int expectedLinks, double falsePositiveRate) {
+        this.shortCodeFilter = expectedLinks > 0
+                ? new CountingBloomFilter(expectedLinks, falsePositiveRate)
+                : null;
+    }
+
+    @Override
+    public void addRemovalListener(Consumer<Link> listener) {
+        removalListeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
     @Override
     public Optional<Link> findById(UUID id) {
         return Optional.ofNullable(storage.get(id));
@@ -18,11 +50,21 @@ public class InMemoryLinkRepository implements LinkRepository {
 
     @Override
     public Optional<Link> findByShortCode(String shortCode) {
-        UUID id = shortCodeIndex.get(shortCode);
-        if (id != null) {
-            return Optional.ofNullable(storage.get(id));
+        return Optional.ofNullable(findByShortCodeOrNull(shortCode));
+    }
+
+    @Override
+    public Link findByShortCodeOrNull(String shortCode) {
+        if (shortCodeFilter != null && !shortCodeFilter.mightContain(shortCode)) {
+            filterRejects.increment();
+            return null;
+        }
+
+        Link link = shortCodeIndex.get(shortCode);
+        if (link == null && shortCodeFilter != null) {
+            filterFalsePositives.increment();
         }
-        return Optional.empty();
+        return link;
     }
 
     @Override
@@ -46,20 +88,61 @@ public class InMemoryLinkRepository implements LinkRepository {
     @Override
     public Link save(Link link) {
         storage.put(link.getId(), link);
-        shortCodeIndex.put(link.getShortCode(), link.getId());
+        indexShortCode(link);
 
-        // Обновление индекса пользовательских ссылок
-        userLinksIndex.computeIfAbsent(link.getUserId(), k -> new HashSet<>())
+        // Обновление индекса пользовательских ссылок (save вызывается конкурентно из редиректов)
+        userLinksIndex.computeIfAbsent(link.getUserId(), k -> ConcurrentHashMap.newKeySet())
                 .add(link.getId());
 
         return link;
     }
 
+    @Override
+    public int saveAllIfPresent(Collection<Link> links) {
+        int saved = 0;
+        for (Link link : links) {
+            // Проверка и запись - под блокировкой ключа карты: delete этой ссылки либо уже убрал ее,
+            // либо дождется записи и уберет ее вместе с индексами. Пользователь ссылки не меняется
+            boolean[] present = new boolean[1];
+            storage.computeIfPresent(link.getId(), (id, stored) -> {
+                indexShortCode(link);
+                present[0] = true;
+                return link;
+            });
+            if (present[0]) {
+                saved++;
+            }
+        }
+        return saved;
+    }
+
+    private void indexShortCode(Link link) {
+        String shortCode = link.getShortCode();
+        // Повторное сохранение той же ссылки (счетчик переходов) не меняет индекс кодов и фильтр
+        if (shortCodeIndex.get(shortCode) != link) {
+            // Код попадает в фильтр раньше индекса, чтобы читатель не получил ложный промах.
+            // Добавление безусловное: проверка наличия кода гонялась бы с delete прежней ссылки
+            if (shortCodeFilter != null) {
+                shortCodeFilter.add(shortCode);
+            }
+            Link previous = shortCodeIndex.put(shortCode, link);
+            if (shortCodeFilter != null && previous != null) {
+                // Код перешел от прежней ссылки: ее счет в фильтре достается новой, а delete
+                // прежней ссылки уже не найдет своей записи в индексе и фильтр не тронет
+                shortCodeFilter.remove(shortCode);
+            }
+        }
+    }
+
     @Override
     public void delete(UUID id) {
         Link link = storage.remove(id);
         if (link != null) {
-            shortCodeIndex.remove(link.getShortCode());
+            // Код мог быть переиспользован другой ссылкой - удаляем только свою запись
+            boolean codeReleased = shortCodeIndex.remove(link.getShortCode(), id);
+            if (codeReleased && shortCodeFilter != null) {
+                shortCodeFilter.remove(link.getShortCode());
+            }
             Set<UUID> userLinks = userLinksIndex.get(link.getUserId());
             if (userLinks != null) {
                 userLinks.remove(id);
@@ -67,18 +150,67 @@ public class InMemoryLinkRepository implements LinkRepository {
                     userLinksIndex.remove(link.getUserId());
                 }
             }
+            // Код, перехваченный новой ссылкой, продолжает работать - подписчиков не трогаем
+            if (codeReleased) {
+                notifyRemoved(link);
+            }
         }
     }
 
     @Override
     public void deleteAll() {
+        List<Link> removed = new ArrayList<>();
+        if (!removalListeners.isEmpty()) {
+            for (Link link : storage.values()) {
+                if (shortCodeIndex.get(link.getShortCode()) == link) {
+                    removed.add(link);
+                }
+            }
+        }
         storage.clear();
         shortCodeIndex.clear();
         userLinksIndex.clear();
+        if (shortCodeFilter != null) {
+            shortCodeFilter.clear();
+        }
+        removed.forEach(this::notifyRemoved);
+    }
+
+    private void notifyRemoved(Link link) {
+        for (Consumer<Link> listener : removalListeners) {
+            listener.accept(link);
+        }
     }
 
     @Override
     public long count() {
         return storage.size();
     }
+
+    /**
+     * Метрики фильтра промахов: размер, память, оценочная и наблюдаемая доля ложноположительных.
+     *
+     * @return метрики фильтра или пустая карта, если фильтр отключен
+     */
+    public Map<String, Object> getShortCodeFilterMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        if (shortCodeFilter == null) {
+            return metrics;
+        }
+
+        long rejects = filterRejects.sum();
+        long falsePositives = filterFalsePositives.sum();
+        long misses = rejects + falsePositives;
+
+        metrics.put("expectedInsertions", shortCodeFilter.getExpectedInsertions());
+        metrics.put("approximateElementCount", shortCodeFilter.approximateElementCount());
+        metrics.put("counters", shortCodeFilter.getCounterCount());
+        metrics.put("hashFunctions", shortCodeFilter.getHashFunctions());
+        metrics.put("memoryBytes", shortCodeFilter.memoryBytes());
+        metrics.put("estimatedFalsePositiveRate", shortCodeFilter.estimatedFalsePositiveRate());
+        metrics.put("observedFalsePositiveRate", misses > 0 ? (double) falsePositives / misses : 0.0);
+        metrics.put("filteredMisses", rejects);
+        metrics.put("falsePositives", falsePositives);
+        return metrics;
+    }
 }
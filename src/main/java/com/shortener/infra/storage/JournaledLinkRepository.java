@@ -0,0 +1,292 @@
+package com.shortener.infra.storage;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Долговечный режим репозитория в памяти: каждое изменение сначала дописывается в журнал
+ * упреждающей записи и только потом применяется к исходному репозиторию.
+ *
+ * При создании последний снимок журнала и хвост сегментов после него проигрываются в исходный
+ * репозиторий, восстанавливая хранилище и индексы по коду и пользователю. Фоновый снимок
+ * ({@link #snapshot()}) начинает новый сегмент, читает ссылки без блокировок и удаляет сегменты,
+ * покрытые снимком, так что перезапуск читает образ ссылок и короткий хвост, а не всю историю
+ * переходов. Чтение идет в исходный репозиторий без обращения к журналу.
+ */
+public class JournaledLinkRepository implements LinkRepository, AutoCloseable {
+    private static final int STRIPES = 64;
+
+    private final LinkRepository delegate;
+    private final LinkWriteAheadLog log;
+    private final long recoveredRecords;
+
+    // Запись в журнал и применение к памяти - под общей блокировкой: смена сегмента под
+    // исключительной видит примененным все, что записано в закрываемый сегмент
+    private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    // Запись в журнал и применение к памяти для одной ссылки - под ее полосой, чтобы восстановление
+    // проигрывало изменения ссылки в том же порядке, в каком они применялись. Изменения разных
+    // ссылок коммутируют и идут параллельно, не мешая групповой фиксации журнала
+    private final Lock[] stripes = new Lock[STRIPES];
+    private final Object snapshotLock = new Object();
+    private final LongAdder changesSinceSnapshot = new LongAdder();
+    private final AtomicLong snapshots = new AtomicLong();
+    private volatile long lastSnapshotMillis;
+    private ScheduledExecutorService snapshotter;
+
+    public JournaledLinkRepository(LinkRepository delegate, LinkWriteAheadLog log) throws IOException {
+        this.delegate = delegate;
+        this.log = log;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.recoveredRecords = log.recover(delegate);
+    }
+
+    /**
+     * Запускает фоновые снимки раз в intervalMillis, если с прошлого снимка были изменения.
+     */
+    public synchronized void startSnapshots(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        if (snapshotter != null) {
+            return;
+        }
+        snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshotIfChanged, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Снимает образ всех ссылок и отрезает журнал за ним. Писатели блокируются только
+     * на смену сегмента, а не на время записи снимка.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long start = System.nanoTime();
+            long firstSegment;
+            Lock exclusive = rotationLock.writeLock();
+            exclusive.lock();
+            try {
+                firstSegment = log.rotate();
+                changesSinceSnapshot.reset();
+            } finally {
+                exclusive.unlock();
+            }
+            log.writeSnapshot(delegate.findAll(), firstSegment);
+            snapshots.incrementAndGet();
+            lastSnapshotMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    private void snapshotIfChanged() {
+        if (changesSinceSnapshot.sum() == 0) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            // Сегменты не удалены - журнал по-прежнему полон, попробуем на следующем тике
+            System.err.println("⚠️  Link snapshot failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<Link> findById(UUID id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<Link> findByShortCode(String shortCode) {
+        return delegate.findByShortCode(shortCode);
+    }
+
+    @Override
+    public Link findByShortCodeOrNull(String shortCode) {
+        return delegate.findByShortCodeOrNull(shortCode);
+    }
+
+    @Override
+    public List<Link> findByUserId(UUID userId) {
+        return delegate.findByUserId(userId);
+    }
+
+    @Override
+    public List<Link> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Link save(Link link) {
+        Lock shared = rotationLock.readLock();
+        shared.lock();
+        Lock stripe = stripeOf(link.getId());
+        stripe.lock();
+        try {
+            log.appendSave(link);
+            changesSinceSnapshot.increment();
+            return delegate.save(link);
+        } finally {
+            stripe.unlock();
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Link> links) {
+        Lock shared = rotationLock.readLock();
+        shared.lock();
+        BitSet locked = lockStripes(links);
+        try {
+            // Пачка отложенной записи переходов - одна запись в журнал и один fsync
+            log.appendSaveAll(links);
+            changesSinceSnapshot.add(links.size());
+            delegate.saveAll(links);
+        } finally {
+            unlockStripes(locked);
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public int saveAllIfPresent(Collection<Link> links) {
+        Lock shared = rotationLock.readLock();
+        shared.lock();
+        BitSet locked = lockStripes(links);
+        try {
+            // Под полосами ссылок пачки удаление через журнал не вклинится между проверкой и записью
+            List<Link> present = new ArrayList<>(links.size());
+            for (Link link : links) {
+                if (delegate.findById(link.getId()).isPresent()) {
+                    present.add(link);
+                }
+            }
+            if (present.isEmpty()) {
+                return 0;
+            }
+            log.appendSaveAll(present);
+            changesSinceSnapshot.add(present.size());
+            return delegate.saveAllIfPresent(present);
+        } finally {
+            unlockStripes(locked);
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public void delete(UUID id) {
+        Lock shared = rotationLock.readLock();
+        shared.lock();
+        Lock stripe = stripeOf(id);
+        stripe.lock();
+        try {
+            log.appendDelete(id);
+            changesSinceSnapshot.increment();
+            delegate.delete(id);
+        } finally {
+            stripe.unlock();
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        Lock shared = rotationLock.readLock();
+        shared.lock();
+        BitSet all = new BitSet(STRIPES);
+        all.set(0, STRIPES);
+        lockStripes(all);
+        try {
+            log.appendClear();
+            changesSinceSnapshot.increment();
+            delegate.deleteAll();
+        } finally {
+            unlockStripes(all);
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    /**
+     * @return сколько записей (ссылок снимка и записей хвоста) было применено при запуске
+     */
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(log.getMetrics());
+        metrics.put("snapshots", snapshots.get());
+        metrics.put("lastSnapshotMillis", lastSnapshotMillis);
+        metrics.put("changesSinceSnapshot", changesSinceSnapshot.sum());
+        return metrics;
+    }
+
+    private Lock stripeOf(UUID id) {
+        return stripes[id.hashCode() & (STRIPES - 1)];
+    }
+
+    /**
+     * Берет полосы всех ссылок пачки по возрастанию номера, чтобы пачки не блокировали друг друга.
+     */
+    private BitSet lockStripes(Collection<Link> links) {
+        BitSet locked = new BitSet(STRIPES);
+        for (Link link : links) {
+            locked.set(link.getId().hashCode() & (STRIPES - 1));
+        }
+        lockStripes(locked);
+        return locked;
+    }
+
+    private void lockStripes(BitSet indexes) {
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            stripes[i].lock();
+        }
+    }
+
+    private void unlockStripes(BitSet indexes) {
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            stripes[i].unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (snapshotter != null) {
+                snapshotter.shutdownNow();
+            }
+        }
+        // Дожидаемся снимка, который мог быть в процессе
+        synchronized (snapshotLock) {
+            log.close();
+        }
+    }
+}
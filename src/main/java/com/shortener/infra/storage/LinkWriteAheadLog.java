@@ -0,0 +1,640 @@
+package com.shortener.infra.storage;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный журнал упреждающей записи (write-ahead log) изменений ссылок.
+ *
+ * Запись: длина тела (int), CRC32 тела (int), тело = тип (byte) + данные. SAVE хранит полный
+ * снимок ссылки, DELETE - идентификатор, CLEAR - ничего. Снимок кодируется под блокировкой
+ * записи, поэтому порядок записей совпадает с порядком снимков и счетчик переходов в журнале
+ * не откатывается назад. Оборванная или поврежденная запись в хвосте последнего сегмента
+ * (сбой посреди записи) при чтении отбрасывается вместе со всем, что после нее. Предыдущие
+ * сегменты перед сменой прошли fsync, поэтому порча в них - это потеря данных, а не обрыв:
+ * восстановление на ней останавливается с ошибкой.
+ *
+ * Журнал состоит из пронумерованных сегментов path.000000000001, ... и снимка path.snapshot -
+ * образа всех ссылок с номером первого сегмента, который нужно проиграть поверх него.
+ * {@link #rotate()} начинает новый сегмент, {@link #writeSnapshot(Collection, long)} пишет снимок
+ * и удаляет покрытые им сегменты. Все записи идемпотентны (SAVE - полное состояние), поэтому
+ * снимок может быть нечетким: изменения, попавшие и в снимок, и в хвост, применятся повторно.
+ *
+ * Когда запись считается надежной, определяет {@link FsyncPolicy}.
+ */
+public class LinkWriteAheadLog implements AutoCloseable {
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+    private static final int HEADER_BYTES = 8;
+    // Запись длиннее этого - признак повреждения длины, а не настоящая ссылка
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int SNAPSHOT_MAGIC = 0x4C4E4B53;
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    public enum FsyncPolicy {
+        // fsync после каждой записи до возврата из нее
+        ALWAYS,
+        // Групповая фиксация: писатель ждет fsync, но один fsync покрывает все записи, накопленные к нему
+        GROUP,
+        // fsync фоном раз в интервал: запись не ждет диска, при сбое ОС теряется не больше интервала
+        INTERVAL
+    }
+
+    private final Path path;
+    private final FsyncPolicy policy;
+    private final Clock clock;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private final ScheduledExecutorService syncer;
+    private FileChannel channel;
+    private long segment;
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final CRC32 crc = new CRC32();
+
+    // Байты, записанные во все сегменты с момента открытия: позиции не сбрасываются при смене сегмента
+    private volatile long writtenPosition;
+    // Состояние фиксации (под syncLock): syncing - кто-то держит право на fsync или смену сегмента
+    private long syncedPosition;
+    private boolean syncing;
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private volatile long snapshotLinks;
+    private volatile long replayedRecords;
+
+    /**
+     * Журнал начинает принимать записи после {@link #recover(LinkRepository)}.
+     *
+     * @param path                базовый путь: к нему добавляются номера сегментов и суффикс снимка
+     * @param fsyncIntervalMillis период фонового fsync для INTERVAL
+     * @param clock               часы восстановленных ссылок
+     */
+    public LinkWriteAheadLog(Path path, FsyncPolicy policy, long fsyncIntervalMillis, Clock clock) throws IOException {
+        if (policy == FsyncPolicy.INTERVAL && fsyncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Fsync interval must be positive");
+        }
+        this.path = path.toAbsolutePath();
+        this.policy = policy;
+        this.clock = clock;
+        Path parent = this.path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        if (policy == FsyncPolicy.INTERVAL) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMillis, fsyncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Загружает последний снимок и проигрывает поверх него хвост сегментов, отрезая оборванный
+     * хвост последнего сегмента, затем открывает новый сегмент для записи.
+     *
+     * @return число примененных записей (ссылки снимка плюс записи хвоста)
+     * @throws IOException если поврежден снимок или сегмент перед последним: записи после
+     *                     порчи нельзя применять, а без них состояние было бы неполным
+     */
+    public long recover(LinkRepository target) throws IOException {
+        synchronized (writeLock) {
+            long firstSegment = 1;
+            long loaded = 0;
+            Path snapshot = snapshotPath();
+            if (Files.exists(snapshot)) {
+                try (RecordReader in = new RecordReader(snapshot)) {
+                    if (in.readInt() != SNAPSHOT_MAGIC) {
+                        throw new IOException("Not a link snapshot: " + snapshot);
+                    }
+                    firstSegment = in.readLong();
+                    long count = in.readLong();
+                    for (long i = 0; i < count; i++) {
+                        ByteBuffer body = in.next();
+                        if (body == null) {
+                            // Снимок подменяется атомарно и только целиком - обрыв означает порчу файла
+                            throw new IOException("Corrupted link snapshot: " + snapshot);
+                        }
+                        apply(body, target);
+                    }
+                    loaded = count;
+                }
+            }
+
+            long replayed = 0;
+            long lastSegment = firstSegment - 1;
+            List<Long> segments = listSegments();
+            for (int i = 0; i < segments.size(); i++) {
+                long number = segments.get(i);
+                if (number < firstSegment) {
+                    // Сегмент покрыт снимком, но не был удален до сбоя
+                    Files.deleteIfExists(segmentPath(number));
+                    continue;
+                }
+                replayed += replaySegment(segmentPath(number), target, i == segments.size() - 1);
+                lastSegment = number;
+            }
+
+            snapshotLinks = loaded;
+            replayedRecords = replayed;
+            segment = lastSegment + 1;
+            channel = openSegment(segmentPath(segment));
+            return loaded + replayed;
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент (с fsync) и начинает следующий.
+     *
+     * @return номер нового сегмента: снимок, снятый после этого вызова, покрывает все предыдущие
+     */
+    public long rotate() throws IOException {
+        synchronized (writeLock) {
+            acquireSync();
+            long synced = -1;
+            try {
+                channel.force(false);
+                fsyncs.increment();
+                synced = writtenPosition;
+                channel.close();
+                segment++;
+                channel = openSegment(segmentPath(segment));
+            } finally {
+                releaseSync(synced);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Пишет снимок ссылок рядом со старым, атомарно подменяет его и удаляет сегменты до firstSegment.
+     * Не держит блокировку записи: писатели продолжают дописывать текущий сегмент.
+     *
+     * @param firstSegment номер, полученный от {@link #rotate()} до чтения ссылок
+     */
+    public void writeSnapshot(Collection<Link> links, long firstSegment) throws IOException {
+        Path snapshot = snapshotPath();
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        CRC32 snapshotCrc = new CRC32();
+        long count = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(20);
+            header.putInt(SNAPSHOT_MAGIC).putLong(firstSegment).putLong(0).flip();
+            writeFully(out, header);
+            // Записи копятся в буфере и уходят в файл крупными блоками
+            ByteBuffer block = ByteBuffer.allocate(1 << 20);
+            for (Link link : links) {
+                ByteBuffer record = encodeSave(link, snapshotCrc);
+                if (block.remaining() < record.remaining()) {
+                    block.flip();
+                    writeFully(out, block);
+                    block.clear();
+                }
+                if (record.remaining() > block.capacity()) {
+                    writeFully(out, record);
+                } else {
+                    block.put(record);
+                }
+                count++;
+            }
+            block.flip();
+            writeFully(out, block);
+            // Число ссылок известно только в конце
+            ByteBuffer countBuffer = ByteBuffer.allocate(8);
+            countBuffer.putLong(count).flip();
+            out.write(countBuffer, 12);
+            out.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotLinks = count;
+
+        for (long number : listSegments()) {
+            if (number < firstSegment) {
+                Files.deleteIfExists(segmentPath(number));
+            }
+        }
+    }
+
+    public void appendSave(Link link) {
+        append(List.of(link), SAVE, null);
+    }
+
+    /**
+     * Пачка снимков пишется одной операцией и фиксируется одним fsync.
+     */
+    public void appendSaveAll(Collection<Link> links) {
+        if (!links.isEmpty()) {
+            append(links, SAVE, null);
+        }
+    }
+
+    public void appendDelete(UUID id) {
+        append(List.of(), DELETE, id);
+    }
+
+    public void appendClear() {
+        append(List.of(), CLEAR, null);
+    }
+
+    private void append(Collection<Link> links, byte type, UUID id) {
+        long end;
+        try {
+            synchronized (writeLock) {
+                ByteBuffer record;
+                if (type == SAVE && links.size() == 1) {
+                    record = encodeSave(links.iterator().next(), crc);
+                } else if (type == SAVE) {
+                    buffer.clear();
+                    for (Link link : links) {
+                        ByteBuffer single = encodeSave(link, crc);
+                        ensureCapacity(single.remaining());
+                        buffer.put(single);
+                    }
+                    buffer.flip();
+                    record = buffer;
+                } else {
+                    record = encodeRecord(type, id, crc);
+                }
+                int count = type == SAVE ? links.size() : 1;
+                writtenPosition += writeFully(channel, record);
+                end = writtenPosition;
+                records.add(count);
+                if (policy == FsyncPolicy.ALWAYS) {
+                    channel.force(false);
+                    fsyncs.increment();
+                }
+            }
+            if (policy == FsyncPolicy.GROUP) {
+                awaitDurable(end);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to write-ahead log " + path, e);
+        }
+    }
+
+    /**
+     * Групповая фиксация: первый дождавшийся поток делает fsync за всех, кто записал до него,
+     * остальные ждут его результата и, если их запись в него не попала, следующий.
+     */
+    private void awaitDurable(long position) throws IOException {
+        synchronized (syncLock) {
+            if (syncedPosition >= position) {
+                return;
+            }
+        }
+        forceIfBehind(position);
+    }
+
+    /**
+     * Делает fsync, если позиция еще не зафиксирована, дождавшись чужого fsync или смены сегмента.
+     */
+    private void forceIfBehind(long position) throws IOException {
+        acquireSync();
+        long synced = -1;
+        try {
+            synchronized (syncLock) {
+                if (syncedPosition >= position) {
+                    return;
+                }
+            }
+            long target = writtenPosition;
+            channel.force(false);
+            fsyncs.increment();
+            synced = target;
+        } finally {
+            releaseSync(synced);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            forceIfBehind(writtenPosition);
+        } catch (IOException e) {
+            // Следующий тик или close() повторят fsync
+        }
+    }
+
+    /**
+     * Берет право на fsync или смену сегмента: одновременно канал трогает только один поток.
+     */
+    private void acquireSync() {
+        boolean interrupted = false;
+        synchronized (syncLock) {
+            while (syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            syncing = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param synced позиция, до которой данные теперь на диске, или -1, если fsync не удался
+     */
+    private void releaseSync(long synced) {
+        synchronized (syncLock) {
+            syncing = false;
+            syncedPosition = Math.max(syncedPosition, synced);
+            syncLock.notifyAll();
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("fsyncPolicy", policy.name());
+        metrics.put("records", records.sum());
+        metrics.put("fsyncs", fsyncs.sum());
+        metrics.put("bytes", writtenPosition);
+        metrics.put("segment", segment);
+        metrics.put("snapshotLinks", snapshotLinks);
+        metrics.put("replayedRecords", replayedRecords);
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        synchronized (writeLock) {
+            try {
+                if (channel != null && channel.isOpen()) {
+                    channel.force(false);
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close write-ahead log " + path, e);
+            }
+        }
+    }
+
+    private void apply(ByteBuffer body, LinkRepository target) {
+        byte type = body.get();
+        switch (type) {
+            case SAVE:
+                target.save(decodeLink(body));
+                break;
+            case DELETE:
+                target.delete(new UUID(body.getLong(), body.getLong()));
+                break;
+            case CLEAR:
+                target.deleteAll();
+                break;
+            default:
+                throw new IllegalStateException("Unknown write-ahead log record type " + type);
+        }
+    }
+
+    /**
+     * Последовательное чтение записей файла. Тело каждой записи читается в один переиспользуемый
+     * буфер и действительно до следующего вызова {@link #next()}: apply разбирает его сразу.
+     */
+    private static final class RecordReader implements AutoCloseable {
+        private final DataInputStream in;
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer body = ByteBuffer.allocate(4096);
+
+        RecordReader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        int readInt() throws IOException {
+            return in.readInt();
+        }
+
+        long readLong() throws IOException {
+            return in.readLong();
+        }
+
+        /**
+         * @return тело записи или null в конце файла и на оборванной или поврежденной записи
+         */
+        ByteBuffer next() throws IOException {
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    return null;
+                }
+                if (body.capacity() < length) {
+                    body = ByteBuffer.allocate(Math.max(body.capacity() * 2, length));
+                }
+                byte[] bytes = body.array();
+                in.readFully(bytes, 0, length);
+                crc.reset();
+                crc.update(bytes, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    return null;
+                }
+                body.clear().limit(length);
+                return body;
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static ByteBuffer encodeSave(Link link, CRC32 crc) {
+        byte[] shortCode = link.getShortCode().getBytes(StandardCharsets.UTF_8);
+        byte[] originalUrl = link.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+        byte[] description = link.getDescription().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 1 + 16 + 16 + 8 + 8 + 4 + 4 + 1
+                + 4 + shortCode.length + 4 + originalUrl.length + 4 + description.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.position(HEADER_BYTES);
+        record.put(SAVE);
+        putUuid(record, link.getId());
+        putUuid(record, link.getUserId());
+        record.putLong(link.getCreatedAtMillis());
+        record.putLong(link.getExpiresAtMillis());
+        record.putInt(link.getMaxClicks());
+        record.putInt(link.getCurrentClicks());
+        record.put((byte) (link.isActive() ? 1 : 0));
+        putBytes(record, shortCode);
+        putBytes(record, originalUrl);
+        putBytes(record, description);
+        return sealRecord(record, bodyLength, crc);
+    }
+
+    private static ByteBuffer encodeRecord(byte type, UUID id, CRC32 crc) {
+        int bodyLength = 1 + (id != null ? 16 : 0);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.position(HEADER_BYTES);
+        record.put(type);
+        if (id != null) {
+            putUuid(record, id);
+        }
+        return sealRecord(record, bodyLength, crc);
+    }
+
+    private static ByteBuffer sealRecord(ByteBuffer record, int bodyLength, CRC32 crc) {
+        crc.reset();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(0, bodyLength);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private Link decodeLink(ByteBuffer body) {
+        UUID id = new UUID(body.getLong(), body.getLong());
+        UUID userId = new UUID(body.getLong(), body.getLong());
+        long createdAt = body.getLong();
+        long expiresAt = body.getLong();
+        int maxClicks = body.getInt();
+        int currentClicks = body.getInt();
+        boolean active = body.get() != 0;
+        String shortCode = getString(body);
+        String originalUrl = getString(body);
+        String description = getString(body);
+        return Link.restore(id, userId, originalUrl, shortCode, createdAt, expiresAt,
+                maxClicks, currentClicks, active, description, clock);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (buffer.remaining() < extra) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    /**
+     * @param last последний ли это сегмент: только у него может быть оборванный хвост
+     * @return число примененных записей сегмента; поврежденный хвост последнего сегмента отрезается
+     */
+    private long replaySegment(Path file, LinkRepository target, boolean last) throws IOException {
+        long position = 0;
+        long applied = 0;
+        try (RecordReader in = new RecordReader(file)) {
+            while (true) {
+                ByteBuffer body = in.next();
+                if (body == null) {
+                    break;
+                }
+                int length = body.limit();
+                apply(body, target);
+                position += HEADER_BYTES + length;
+                applied++;
+            }
+        }
+        long size = Files.size(file);
+        if (position < size && !last) {
+            throw new IOException("Corrupted write-ahead log segment " + file + " at offset " + position
+                    + " of " + size + ": later segments cannot be replayed over the gap");
+        }
+        if (position < size) {
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                out.truncate(position);
+                out.force(true);
+            }
+        }
+        return applied;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        String prefix = path.getFileName() + ".";
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path.getParent(), prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    numbers.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private Path segmentPath(long number) {
+        return path.resolveSibling(path.getFileName() + "." + String.format("%012d", number));
+    }
+
+    private Path snapshotPath() {
+        return path.resolveSibling(path.getFileName() + SNAPSHOT_SUFFIX);
+    }
+
+    private static FileChannel openSegment(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        int written = 0;
+        while (data.hasRemaining()) {
+            written += channel.write(data);
+        }
+        return written;
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == 0) {
+            // Пустое описание - частый случай: восстановленные ссылки делят один объект строки
+            return "";
+        }
+        int position = buffer.position();
+        // Строка собирается прямо из буфера записи, без промежуточной копии байтов
+        String value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        buffer.position(position + length);
+        return value;
+    }
+}
@@ -0,0 +1,516 @@
+package com.shortener.infra.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shortener.core.domain.Link;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище ссылок вне кучи: записи фиксированного размера и область строк в файлах,
+ * отображенных в память, и индексы с открытой адресацией тоже вне кучи.
+ *
+ * Запись (RECORD_BYTES) хранит идентификаторы, время, счетчики и смещения строк (код, URL,
+ * описание) в области строк; индексы по коду, id и пользователю отображают ключ в номер записи,
+ * а ссылки одного пользователя связаны в двусвязный список через поля записи. В куче остаются
+ * только объекты Link, которые сейчас кто-то держит: они строятся из записи по запросу и
+ * разделяются читателями через слабый кэш, так что конкурентные переходы по одной ссылке
+ * считают клики в одном объекте. Изменения ссылки попадают в запись только через save
+ * (как и в журнал), поэтому для переходов нужен буфер кликов или сохранение на каждый клик.
+ *
+ * Повторный save ссылки с тем же id переписывает только изменяемые поля (лимит, счетчик,
+ * активность): остальные поля Link неизменяемы. Строки удаленных ссылок не переиспользуются.
+ * Файлы - рабочие: каталог очищается при открытии, надежность обеспечивает журнал
+ * ({@link JournaledLinkRepository}), который проигрывается в хранилище при запуске.
+ */
+public class MappedLinkRepository implements ObservableLinkRepository, AutoCloseable {
+    // Смещения полей записи: long по кратным 8 смещениям, int по кратным 4
+    private static final int ID_MSB = 0;
+    private static final int ID_LSB = 8;
+    private static final int USER_MSB = 16;
+    private static final int USER_LSB = 24;
+    private static final int CREATED_AT = 32;
+    private static final int EXPIRES_AT = 40;
+    private static final int CODE_REF = 48;
+    private static final int URL_REF = 56;
+    private static final int DESCRIPTION_REF = 64;
+    private static final int MAX_CLICKS = 72;
+    private static final int CURRENT_CLICKS = 76;
+    private static final int PREV_BY_USER = 80;
+    // Для свободной записи - следующая свободная
+    private static final int NEXT_BY_USER = 84;
+    private static final int FLAGS = 88;
+    static final int RECORD_BYTES = 96;
+
+    private static final byte LIVE = 1;
+    private static final byte ACTIVE = 2;
+    private static final int NONE = -1;
+
+    private final Clock clock;
+    private final MappedRegion records;
+    private final MappedRegion strings;
+    private final OffHeapSlotIndex codeIndex;
+    private final OffHeapSlotIndex idIndex;
+    private final OffHeapSlotIndex userIndex;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int highWater;
+    private int freeHead = NONE;
+    private int liveCount;
+    private long stringTop;
+    private long garbageStringBytes;
+
+    // Построенные ссылки живут, пока на них есть сильные ссылки
+    private final Cache<UUID, Link> materialized = Caffeine.newBuilder().weakValues().build();
+    private final List<Consumer<Link>> removalListeners = new CopyOnWriteArrayList<>();
+
+    public MappedLinkRepository(Path directory) throws IOException {
+        this(directory, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param directory каталог рабочих файлов, принадлежащий одному экземпляру
+     * @param clock     часы построенных ссылок
+     */
+    public MappedLinkRepository(Path directory, Clock clock) throws IOException {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        Files.createDirectories(directory);
+        this.records = new MappedRegion(directory.resolve("links.dat"));
+        this.strings = new MappedRegion(directory.resolve("strings.dat"));
+        this.codeIndex = new OffHeapSlotIndex(directory.resolve("codes.idx"));
+        this.idIndex = new OffHeapSlotIndex(directory.resolve("ids.idx"));
+        this.userIndex = new OffHeapSlotIndex(directory.resolve("users.idx"));
+    }
+
+    @Override
+    public void addRemovalListener(Consumer<Link> listener) {
+        removalListeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    @Override
+    public Optional<Link> findById(UUID id) {
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            int slot = findSlot(id);
+            return slot != NONE ? Optional.of(materialize(slot)) : Optional.empty();
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Link> findByShortCode(String shortCode) {
+        return Optional.ofNullable(findByShortCodeOrNull(shortCode));
+    }
+
+    @Override
+    public Link findByShortCodeOrNull(String shortCode) {
+        byte[] code = shortCode.getBytes(StandardCharsets.UTF_8);
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            int slot = codeIndex.find(shortCode.hashCode(), candidate -> stringEquals(ref(candidate, CODE_REF), code));
+            return slot != NONE ? materialize(slot) : null;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public List<Link> findByUserId(UUID userId) {
+        List<Link> links = new ArrayList<>();
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            int slot = userIndex.find(userId.hashCode(), candidate -> ownedBy(candidate, userId));
+            for (; slot != NONE; slot = records.getInt(position(slot) + NEXT_BY_USER)) {
+                links.add(materialize(slot));
+            }
+        } finally {
+            shared.unlock();
+        }
+        return links;
+    }
+
+    @Override
+    public List<Link> findAll() {
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            List<Link> links = new ArrayList<>(liveCount);
+            for (int slot = 0; slot < highWater; slot++) {
+                if ((records.getByte(position(slot) + FLAGS) & LIVE) != 0) {
+                    links.add(materialize(slot));
+                }
+            }
+            return links;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public Link save(Link link) {
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            store(link);
+        } finally {
+            exclusive.unlock();
+        }
+        return link;
+    }
+
+    @Override
+    public void saveAll(Collection<Link> links) {
+        // Пачка отложенной записи переходов - одна исключительная блокировка на всю пачку
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            links.forEach(this::store);
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    @Override
+    public int saveAllIfPresent(Collection<Link> links) {
+        int saved = 0;
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            for (Link link : links) {
+                if (findSlot(link.getId()) != NONE) {
+                    store(link);
+                    saved++;
+                }
+            }
+        } finally {
+            exclusive.unlock();
+        }
+        return saved;
+    }
+
+    @Override
+    public void delete(UUID id) {
+        Link removed;
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            int slot = findSlot(id);
+            if (slot == NONE) {
+                return;
+            }
+            removed = removalListeners.isEmpty() ? null : materialize(slot);
+            if (!remove(slot)) {
+                // Код перехвачен другой живой ссылкой - подписчиков не трогаем
+                removed = null;
+            }
+            materialized.invalidate(id);
+        } finally {
+            exclusive.unlock();
+        }
+        if (removed != null) {
+            notifyRemoved(removed);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        List<Link> removed = new ArrayList<>();
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            if (!removalListeners.isEmpty()) {
+                collectCodeOwners(removed);
+            }
+            codeIndex.clear();
+            idIndex.clear();
+            userIndex.clear();
+            // Записи и строки не обнуляются: они снова станут живыми только после перезаписи
+            highWater = 0;
+            freeHead = NONE;
+            liveCount = 0;
+            stringTop = 0;
+            garbageStringBytes = 0;
+            materialized.invalidateAll();
+        } finally {
+            exclusive.unlock();
+        }
+        removed.forEach(this::notifyRemoved);
+    }
+
+    @Override
+    public long count() {
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            return liveCount;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /**
+     * Метрики размещения: записи, байты вне кучи и число ссылок, построенных в куче.
+     */
+    public Map<String, Object> getMetrics() {
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("links", liveCount);
+            metrics.put("slots", highWater);
+            metrics.put("recordBytes", (long) highWater * RECORD_BYTES);
+            metrics.put("stringBytes", stringTop);
+            metrics.put("garbageStringBytes", garbageStringBytes);
+            metrics.put("indexBytes", codeIndex.tableBytes() + idIndex.tableBytes() + userIndex.tableBytes());
+            metrics.put("materializedLinks", materialized.estimatedSize());
+            return metrics;
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            materialized.invalidateAll();
+            codeIndex.close();
+            idIndex.close();
+            userIndex.close();
+            records.close();
+            strings.close();
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    private void store(Link link) {
+        int slot = findSlot(link.getId());
+        if (slot != NONE) {
+            writeMutable(position(slot), link);
+        } else {
+            insert(link);
+        }
+        materialized.put(link.getId(), link);
+    }
+
+    private void insert(Link link) {
+        int slot = allocateSlot();
+        long position = position(slot);
+        UUID id = link.getId();
+        UUID userId = link.getUserId();
+        records.putLong(position + ID_MSB, id.getMostSignificantBits());
+        records.putLong(position + ID_LSB, id.getLeastSignificantBits());
+        records.putLong(position + USER_MSB, userId.getMostSignificantBits());
+        records.putLong(position + USER_LSB, userId.getLeastSignificantBits());
+        records.putLong(position + CREATED_AT, link.getCreatedAtMillis());
+        records.putLong(position + EXPIRES_AT, link.getExpiresAtMillis());
+        records.putLong(position + CODE_REF, appendString(link.getShortCode()));
+        records.putLong(position + URL_REF, appendString(link.getOriginalUrl()));
+        records.putLong(position + DESCRIPTION_REF, appendString(link.getDescription()));
+        writeMutable(position, link);
+
+        // Новая ссылка с уже занятым кодом перехватывает его, как put в карту кодов
+        String shortCode = link.getShortCode();
+        byte[] code = shortCode.getBytes(StandardCharsets.UTF_8);
+        int codeHash = shortCode.hashCode();
+        int previous = codeIndex.find(codeHash, candidate -> stringEquals(ref(candidate, CODE_REF), code));
+        if (previous != NONE) {
+            codeIndex.replace(codeHash, previous, slot);
+        } else {
+            codeIndex.add(codeHash, slot);
+        }
+        idIndex.add(id.hashCode(), slot);
+
+        // Новая ссылка становится головой списка пользователя
+        int userHash = userId.hashCode();
+        int head = userIndex.find(userHash, candidate -> ownedBy(candidate, userId));
+        records.putInt(position + PREV_BY_USER, NONE);
+        records.putInt(position + NEXT_BY_USER, head);
+        if (head != NONE) {
+            records.putInt(position(head) + PREV_BY_USER, slot);
+            userIndex.replace(userHash, head, slot);
+        } else {
+            userIndex.add(userHash, slot);
+        }
+        liveCount++;
+    }
+
+    /**
+     * @return true, если индекс кодов потерял запись этой ссылки (код больше не разрешается)
+     */
+    private boolean remove(int slot) {
+        long position = position(slot);
+        UUID id = readUuid(position + ID_MSB);
+        UUID userId = readUuid(position + USER_MSB);
+
+        // Код мог быть переиспользован другой ссылкой - индекс теряет только свою запись
+        long codeRef = ref(slot, CODE_REF);
+        boolean codeReleased = codeIndex.remove(stringHash(codeRef), slot);
+        idIndex.remove(id.hashCode(), slot);
+
+        int prev = records.getInt(position + PREV_BY_USER);
+        int next = records.getInt(position + NEXT_BY_USER);
+        if (prev != NONE) {
+            records.putInt(position(prev) + NEXT_BY_USER, next);
+        } else if (next != NONE) {
+            userIndex.replace(userId.hashCode(), slot, next);
+        } else {
+            userIndex.remove(userId.hashCode(), slot);
+        }
+        if (next != NONE) {
+            records.putInt(position(next) + PREV_BY_USER, prev);
+        }
+
+        garbageStringBytes += stringFootprint(codeRef) + stringFootprint(ref(slot, URL_REF))
+                + stringFootprint(ref(slot, DESCRIPTION_REF));
+        records.putByte(position + FLAGS, (byte) 0);
+        records.putInt(position + NEXT_BY_USER, freeHead);
+        freeHead = slot;
+        liveCount--;
+        return codeReleased;
+    }
+
+    /**
+     * Живые ссылки, которым принадлежит их код в индексе (не перехваченные другой ссылкой).
+     */
+    private void collectCodeOwners(List<Link> owners) {
+        for (int slot = 0; slot < highWater; slot++) {
+            int candidateSlot = slot;
+            if ((records.getByte(position(slot) + FLAGS) & LIVE) != 0
+                    && codeIndex.find(stringHash(ref(slot, CODE_REF)), candidate -> candidate == candidateSlot) == slot) {
+                owners.add(materialize(slot));
+            }
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = records.getInt(position(slot) + NEXT_BY_USER);
+            return slot;
+        }
+        if (highWater == Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("Mapped link storage is full");
+        }
+        records.ensureCapacity(position(highWater + 1));
+        return highWater++;
+    }
+
+    private void writeMutable(long position, Link link) {
+        records.putInt(position + MAX_CLICKS, link.getMaxClicks());
+        records.putInt(position + CURRENT_CLICKS, link.getCurrentClicks());
+        records.putByte(position + FLAGS, (byte) (LIVE | (link.isActive() ? ACTIVE : 0)));
+    }
+
+    private Link materialize(int slot) {
+        UUID id = readUuid(position(slot) + ID_MSB);
+        return materialized.get(id, key -> read(slot, key));
+    }
+
+    private Link read(int slot, UUID id) {
+        long position = position(slot);
+        return Link.restore(
+                id,
+                readUuid(position + USER_MSB),
+                readString(records.getLong(position + URL_REF)),
+                readString(records.getLong(position + CODE_REF)),
+                records.getLong(position + CREATED_AT),
+                records.getLong(position + EXPIRES_AT),
+                records.getInt(position + MAX_CLICKS),
+                records.getInt(position + CURRENT_CLICKS),
+                (records.getByte(position + FLAGS) & ACTIVE) != 0,
+                readString(records.getLong(position + DESCRIPTION_REF)),
+                clock
+        );
+    }
+
+    private int findSlot(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        return idIndex.find(id.hashCode(), candidate -> records.getLong(position(candidate) + ID_MSB) == msb
+                && records.getLong(position(candidate) + ID_LSB) == lsb);
+    }
+
+    private boolean ownedBy(int slot, UUID userId) {
+        long position = position(slot);
+        return records.getLong(position + USER_MSB) == userId.getMostSignificantBits()
+                && records.getLong(position + USER_LSB) == userId.getLeastSignificantBits();
+    }
+
+    private UUID readUuid(long position) {
+        return new UUID(records.getLong(position), records.getLong(position + Long.BYTES));
+    }
+
+    private long ref(int slot, int field) {
+        return records.getLong(position(slot) + field);
+    }
+
+    // Строка: длина в байтах (int) и байты UTF-8; следующая строка начинается с кратного 4 смещения
+    private long appendString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long ref = stringTop;
+        long end = ref + Integer.BYTES + bytes.length;
+        strings.ensureCapacity(end);
+        strings.putInt(ref, bytes.length);
+        strings.putBytes(ref + Integer.BYTES, bytes);
+        stringTop = (end + 3) & ~3L;
+        return ref;
+    }
+
+    private String readString(long ref) {
+        byte[] bytes = new byte[strings.getInt(ref)];
+        strings.getBytes(ref + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringEquals(long ref, byte[] expected) {
+        if (strings.getInt(ref) != expected.length) {
+            return false;
+        }
+        byte[] bytes = new byte[expected.length];
+        strings.getBytes(ref + Integer.BYTES, bytes);
+        return Arrays.equals(bytes, expected);
+    }
+
+    private int stringHash(long ref) {
+        return readString(ref).hashCode();
+    }
+
+    private long stringFootprint(long ref) {
+        return (Integer.BYTES + strings.getInt(ref) + 3) & ~3L;
+    }
+
+    private static long position(int slot) {
+        return (long) slot * RECORD_BYTES;
+    }
+
+    private void notifyRemoved(Link link) {
+        for (Consumer<Link> listener : removalListeners) {
+            listener.accept(link);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.shortener.infra.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Растущая область памяти вне кучи, отображенная на файл кусками по CHUNK_BYTES.
+ *
+ * Адресация - смещением long, поэтому область не ограничена 2 ГБ одного MappedByteBuffer.
+ * Примитивы читаются по смещению, кратному их размеру, и потому никогда не пересекают границу
+ * куска; массивы байтов копируются по кускам. Файл - рабочий: создается пустым и удаляется
+ * при закрытии. Страницы принадлежат страничному кэшу ОС, а не куче и не лимиту direct-памяти.
+ *
+ * Класс не потокобезопасен: рост и запись синхронизирует владелец.
+ */
+final class MappedRegion implements AutoCloseable {
+    static final int CHUNK_BITS = 26;
+    static final long CHUNK_BYTES = 1L << CHUNK_BITS;
+    private static final long CHUNK_MASK = CHUNK_BYTES - 1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+    MappedRegion(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Отображает куски, пока область не вместит bytes байт. Новые байты равны нулю.
+     */
+    void ensureCapacity(long bytes) {
+        try {
+            while ((long) chunks.size() * CHUNK_BYTES < bytes) {
+                // Отображение за концом файла расширяет его (разреженно, без записи нулей)
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, chunks.size() * CHUNK_BYTES, CHUNK_BYTES));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map " + file, e);
+        }
+    }
+
+    long capacity() {
+        return chunks.size() * CHUNK_BYTES;
+    }
+
+    long getLong(long position) {
+        return chunk(position).getLong(offset(position));
+    }
+
+    void putLong(long position, long value) {
+        chunk(position).putLong(offset(position), value);
+    }
+
+    int getInt(long position) {
+        return chunk(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        chunk(position).putInt(offset(position), value);
+    }
+
+    byte getByte(long position) {
+        return chunk(position).get(offset(position));
+    }
+
+    void putByte(long position, byte value) {
+        chunk(position).put(offset(position), value);
+    }
+
+    void getBytes(long position, byte[] target) {
+        int done = 0;
+        while (done < target.length) {
+            ByteBuffer view = chunk(position + done).duplicate();
+            int start = offset(position + done);
+            int length = (int) Math.min(target.length - done, CHUNK_BYTES - start);
+            view.position(start);
+            view.get(target, done, length);
+            done += length;
+        }
+    }
+
+    void putBytes(long position, byte[] source) {
+        int done = 0;
+        while (done < source.length) {
+            ByteBuffer view = chunk(position + done).duplicate();
+            int start = offset(position + done);
+            int length = (int) Math.min(source.length - done, CHUNK_BYTES - start);
+            view.position(start);
+            view.put(source, done, length);
+            done += length;
+        }
+    }
+
+    /**
+     * Обнуляет первые bytes байт (очистка без пересоздания файла).
+     */
+    void zero(long bytes) {
+        byte[] zeros = new byte[8192];
+        for (long position = 0; position < bytes; position += zeros.length) {
+            ByteBuffer view = chunk(position).duplicate();
+            int start = offset(position);
+            view.position(start);
+            view.put(zeros, 0, (int) Math.min(zeros.length, bytes - position));
+        }
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        return chunks.get((int) (position >>> CHUNK_BITS));
+    }
+
+    private static int offset(long position) {
+        return (int) (position & CHUNK_MASK);
+    }
+
+    @Override
+    public void close() {
+        chunks.clear();
+        try {
+            channel.close();
+            // Отображения освобождаются сборщиком; на Linux файл можно удалить и до этого
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Рабочий файл пересоздается при следующем открытии
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.shortener.infra.storage;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+
+import java.util.function.Consumer;
+
+/**
+ * Хранилище ссылок, сообщающее подписчикам об удалении ссылок: кэши ответов и генератор кодов
+ * привязаны к присутствию ссылки в хранилище, а не к слою, через который ее удалили.
+ */
+public interface ObservableLinkRepository extends LinkRepository {
+
+    /**
+     * Регистрирует слушателя, вызываемого после удаления ссылки, владевшей своим коротким кодом
+     * (delete и deleteAll). Если код к этому времени перехватила другая живая ссылка, слушатель
+     * не вызывается: код продолжает разрешаться и не должен освобождаться или сбрасываться.
+     */
+    void addRemovalListener(Consumer<Link> listener);
+}
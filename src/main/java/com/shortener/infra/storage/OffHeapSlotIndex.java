@@ -0,0 +1,187 @@
+package com.shortener.infra.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Хеш-таблица с открытой адресацией вне кучи: хеш ключа -> номер записи в хранилище.
+ *
+ * Ячейка - один long: старшие 32 бита - хеш ключа, младшие - номер записи + 1 (0 - пустая
+ * ячейка). Сами ключи в таблице не хранятся: при совпадении хеша владелец сверяет ключ с записью
+ * через {@link SlotMatcher}, так что сверка почти всегда нужна только для настоящего совпадения.
+ * Пробирование линейное, удаление - обратным сдвигом, без надгробий; при росте таблица
+ * перестраивается по сохраненным хешам, не читая записи.
+ *
+ * Не потокобезопасна: доступ синхронизирует владелец.
+ */
+final class OffHeapSlotIndex implements AutoCloseable {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final double MAX_LOAD = 0.5;
+
+    @FunctionalInterface
+    interface SlotMatcher {
+        boolean matches(int slot);
+    }
+
+    private final Path basePath;
+    private MappedRegion table;
+    private int generation;
+    private long capacity;
+    private long mask;
+    private long size;
+
+    OffHeapSlotIndex(Path basePath) {
+        this.basePath = basePath;
+        this.table = allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return номер записи с этим ключом или -1
+     */
+    int find(int hash, SlotMatcher matcher) {
+        for (long cell = home(hash); ; cell = (cell + 1) & mask) {
+            long entry = table.getLong(cell * Long.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == hash && matcher.matches(slotOf(entry))) {
+                return slotOf(entry);
+            }
+        }
+    }
+
+    /**
+     * Добавляет ключ; владелец гарантирует, что такого ключа в таблице еще нет.
+     */
+    void add(int hash, int slot) {
+        if (size + 1 > capacity * MAX_LOAD) {
+            resize(capacity * 2);
+        }
+        insert(table, mask, entryOf(hash, slot));
+        size++;
+    }
+
+    /**
+     * Перенаправляет ключ с записи oldSlot на newSlot.
+     */
+    void replace(int hash, int oldSlot, int newSlot) {
+        long cell = locate(entryOf(hash, oldSlot));
+        if (cell >= 0) {
+            table.putLong(cell * Long.BYTES, entryOf(hash, newSlot));
+        }
+    }
+
+    boolean remove(int hash, int slot) {
+        long cell = locate(entryOf(hash, slot));
+        if (cell < 0) {
+            return false;
+        }
+        // Обратный сдвиг: поднимаем следующие записи цепочки, которые могут занять освободившуюся ячейку
+        long hole = cell;
+        for (long next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+            long entry = table.getLong(next * Long.BYTES);
+            if (entry == 0) {
+                break;
+            }
+            long home = home((int) (entry >>> 32));
+            // Запись можно сдвинуть в дыру, если ее домашняя ячейка не лежит строго между дырой и ней
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table.putLong(hole * Long.BYTES, entry);
+                hole = next;
+            }
+        }
+        table.putLong(hole * Long.BYTES, 0);
+        size--;
+        return true;
+    }
+
+    void clear() {
+        MappedRegion old = table;
+        table = allocate(INITIAL_CAPACITY);
+        size = 0;
+        old.close();
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return байты таблицы (вне кучи)
+     */
+    long tableBytes() {
+        return capacity * Long.BYTES;
+    }
+
+    @Override
+    public void close() {
+        table.close();
+    }
+
+    private long locate(long entry) {
+        for (long cell = home((int) (entry >>> 32)); ; cell = (cell + 1) & mask) {
+            long current = table.getLong(cell * Long.BYTES);
+            if (current == 0) {
+                return -1;
+            }
+            if (current == entry) {
+                return cell;
+            }
+        }
+    }
+
+    private void resize(long newCapacity) {
+        MappedRegion old = table;
+        long oldCapacity = capacity;
+        MappedRegion grown = allocate(newCapacity);
+        for (long cell = 0; cell < oldCapacity; cell++) {
+            long entry = old.getLong(cell * Long.BYTES);
+            if (entry != 0) {
+                insert(grown, mask, entry);
+            }
+        }
+        old.close();
+    }
+
+    private MappedRegion allocate(long newCapacity) {
+        try {
+            // Два файла по очереди: старая таблица читается, пока строится новая
+            MappedRegion region = new MappedRegion(basePath.resolveSibling(
+                    basePath.getFileName() + "." + (generation++ & 1)));
+            region.ensureCapacity(newCapacity * Long.BYTES);
+            this.table = region;
+            this.capacity = newCapacity;
+            this.mask = newCapacity - 1;
+            return region;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to allocate index " + basePath, e);
+        }
+    }
+
+    private static void insert(MappedRegion region, long mask, long entry) {
+        long cell = spread((int) (entry >>> 32)) & mask;
+        while (region.getLong(cell * Long.BYTES) != 0) {
+            cell = (cell + 1) & mask;
+        }
+        region.putLong(cell * Long.BYTES, entry);
+    }
+
+    private long home(int hash) {
+        return spread(hash) & mask;
+    }
+
+    private static long spread(int hash) {
+        // Перемешивание старших бит в младшие: String.hashCode коротких кодов плохо распределен
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static long entryOf(int hash, int slot) {
+        return ((long) hash << 32) | ((slot + 1) & 0xFFFFFFFFL);
+    }
+
+    private static int slotOf(long entry) {
+        return (int) entry - 1;
+    }
+}
@@ -0,0 +1,248 @@
+package com.shortener.infra.storage;
+
+import com.shortener.core.domain.Link;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Индекс коротких кодов без объекта-ключа на запись: код упаковывается в long и хранится в
+ * таблице с открытой адресацией (long[] ключей и параллельный массив ссылок).
+ *
+ * Упаковка: символ алфавита [0-9A-Za-z-_] - цифра 1..64 в системе счисления 65, код длиной до
+ * {@link #MAX_PACKED_LENGTH} символов дает число меньше 65^10 < 2^61; нулевой цифры нет, поэтому
+ * длина тоже входит в число ("0" и "00" различны), а 0 свободен под пустую ячейку. Коды
+ * длиннее или с другими символами хранятся в обычной карте по строке.
+ *
+ * Чтение идет без блокировки под оптимистичной меткой {@link StampedLock} и повторяется под
+ * блокировкой чтения, если его пересекла запись. Запись, удаление (обратным сдвигом, без
+ * надгробий) и рост таблицы - под блокировкой записи.
+ */
+public final class ShortCodeIndex {
+    public static final int MAX_PACKED_LENGTH = 10;
+    private static final String ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz-_";
+    private static final int RADIX = ALPHABET.length() + 1;
+    // Цифра символа плюс один; 0 - символ не упаковывается
+    private static final byte[] DIGITS = new byte[128];
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.75;
+
+    static {
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            DIGITS[ALPHABET.charAt(i)] = (byte) (i + 1);
+        }
+    }
+
+    // Ключи и ссылки заменяются вместе: читатель видит согласованную пару массивов
+    private static final class Table {
+        final long[] keys;
+        final Link[] links;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.links = new Link[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Link> unpacked = new ConcurrentHashMap<>();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int packedSize;
+
+    /**
+     * @return упакованный код или 0, если код не упаковывается
+     */
+    public static long pack(String code) {
+        int length = code.length();
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return 0;
+        }
+        long packed = 0;
+        for (int i = 0; i < length; i++) {
+            char c = code.charAt(i);
+            int digit = c < 128 ? DIGITS[c] : 0;
+            if (digit == 0) {
+                return 0;
+            }
+            packed = packed * RADIX + digit;
+        }
+        return packed;
+    }
+
+    /**
+     * @return код, упакованный {@link #pack(String)}
+     */
+    public static String unpack(long packed) {
+        char[] chars = new char[MAX_PACKED_LENGTH];
+        int position = chars.length;
+        for (long rest = packed; rest > 0; rest /= RADIX) {
+            chars[--position] = ALPHABET.charAt((int) (rest % RADIX) - 1);
+        }
+        return new String(chars, position, chars.length - position);
+    }
+
+    public Link get(String code) {
+        long key = pack(code);
+        if (key == 0) {
+            return unpacked.get(code);
+        }
+        long stamp = lock.tryOptimisticRead();
+        Link link = find(table, key);
+        if (lock.validate(stamp)) {
+            return link;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(table, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsKey(String code) {
+        return get(code) != null;
+    }
+
+    /**
+     * Связывает код со ссылкой.
+     *
+     * @return ссылка, с которой код был связан до этого, или null
+     */
+    public Link put(String code, Link link) {
+        long key = pack(code);
+        if (key == 0) {
+            return unpacked.put(code, link);
+        }
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int cell = locate(current, key);
+            Link previous = current.links[cell];
+            current.links[cell] = link;
+            if (current.keys[cell] == 0) {
+                current.keys[cell] = key;
+                if (++packedSize > current.keys.length * MAX_LOAD) {
+                    table = grow(current);
+                }
+            }
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Удаляет код, только если он связан со ссылкой id (код мог перейти к другой ссылке).
+     */
+    public boolean remove(String code, UUID id) {
+        long key = pack(code);
+        if (key == 0) {
+            Link link = unpacked.get(code);
+            return link != null && link.getId().equals(id) && unpacked.remove(code, link);
+        }
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int cell = locate(current, key);
+            if (current.keys[cell] == 0 || !current.links[cell].getId().equals(id)) {
+                return false;
+            }
+            // Обратный сдвиг: поднимаем записи цепочки, которые могут занять освободившуюся ячейку
+            int hole = cell;
+            for (int next = (hole + 1) & current.mask; current.keys[next] != 0; next = (next + 1) & current.mask) {
+                int home = home(current.keys[next], current.mask);
+                if (((next - home) & current.mask) >= ((next - hole) & current.mask)) {
+                    current.keys[hole] = current.keys[next];
+                    current.links[hole] = current.links[next];
+                    hole = next;
+                }
+            }
+            current.keys[hole] = 0;
+            current.links[hole] = null;
+            packedSize--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(INITIAL_CAPACITY);
+            packedSize = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        unpacked.clear();
+    }
+
+    public long size() {
+        long stamp = lock.readLock();
+        try {
+            return packedSize + (long) unpacked.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return коды, хранимые строкой (не упаковываются)
+     */
+    public int unpackedSize() {
+        return unpacked.size();
+    }
+
+    /**
+     * @return емкость таблицы упакованных кодов
+     */
+    public int capacity() {
+        return table.keys.length;
+    }
+
+    private static Link find(Table current, long key) {
+        // Таблица никогда не заполнена целиком: пустая ячейка останавливает поиск
+        for (int cell = home(key, current.mask); ; cell = (cell + 1) & current.mask) {
+            long candidate = current.keys[cell];
+            if (candidate == key) {
+                return current.links[cell];
+            }
+            if (candidate == 0) {
+                return null;
+            }
+        }
+    }
+
+    // Ячейка с ключом или пустая ячейка, где он должен быть
+    private static int locate(Table current, long key) {
+        int cell = home(key, current.mask);
+        while (current.keys[cell] != 0 && current.keys[cell] != key) {
+            cell = (cell + 1) & current.mask;
+        }
+        return cell;
+    }
+
+    private static Table grow(Table current) {
+        Table grown = new Table(current.keys.length * 2);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != 0) {
+                int cell = locate(grown, current.keys[i]);
+                grown.keys[cell] = current.keys[i];
+                grown.links[cell] = current.links[i];
+            }
+        }
+        return grown;
+    }
+
+    private static int home(long key, int mask) {
+        // Младшие цифры последовательных кодов COUNTER отличаются мало - перемешиваем все биты
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.shortener.infra.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пул строк в куче без объекта на строку: байты UTF-8 с длиной впереди дописываются в общие
+ * куски byte[] с выравниванием на 4 байта. Ссылка на строку - неотрицательный int: номер куска
+ * и смещение в 4-байтовых единицах, так что пул адресует до 8 ГБ. Строка не пересекает границу
+ * куска; строка длиннее куска получает собственный кусок. Куски меньше порога огромных объектов
+ * G1 (половина региона) и не требуют особого размещения. Удаленные строки не переиспользуются -
+ * их объем учитывает владелец.
+ *
+ * Не потокобезопасен: доступ синхронизирует владелец.
+ */
+final class StringArena {
+    private static final int CHUNK_BITS = 19;
+    private static final int CHUNK_BYTES = 1 << CHUNK_BITS;
+    private static final int UNIT_BITS = CHUNK_BITS - 2;
+    private static final int MAX_CHUNKS = 1 << (Integer.SIZE - 1 - UNIT_BITS);
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private final List<byte[]> chunks = new ArrayList<>();
+    private byte[] current;
+    private int top;
+    private long usedBytes;
+
+    int append(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = (LENGTH_BYTES + bytes.length + 3) & ~3;
+        if (current == null || top + size > current.length) {
+            if (chunks.size() == MAX_CHUNKS) {
+                throw new IllegalStateException("String pool is full");
+            }
+            current = new byte[Math.max(CHUNK_BYTES, size)];
+            chunks.add(current);
+            top = 0;
+        }
+        int ref = (chunks.size() - 1) << UNIT_BITS | top >>> 2;
+        writeLength(current, top, bytes.length);
+        System.arraycopy(bytes, 0, current, top + LENGTH_BYTES, bytes.length);
+        // Собственный кусок длинной строки больше не пополняется
+        top = current.length > CHUNK_BYTES ? current.length : top + size;
+        usedBytes += size;
+        return ref;
+    }
+
+    String read(int ref) {
+        byte[] chunk = chunk(ref);
+        int offset = offset(ref);
+        return new String(chunk, offset + LENGTH_BYTES, readLength(chunk, offset), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return байты строки вместе с длиной и выравниванием
+     */
+    int footprint(int ref) {
+        return (LENGTH_BYTES + readLength(chunk(ref), offset(ref)) + 3) & ~3;
+    }
+
+    void clear() {
+        chunks.clear();
+        current = null;
+        top = 0;
+        usedBytes = 0;
+    }
+
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    long allocatedBytes() {
+        long allocated = 0;
+        for (byte[] chunk : chunks) {
+            allocated += chunk.length;
+        }
+        return allocated;
+    }
+
+    private byte[] chunk(int ref) {
+        return chunks.get(ref >>> UNIT_BITS);
+    }
+
+    private static int offset(int ref) {
+        return (ref & ((1 << UNIT_BITS) - 1)) << 2;
+    }
+
+    private static void writeLength(byte[] chunk, int offset, int length) {
+        chunk[offset] = (byte) (length >>> 24);
+        chunk[offset + 1] = (byte) (length >>> 16);
+        chunk[offset + 2] = (byte) (length >>> 8);
+        chunk[offset + 3] = (byte) length;
+    }
+
+    private static int readLength(byte[] chunk, int offset) {
+        return (chunk[offset] & 0xFF) << 24 | (chunk[offset + 1] & 0xFF) << 16
+                | (chunk[offset + 2] & 0xFF) << 8 | (chunk[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,131 @@
+package com.shortener.infra.storage;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+import com.shortener.core.service.ClickBuffer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Отложенная запись переходов (write-behind). Лимит переходов соблюдается сразу
+ * в памяти ссылки, а в репозиторий изменившиеся ссылки уходят пачками:
+ * при накоплении batchSize ссылок или раз в flushIntervalMillis.
+ * Многие переходы по одной ссылке между сбросами схлопываются в одну запись.
+ */
+public class WriteBehindClickBuffer implements ClickBuffer {
+    private final LinkRepository linkRepository;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService executor;
+
+    private final Map<UUID, Link> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder pendingClicks = new LongAdder();
+    private final LongAdder flushedClicks = new LongAdder();
+    private final LongAdder flushedLinks = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    public WriteBehindClickBuffer(LinkRepository linkRepository, int batchSize, long flushIntervalMillis) {
+        if (batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Batch size and flush interval must be positive");
+        }
+        this.linkRepository = linkRepository;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordClick(Link link) {
+        pendingClicks.increment();
+        if (pending.put(link.getId(), link) == null
+                && pending.size() >= batchSize
+                && flushRequested.compareAndSet(false, true)) {
+            // Сброс по размеру выполняется фоновым потоком, редирект не ждет записи
+            try {
+                executor.execute(this::flush);
+            } catch (RuntimeException e) {
+                // Буфер уже остановлен - изменения запишет финальный сброс
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Link> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        for (UUID id : pending.keySet()) {
+            Link link = pending.remove(id);
+            if (link != null) {
+                batch.add(link);
+            }
+            if (batch.size() >= batchSize) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+        writeBatch(batch);
+
+        flushes.increment();
+        long clicks = pendingClicks.sumThenReset();
+        flushedClicks.add(clicks);
+    }
+
+    /**
+     * Останавливает фоновый сброс и записывает все накопленные изменения.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pendingLinks", pending.size());
+        metrics.put("pendingClicks", pendingClicks.sum());
+        metrics.put("flushes", flushes.sum());
+        metrics.put("flushedLinks", flushedLinks.sum());
+        metrics.put("flushedClicks", flushedClicks.sum());
+        return metrics;
+    }
+
+    private void writeBatch(List<Link> batch) {
+        if (!batch.isEmpty()) {
+            // Удаленную за время ожидания ссылку не воскрешаем: репозиторий проверяет ее наличие
+            // под той же блокировкой, что и запись
+            flushedLinks.add(linkRepository.saveAllIfPresent(batch));
+        }
+    }
+}
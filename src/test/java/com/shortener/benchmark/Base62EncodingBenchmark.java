@@ -0,0 +1,59 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.service.Base62Encoder;
+import com.shortener.support.LegacyBase62Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование MD5-дайджеста в Base62: прежний BigInteger-алгоритм против Base62Encoder.
+ * Аллокации на операцию: добавить -prof gc.
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark="Base62Encoding -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Base62EncodingBenchmark {
+    private static final int DIGESTS = 1024;
+
+    @Param({"7", "12"})
+    public int length;
+
+    private byte[][] digests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        digests = new byte[DIGESTS][16];
+        for (byte[] digest : digests) {
+            random.nextBytes(digest);
+        }
+    }
+
+    @Benchmark
+    public String legacyBigInteger() {
+        return LegacyBase62Encoder.encode(digests[next++ & (DIGESTS - 1)], length);
+    }
+
+    @Benchmark
+    public String longWords() {
+        return Base62Encoder.encode(digests[next++ & (DIGESTS - 1)], length);
+    }
+}
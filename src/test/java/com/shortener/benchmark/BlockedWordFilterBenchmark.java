@@ -0,0 +1,111 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.service.BlockedWordFilter;
+import com.shortener.core.service.ShortCodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность generateCode (RANDOM, 7 символов) со списком запрещенных слов
+ * и без него, плюс сама проверка кода: автомат против наивного цикла contains по всем словам.
+ * Слова - 10k псевдослучайных строк из 4-8 букв (реальный словарь мало что меняет: стоимость
+ * автомата от числа слов не зависит).
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BlockedWordFilter
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockedWordFilterBenchmark {
+    private static final int URLS = 1 << 16;
+    private static final int CODES = 1 << 12;
+
+    @Param({"0", "10000"})
+    public int words;
+
+    private String[] urls;
+    private String[] codes;
+    private List<String> wordList;
+    private BlockedWordFilter filter;
+    private ShortCodeGenerator generator;
+    private final UUID user = UUID.randomUUID();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(20);
+        wordList = new ArrayList<>();
+        for (int i = 0; i < words; i++) {
+            wordList.add(randomString(random, "abcdefghijklmnopqrstuvwxyz", 4 + random.nextInt(5)));
+        }
+        filter = BlockedWordFilter.compile(wordList);
+
+        urls = new String[URLS];
+        for (int i = 0; i < URLS; i++) {
+            urls[i] = "https://example.com/articles/" + i + "?utm_source=newsletter";
+        }
+        codes = new String[CODES];
+        for (int i = 0; i < CODES; i++) {
+            codes[i] = randomString(random, "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", 7);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void newGenerator() {
+        generator = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7);
+        generator.setBlockedWords(filter);
+    }
+
+    @Benchmark
+    public String generateCode() {
+        int index = next++ & (URLS - 1);
+        if (index == 0) {
+            generator.clearCache();
+        }
+        return generator.generateCode(urls[index], user);
+    }
+
+    @Benchmark
+    public boolean automatonCheck() {
+        return filter.matches(codes[next++ & (CODES - 1)]);
+    }
+
+    @Benchmark
+    public boolean naiveContainsCheck() {
+        String code = codes[next++ & (CODES - 1)].toLowerCase(Locale.ROOT);
+        for (String word : wordList) {
+            if (code.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String randomString(SplittableRandom random, String alphabet, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+}
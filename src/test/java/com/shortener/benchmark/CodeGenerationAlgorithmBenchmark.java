@@ -0,0 +1,65 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.service.ShortCodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность generateCode для каждого алгоритма. URL берутся по кругу из заранее
+ * построенного массива; в начале каждого круга кэши генератора очищаются, чтобы вызовы не попадали
+ * в кэш "пользователь + URL", а множество выданных кодов оставалось ограниченным.
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark="CodeGenerationAlgorithm -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodeGenerationAlgorithmBenchmark {
+    private static final int URLS = 1 << 16;
+
+    @Param({"RANDOM", "BASE62", "HASH", "COUNTER", "MURMUR3"})
+    public ShortCodeGenerator.Algorithm algorithm;
+
+    private String[] urls;
+    private ShortCodeGenerator generator;
+    private final UUID user = UUID.randomUUID();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        urls = new String[URLS];
+        for (int i = 0; i < URLS; i++) {
+            urls[i] = "https://example.com/articles/" + i + "?utm_source=newsletter";
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void newGenerator() {
+        generator = new ShortCodeGenerator(algorithm, 7);
+    }
+
+    @Benchmark
+    public String generateCode() {
+        int index = next++ & (URLS - 1);
+        if (index == 0) {
+            generator.clearCache();
+        }
+        return generator.generateCode(urls[index], user);
+    }
+}
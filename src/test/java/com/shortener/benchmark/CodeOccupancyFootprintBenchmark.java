@@ -0,0 +1,78 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.service.CodeOccupancyBitmap;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Память на множество занятых 7-символьных кодов (случайные коды, как у RANDOM):
+ * прежнее ConcurrentHashMap.newKeySet() со строками против CodeOccupancyBitmap.
+ * Замер - прирост занятой кучи после полной сборки мусора.
+ *
+ * Запуск (аргументы необязательны: число кодов для каждого замера; set:N - замер множества строк):
+ * java -Xmx4g -cp ... com.shortener.benchmark.CodeOccupancyFootprintBenchmark set:10000000 10000000 50000000 100000000
+ */
+public class CodeOccupancyFootprintBenchmark {
+    private static final String BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int LENGTH = 7;
+
+    public static void main(String[] args) {
+        String[] runs = args.length > 0
+                ? args
+                : new String[]{"set:10000000", "10000000", "50000000", "100000000"};
+        for (String run : runs) {
+            if (run.startsWith("set:")) {
+                measureSet(Integer.parseInt(run.substring(4)));
+            } else {
+                measureBitmap(Integer.parseInt(run));
+            }
+        }
+    }
+
+    private static void measureSet(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        long before = usedHeap();
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        while (codes.size() < count) {
+            codes.add(randomCode(random));
+        }
+        long bytes = usedHeap() - before;
+        report("ConcurrentHashMap set", count, bytes);
+        codes.clear();
+    }
+
+    private static void measureBitmap(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        long before = usedHeap();
+        CodeOccupancyBitmap codes = new CodeOccupancyBitmap(BASE62, LENGTH);
+        while (codes.size() < count) {
+            codes.add(randomCode(random));
+        }
+        long bytes = usedHeap() - before;
+        report("CodeOccupancyBitmap", count, bytes);
+        System.out.println("  " + codes.getMetrics());
+    }
+
+    private static void report(String name, long count, long bytes) {
+        System.out.printf("%s: %,d codes -> %,d MB (%.1f bytes per code)%n",
+                name, count, bytes / (1024 * 1024), bytes / (double) count);
+    }
+
+    private static String randomCode(SplittableRandom random) {
+        char[] code = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            code[i] = BASE62.charAt(random.nextInt(BASE62.length()));
+        }
+        return new String(code);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,69 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.concurrent.PregeneratedCodePool;
+import com.shortener.infra.concurrent.Threads;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Задержка generateCode (RANDOM) при плотно заполненном пространстве кодов, где генерация
+ * на месте проходит через повторные попытки: без пула и с пулом готовых кодов.
+ * Запросы идут с заданным темпом, чтобы у фонового производителя было время дозаполнять пул.
+ *
+ * Запуск (аргументы необязательны: длина кода, заполнено кодов, запросов, пауза между запросами мкс):
+ * java -cp ... com.shortener.benchmark.CodePoolLatencyBenchmark 3 160000 20000 50
+ */
+public class CodePoolLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int prefilled = args.length > 1 ? Integer.parseInt(args[1]) : 160_000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        long pauseMicros = args.length > 3 ? Long.parseLong(args[3]) : 50;
+
+        run(false, length, prefilled, requests, pauseMicros);
+        run(true, length, prefilled, requests, pauseMicros);
+    }
+
+    private static void run(boolean pooled, int length, int prefilled, int requests, long pauseMicros)
+            throws Exception {
+        ShortCodeGenerator generator = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, length);
+        for (int i = 0; i < prefilled; i++) {
+            generator.generateFreshCode();
+        }
+
+        PregeneratedCodePool pool = null;
+        if (pooled) {
+            pool = new PregeneratedCodePool(generator::generateFreshCode, generator::releaseCode,
+                    10_000, 2_500, 1, Threads.factory("code-pool", false));
+            generator.setCodePool(pool);
+            pool.start();
+            while (pool.getDepth() < 10_000) {
+                Thread.sleep(10);
+            }
+        }
+
+        UUID user = UUID.randomUUID();
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            generator.generateCode("https://example.com/" + i, user);
+            latencies[i] = System.nanoTime() - start;
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(pauseMicros));
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%s: p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%s%n",
+                pooled ? "code pool" : "inline   ",
+                latencies[requests / 2] / 1000.0, latencies[(int) (requests * 0.99)] / 1000.0,
+                latencies[(int) (requests * 0.999)] / 1000.0, latencies[requests - 1] / 1000.0,
+                pooled ? " " + pool.getMetrics() : "");
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.service.ShortCodeGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Конкурентная генерация коротких кодов: несколько потоков создают в сумме totalCodes кодов
+ * для разных URL, после чего проверяется отсутствие дубликатов.
+ * Коды упаковываются в long (Base62, до 10 символов), так что проверка 10M кодов
+ * занимает 80 МБ, а не гигабайты строк.
+ *
+ * Запуск (аргументы: потоки, число кодов, алгоритм, длина кода):
+ * java -Xmx4g -cp ... com.shortener.benchmark.ConcurrentCodeGenerationBenchmark 8 10000000 RANDOM 7
+ */
+public class ConcurrentCodeGenerationBenchmark {
+    private static final String BASE62_CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int totalCodes = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        ShortCodeGenerator.Algorithm algorithm = args.length > 2
+                ? ShortCodeGenerator.Algorithm.valueOf(args[2]) : ShortCodeGenerator.Algorithm.RANDOM;
+        int codeLength = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+
+        ShortCodeGenerator generator = new ShortCodeGenerator(algorithm, codeLength);
+        int perThread = totalCodes / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                UUID user = UUID.randomUUID();
+                long[] codes = new long[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    codes[i] = pack(generator.generateCode("https://example.com/" + thread + "/" + i, user));
+                }
+                return codes;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] all = new long[perThread * threads];
+        int offset = 0;
+        for (Future<long[]> result : results) {
+            long[] codes = result.get();
+            System.arraycopy(codes, 0, all, offset, codes.length);
+            offset += codes.length;
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        Arrays.sort(all);
+        long duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+
+        System.out.printf("%s, %d threads: %d codes in %.1f s (%.0f codes/s), duplicates: %d%n",
+                algorithm, threads, all.length, elapsed / 1e9, all.length / (elapsed / 1e9), duplicates);
+        if (duplicates > 0) {
+            throw new IllegalStateException("Duplicate codes generated: " + duplicates);
+        }
+    }
+
+    /**
+     * Base62-код длиной до 10 символов однозначно укладывается в long (длина в старших битах).
+     */
+    private static long pack(String code) {
+        if (code.length() > 10) {
+            throw new IllegalArgumentException("Code too long to pack: " + code);
+        }
+        long value = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int digit = BASE62_CHARS.indexOf(code.charAt(i));
+            if (digit < 0) {
+                // HASH использует URL-safe Base64: '-' и '_' кодируем за пределами Base62
+                digit = code.charAt(i) == '-' ? 62 : 63;
+            }
+            value = value * 64 + digit;
+        }
+        return ((long) code.length() << 60) | value;
+    }
+}
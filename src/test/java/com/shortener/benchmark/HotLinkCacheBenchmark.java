@@ -0,0 +1,143 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+import com.shortener.infra.storage.CachingLinkRepository;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Воспроизведение Zipf-трассы редиректов перед медленным хранилищем (каждое обращение
+ * к нему стоит storeLatencyMicros). Сравнение с кэшем горячих ссылок и без него;
+ * доля попаданий печатается после прогона.
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=HotLinkCache
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotLinkCacheBenchmark {
+    private static final int TRACE_LENGTH = 1 << 20;
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    @Param({"1000000"})
+    public int links;
+
+    @Param({"1.0"})
+    public double zipfExponent;
+
+    @Param({"20"})
+    public int storeLatencyMicros;
+
+    private LinkRepository repository;
+    private String[] trace;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        InMemoryLinkRepository storage = new SlowRepository(links, storeLatencyMicros);
+        String[] codes = new String[links];
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < links; i++) {
+            codes[i] = "z" + i;
+            storage.save(new Link(UUID.randomUUID(), "https://example.com/" + i, codes[i],
+                    expiresAt, 1_000_000, null));
+        }
+        repository = cacheSize > 0 ? new CachingLinkRepository(storage, cacheSize) : storage;
+
+        ZipfSampler sampler = new ZipfSampler(links, zipfExponent, new Random(42));
+        trace = new String[TRACE_LENGTH];
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            trace[i] = codes[sampler.next()];
+        }
+    }
+
+    @TearDown
+    public void printMetrics() {
+        if (repository instanceof CachingLinkRepository) {
+            System.out.println();
+            System.out.println("cache metrics: " + ((CachingLinkRepository) repository).getMetrics());
+        }
+    }
+
+    @Benchmark
+    public Optional<Link> replay(Cursor cursor) {
+        String code = trace[cursor.next++ & (TRACE_LENGTH - 1)];
+        return repository.findByShortCode(code);
+    }
+
+    /**
+     * Хранилище с задержкой чтения по короткому коду (имитация сетевого или дискового доступа).
+     */
+    private static class SlowRepository extends InMemoryLinkRepository {
+        private final long latencyNanos;
+
+        SlowRepository(int expectedLinks, int latencyMicros) {
+            super(expectedLinks, 0.01);
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        }
+
+        @Override
+        public Optional<Link> findByShortCode(String shortCode) {
+            long deadline = System.nanoTime() + latencyNanos;
+            while (System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return super.findByShortCode(shortCode);
+        }
+    }
+
+    /**
+     * Выборка рангов 0..n-1 с вероятностью, пропорциональной 1/(rank+1)^s.
+     */
+    private static class ZipfSampler {
+        private final double[] cdf;
+        private final Random random;
+
+        ZipfSampler(int n, double exponent, Random random) {
+            this.random = random;
+            this.cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int next() {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cdf.length - 1);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Замер занимаемой памяти на одну ссылку (JOL) и экстраполяция на 10M ссылок.
+ * Экономия от хранения времени в epoch-миллисекундах равна графам двух LocalDateTime
+ * (LocalDateTime + LocalDate + LocalTime каждый) за вычетом разницы между
+ * двумя long и двумя ссылками в полях Link.
+ *
+ * Запуск: main() из IDE или java -cp с тестовым classpath
+ */
+public class LinkFootprintBenchmark {
+    private static final long LINKS = 10_000_000L;
+
+    public static void main(String[] args) {
+        Clock clock = Clock.systemDefaultZone();
+        Link link = new Link(UUID.randomUUID(), "https://example.com/some/path", "abc1234",
+                LocalDateTime.now(clock).plusHours(24), 100, "Footprint", clock);
+
+        ClassLayout layout = ClassLayout.parseClass(Link.class);
+        System.out.println(layout.toPrintable());
+        long referenceSize = layout.fields().stream()
+                .filter(field -> field.name().equals("clock"))
+                .findFirst()
+                .orElseThrow()
+                .size();
+
+        // Собственные объекты ссылки; часы общие для всех ссылок и не учитываются
+        GraphLayout perLink = GraphLayout.parseInstance(link).subtract(GraphLayout.parseInstance(clock));
+
+        // Два LocalDateTime, которые раньше хранились в каждой ссылке
+        GraphLayout temporal = GraphLayout.parseInstance(link.getCreatedAt(), link.getExpiresAt());
+        long fieldDelta = 2L * Long.BYTES - 2L * referenceSize;
+        long savingPerLink = temporal.totalSize() - fieldDelta;
+
+        System.out.printf("Link graph now: %d bytes, %d objects%n", perLink.totalSize(), perLink.totalCount());
+        System.out.printf("Two LocalDateTime graphs: %d bytes, %d objects%n",
+                temporal.totalSize(), temporal.totalCount());
+        System.out.printf("Saving per link: %d bytes (%.1f%% of the old layout)%n",
+                savingPerLink, savingPerLink * 100.0 / (perLink.totalSize() + savingPerLink));
+        System.out.printf("Saving at %,d links: %,d MB%n", LINKS, savingPerLink * LINKS / (1024 * 1024));
+    }
+}
@@ -0,0 +1,83 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность LinkService.getOriginalUrl при конкурентных переходах
+ * по одной "горячей" ссылке в зависимости от числа потоков.
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LinkServiceContention
+ * (один прогон на каждое -t), либо main() этого класса — он проходит по 1, 2, 4, ... потокам.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LinkServiceContentionBenchmark {
+    private static final String HOT_CODE = "hotLink";
+
+    private LinkService linkService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryLinkRepository repository = new InMemoryLinkRepository();
+        linkService = new LinkService(
+                repository,
+                new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7),
+                24,
+                100
+        );
+
+        // Защищенный конструктор не ограничивает лимит в 1 000 000 переходов,
+        // иначе "горячая" ссылка исчерпала бы его за одну итерацию
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(new Link(UUID.randomUUID(), "https://example.com/hot", HOT_CODE,
+                now, now.plusDays(1), Integer.MAX_VALUE, 0, true, "Hot link") {
+        });
+    }
+
+    @Benchmark
+    public String resolveHotLink() {
+        return linkService.getOriginalUrl(HOT_CODE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            run(threads);
+        }
+        run(maxThreads);
+    }
+
+    private static void run(int threads) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LinkServiceContentionBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build();
+        new Runner(options).run();
+    }
+}
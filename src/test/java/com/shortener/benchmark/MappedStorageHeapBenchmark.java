@@ -0,0 +1,115 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+import com.shortener.infra.storage.ColumnarLinkRepository;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.infra.storage.MappedLinkRepository;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Куча и паузы сборщика при N ссылках в хранилище объектов в куче (MEMORY), колоночном
+ * хранилище в куче (COLUMNAR) и вне кучи (MAPPED).
+ *
+ * Хранилище заполняется N ссылками, затем выполняется поток поиска по случайным кодам с
+ * сохранением счетчика (путь редиректа без буфера кликов). Печатается занятая куча после
+ * полной сборки, число и суммарное время сборок на каждом этапе и максимальная задержка поиска.
+ * Режимы запускаются в отдельных JVM, чтобы куча одного не влияла на другой.
+ *
+ * Запуск: java -Xmx... -cp test-classes:classes:deps com.shortener.benchmark.MappedStorageHeapBenchmark
+ *         MEMORY|COLUMNAR|MAPPED [links] [lookups] [dir]
+ */
+public class MappedStorageHeapBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String engine = args.length > 0 ? args[0] : "MAPPED";
+        int links = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 5_000_000;
+        String dir = args.length > 3 ? args[3] : Files.createTempDirectory("mapped-bench").toString();
+
+        Clock clock = Clock.systemDefaultZone();
+        LinkRepository repository;
+        if ("MEMORY".equals(engine)) {
+            repository = new InMemoryLinkRepository(links, 0.01);
+        } else if ("COLUMNAR".equals(engine)) {
+            repository = new ColumnarLinkRepository(clock);
+        } else {
+            repository = new MappedLinkRepository(Paths.get(dir), clock);
+        }
+        long expiresAt = clock.millis() + 86_400_000L;
+        UUID[] users = new UUID[1024];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = UUID.randomUUID();
+        }
+
+        GcSample start = GcSample.now();
+        long fillStart = System.nanoTime();
+        for (int i = 0; i < links; i++) {
+            repository.save(Link.restore(UUID.randomUUID(), users[i & 1023], "https://example.com/articles/" + i,
+                    code(i), clock.millis(), expiresAt, 1_000_000, 0, true, "", clock));
+        }
+        long fillMillis = (System.nanoTime() - fillStart) / 1_000_000;
+        GcSample filled = GcSample.now();
+
+        long maxLookupNanos = 0;
+        long lookupStart = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            long t0 = System.nanoTime();
+            Link link = repository.findByShortCode(code(ThreadLocalRandom.current().nextInt(links))).orElseThrow();
+            link.tryIncrementClicks();
+            repository.save(link);
+            maxLookupNanos = Math.max(maxLookupNanos, System.nanoTime() - t0);
+        }
+        long lookupMillis = (System.nanoTime() - lookupStart) / 1_000_000;
+        GcSample looked = GcSample.now();
+
+        System.gc();
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        System.out.printf("%s, %,d links: fill %,d ms, gc %d collections / %,d ms%n",
+                engine, links, fillMillis, filled.count - start.count, filled.millis - start.millis);
+        System.out.printf("  %,d lookups+save: %,d ms, gc %d collections / %,d ms, max lookup %.1f ms%n",
+                lookups, lookupMillis, looked.count - filled.count, looked.millis - filled.millis,
+                maxLookupNanos / 1e6);
+        System.out.printf("  heap after full gc: %,d MB (%d bytes/link)%n",
+                heapUsed / (1024 * 1024), heapUsed / links);
+        if (repository instanceof ColumnarLinkRepository) {
+            System.out.println("  columns: " + ((ColumnarLinkRepository) repository).getMetrics());
+        }
+        if (repository instanceof MappedLinkRepository) {
+            System.out.println("  off-heap: " + ((MappedLinkRepository) repository).getMetrics());
+            ((MappedLinkRepository) repository).close();
+        }
+    }
+
+    private static String code(int i) {
+        return Integer.toString(i, 36);
+    }
+
+    private static final class GcSample {
+        final long count;
+        final long millis;
+
+        private GcSample(long count, long millis) {
+            this.count = count;
+            this.millis = millis;
+        }
+
+        static GcSample now() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += gc.getCollectionCount();
+                millis += gc.getCollectionTime();
+            }
+            return new GcSample(count, millis);
+        }
+    }
+}
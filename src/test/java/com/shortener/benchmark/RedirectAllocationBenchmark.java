@@ -0,0 +1,104 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.http.RedirectHttpServer;
+import com.shortener.infra.http.RedirectResponseCache;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Аллокации обслуживающего потока на один редирект горячей ссылки: готовые ответы из
+ * RedirectResponseCache против построения ответа на каждый запрос.
+ * Клиент шлет запросы по одному keep-alive соединению, сервер работает с одним потоком,
+ * счетчик выделенной памяти берется у этого потока (com.sun.management.ThreadMXBean).
+ *
+ * Запуск: java -cp ... com.shortener.benchmark.RedirectAllocationBenchmark [запросов]
+ */
+public class RedirectAllocationBenchmark {
+    private static final String HOT_CODE = "hotLink";
+    private static final byte[] REQUEST = ("GET /" + HOT_CODE + " HTTP/1.1\r\nHost: bench\r\n" +
+            "User-Agent: bench\r\nAccept: */*\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        run(false, requests);
+        run(true, requests);
+    }
+
+    private static void run(boolean cached, int requests) throws Exception {
+        InMemoryLinkRepository repository = new InMemoryLinkRepository();
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(new Link(UUID.randomUUID(), "https://example.com/some/fairly/long/landing-page?utm=1",
+                HOT_CODE, now, now.plusDays(1), Integer.MAX_VALUE, 0, true, "Hot link") {
+        });
+        LinkService linkService = new LinkService(repository,
+                new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7), 24, 100);
+
+        try (RedirectHttpServer server = new RedirectHttpServer(linkService, 0, 1, 60_000, false,
+                cached ? new RedirectResponseCache(1000) : null)) {
+            server.start();
+            run(server.getPort(), cached, requests);
+        }
+    }
+
+    private static void run(int port, boolean cached, int requests) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+
+            // Прогрев: JIT и первые ответы
+            exchange(out, in, requests / 4);
+
+            Thread worker = findThread("http-worker-1");
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long allocatedBefore = threads.getThreadAllocatedBytes(worker.getId());
+            long start = System.nanoTime();
+            exchange(out, in, requests);
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(worker.getId()) - allocatedBefore;
+
+            System.out.printf("%s: %.1f bytes allocated per redirect, %.1f us per round trip%n",
+                    cached ? "pre-encoded responses" : "per-request responses",
+                    allocated / (double) requests, elapsed / 1000.0 / requests);
+        }
+    }
+
+    /**
+     * Отправляет запрос и дочитывает ответ до пустой строки (у 302 нет тела).
+     */
+    private static void exchange(OutputStream out, InputStream in, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            out.write(REQUEST);
+            out.flush();
+            int matched = 0;
+            while (matched < 4) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new IllegalStateException("Connection closed");
+                }
+                matched = (b == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+            }
+        }
+    }
+
+    private static Thread findThread(String name) {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(name)) {
+                return thread;
+            }
+        }
+        throw new IllegalStateException("Thread not found: " + name);
+    }
+}
@@ -0,0 +1,170 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.concurrent.Threads;
+import com.shortener.infra.http.RedirectHttpServer;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность HTTP-редиректов при большом числе keep-alive соединений
+ * и блокирующем хранилище (каждый поиск по коду спит backendMillis).
+ * Сравниваются пул платформенных потоков и виртуальные потоки (на Java 21+).
+ *
+ * Клиент - один поток на NIO-селекторе: все соединения держат по одному запросу в полете
+ * и отправляют следующий сразу после ответа.
+ *
+ * Запуск (аргументы необязательны: соединения, задержка хранилища мс, длительность с, потоки пула):
+ * java -cp ... com.shortener.benchmark.RedirectServerConcurrencyBenchmark 10000 5 10 64
+ */
+public class RedirectServerConcurrencyBenchmark {
+    private static final String HOT_CODE = "hotLink";
+    private static final byte[] REQUEST =
+            ("GET /" + HOT_CODE + " HTTP/1.1\r\nHost: bench\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int backendMillis = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        run(false, connections, backendMillis, seconds, workers);
+        if (Threads.isVirtualSupported()) {
+            run(true, connections, backendMillis, seconds, workers);
+        } else {
+            System.out.println("virtual threads: not supported on Java " + Runtime.version().feature());
+        }
+    }
+
+    private static void run(boolean virtual, int connections, int backendMillis, int seconds, int workers)
+            throws Exception {
+        InMemoryLinkRepository repository = new BlockingRepository(backendMillis);
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(new Link(UUID.randomUUID(), "https://example.com/hot", HOT_CODE,
+                now, now.plusDays(1), Integer.MAX_VALUE, 0, true, "Hot link") {
+        });
+        LinkService linkService = new LinkService(repository,
+                new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7), 24, 100);
+
+        try (RedirectHttpServer server = new RedirectHttpServer(linkService, 0, workers, 60_000, virtual)) {
+            server.start();
+            long[] result = drive(server.getPort(), connections, TimeUnit.SECONDS.toNanos(seconds));
+            System.out.printf("%s: connections=%d backend=%dms -> %d redirects in %ds (%.0f req/s), " +
+                            "connections served=%d%n",
+                    virtual ? "virtual threads" : "platform pool(" + workers + ")",
+                    connections, backendMillis, result[0], seconds, result[0] / (double) seconds, result[1]);
+        }
+    }
+
+    /**
+     * @return {число ответов, число соединений, получивших хотя бы один ответ}
+     */
+    private static long[] drive(int port, int connections, long durationNanos) throws IOException {
+        InetSocketAddress address = new InetSocketAddress("localhost", port);
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.connect(address);
+                channel.configureBlocking(false);
+                channel.write(ByteBuffer.wrap(REQUEST));
+                channel.register(selector, SelectionKey.OP_READ, new ClientState());
+            }
+
+            long responses = 0;
+            long deadline = System.nanoTime() + durationNanos;
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (System.nanoTime() < deadline) {
+                selector.select(100);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    ClientState state = (ClientState) key.attachment();
+                    buffer.clear();
+                    if (channel.read(buffer) < 0) {
+                        key.cancel();
+                        channel.close();
+                        continue;
+                    }
+                    // Ответ 302 без тела заканчивается пустой строкой
+                    int completed = state.consume(buffer);
+                    if (completed > 0) {
+                        responses += completed;
+                        state.served = true;
+                        channel.write(ByteBuffer.wrap(REQUEST));
+                    }
+                }
+            }
+
+            long served = 0;
+            for (SelectionKey key : selector.keys()) {
+                if (((ClientState) key.attachment()).served) {
+                    served++;
+                }
+                key.channel().close();
+            }
+            return new long[]{responses, served};
+        }
+    }
+
+    private static class ClientState {
+        // Сколько байт разделителя \r\n\r\n уже совпало
+        int matched;
+        boolean served;
+
+        int consume(ByteBuffer buffer) {
+            int completed = 0;
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if ((matched % 2 == 0 && b == '\r') || (matched % 2 == 1 && b == '\n')) {
+                    if (++matched == 4) {
+                        completed++;
+                        matched = 0;
+                    }
+                } else {
+                    matched = b == '\r' ? 1 : 0;
+                }
+            }
+            return completed;
+        }
+    }
+
+    /**
+     * Хранилище с блокирующим поиском по коду (имитация синхронного драйвера БД).
+     */
+    private static class BlockingRepository extends InMemoryLinkRepository {
+        private final long latencyMillis;
+
+        BlockingRepository(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Optional<Link> findByShortCode(String shortCode) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.findByShortCode(shortCode);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ResolveResult;
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение пропускной способности промахов: getOriginalUrl (исключения)
+ * против resolve (предсозданные результаты).
+ * NOT_FOUND — сканирование случайных кодов, EXPIRED — поток переходов по просроченным ссылкам,
+ * REDIRECT — успешные переходы по живым ссылкам (путь попадания).
+ * Профилировщик GC печатает gc.alloc.rate.norm - байты на операцию; для resolve он должен
+ * быть нулевым при любом исходе.
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ResolveMiss
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolveMissBenchmark {
+    private static final int CODES = 4096;
+    private static final String BASE62_CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    @Param({"NOT_FOUND", "EXPIRED", "REDIRECT"})
+    public String outcome;
+
+    private LinkService linkService;
+    private String[] codes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        InMemoryLinkRepository repository = new InMemoryLinkRepository();
+        linkService = new LinkService(
+                repository,
+                new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7),
+                24,
+                100
+        );
+
+        Clock clock = Clock.systemDefaultZone();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        codes = new String[CODES];
+        for (int i = 0; i < CODES; i++) {
+            char[] code = new char[7];
+            for (int j = 0; j < code.length; j++) {
+                code[j] = BASE62_CHARS.charAt(random.nextInt(BASE62_CHARS.length()));
+            }
+            codes[i] = new String(code);
+
+            if ("EXPIRED".equals(outcome)) {
+                repository.save(new Link(UUID.randomUUID(), "https://example.com/" + i, codes[i],
+                        now.minusHours(2), now.minusHours(1), 100, 0, true, "Expired") {
+                });
+            } else if ("REDIRECT".equals(outcome)) {
+                // Лимит без проверки восстановления: переходы не исчерпают его за время замера
+                repository.save(Link.restore(UUID.randomUUID(), UUID.randomUUID(), "https://example.com/" + i,
+                        codes[i], clock.millis(), clock.millis() + 86_400_000L, Integer.MAX_VALUE, 0, true,
+                        "", clock));
+            }
+        }
+    }
+
+    private String nextCode() {
+        String code = codes[next];
+        next = (next + 1) & (CODES - 1);
+        return code;
+    }
+
+    @Benchmark
+    public Object throwingApi() {
+        try {
+            return linkService.getOriginalUrl(nextCode());
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ResolveResult resolveApi() {
+        return linkService.resolve(nextCode());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResolveMissBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
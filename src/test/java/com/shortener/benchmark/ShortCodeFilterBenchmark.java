@@ -0,0 +1,112 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findByShortCode на нагрузке из промахов: 95% запросов — случайные несуществующие коды (боты),
+ * 5% — существующие. Сравнение репозитория с фильтром промахов и без него.
+ * Каждый запрос строит новую строку кода, как это происходит при разборе входящего запроса
+ * (хеш строки не закэширован).
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ShortCodeFilter
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortCodeFilterBenchmark {
+    private static final int LOOKUPS = 1 << 16;
+    private static final String BASE62_CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    @Param({"true", "false"})
+    public boolean filterEnabled;
+
+    @Param({"1000000"})
+    public int links;
+
+    private InMemoryLinkRepository repository;
+    private char[][] lookups;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        repository = filterEnabled
+                ? new InMemoryLinkRepository(links, 0.01)
+                : new InMemoryLinkRepository(0, 0.01);
+
+        Random random = new Random(42);
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        UUID userId = UUID.randomUUID();
+        String[] existing = new String[Math.min(links, LOOKUPS)];
+        for (int i = 0; i < links; i++) {
+            String code = randomCode(random);
+            repository.save(new Link(userId, "https://example.com/" + i, code, expiresAt, 100, null));
+            if (i < existing.length) {
+                existing[i] = code;
+            }
+        }
+
+        lookups = new char[LOOKUPS][];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String code = random.nextInt(100) < 5
+                    ? existing[random.nextInt(existing.length)]
+                    : randomCode(random);
+            lookups[i] = code.toCharArray();
+        }
+    }
+
+    @TearDown
+    public void printMetrics() {
+        System.out.println(repository.getShortCodeFilterMetrics());
+    }
+
+    @Benchmark
+    public Optional<Link> findByShortCode(Cursor cursor) {
+        String code = new String(lookups[cursor.next]);
+        cursor.next = (cursor.next + 1) & (LOOKUPS - 1);
+        return repository.findByShortCode(code);
+    }
+
+    private static String randomCode(Random random) {
+        char[] code = new char[7];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = BASE62_CHARS.charAt(random.nextInt(BASE62_CHARS.length()));
+        }
+        return new String(code);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ShortCodeFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.ShortCodeIndex;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Память и скорость поиска индекса коротких кодов: прежний ConcurrentHashMap&lt;String, UUID&gt;
+ * (STRING_MAP) против упакованных в long кодов (PACKED, {@link ShortCodeIndex}).
+ *
+ * Для STRING_MAP печатаются две цифры: вместе с объектами String и UUID (если индекс владеет ими
+ * сам) и только узлы и таблица карты (в репозитории код и id принадлежат ссылке). PACKED хранит
+ * ссылки на одну общую Link, так что считается только таблица. Поиск - по случайным
+ * существующим кодам; строка запроса строится на каждый поиск, как при разборе HTTP-запроса.
+ * Коды - 7 символов Base62. Каждый размер и режим - в отдельной JVM.
+ *
+ * Запуск: java -Xmx... -cp test-classes:classes:deps com.shortener.benchmark.ShortCodeIndexBenchmark
+ *         STRING_MAP|PACKED entries [lookups]
+ */
+public class ShortCodeIndexBenchmark {
+    private static final String BASE62_CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final long SPACE = 3_521_614_606_208L; // 62^7
+    private static final long SCRAMBLE = 2_654_435_761L;
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "PACKED";
+        int entries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 20_000_000;
+
+        long empty = usedHeap();
+        long perEntry;
+        long mapOnly = -1;
+        Function<String, Object> lookup;
+        if ("STRING_MAP".equals(mode)) {
+            String[] codes = new String[entries];
+            UUID[] ids = new UUID[entries];
+            for (int i = 0; i < entries; i++) {
+                codes[i] = code(i);
+                ids[i] = new UUID(i, i);
+            }
+            long withObjects = usedHeap();
+            Map<String, UUID> map = new ConcurrentHashMap<>();
+            for (int i = 0; i < entries; i++) {
+                map.put(codes[i], ids[i]);
+            }
+            long built = usedHeap();
+            mapOnly = (built - withObjects) / entries;
+            // Без массивов codes и ids: 4 байта ссылки на элемент в каждом
+            perEntry = (built - empty - 8L * entries) / entries;
+            lookup = map::get;
+        } else {
+            Link shared = Link.restore(UUID.randomUUID(), UUID.randomUUID(), "https://example.com", "x",
+                    0, Long.MAX_VALUE, 10, 0, true, "", Clock.systemDefaultZone());
+            ShortCodeIndex index = new ShortCodeIndex();
+            for (int i = 0; i < entries; i++) {
+                index.put(code(i), shared);
+            }
+            perEntry = (usedHeap() - empty) / entries;
+            lookup = index::get;
+        }
+
+        // Прогрев, затем замер
+        int found = runLookups(lookup, entries, lookups / 4);
+        long start = System.nanoTime();
+        found += runLookups(lookup, entries, lookups);
+        double nanosPerLookup = (double) (System.nanoTime() - start) / lookups;
+
+        System.out.printf("%s, %,d entries: %d bytes/entry%s, lookup %.1f ns (%d)%n", mode, entries, perEntry,
+                mapOnly >= 0 ? " (map nodes and table only: " + mapOnly + ")" : "", nanosPerLookup, found);
+    }
+
+    private static int runLookups(Function<String, Object> lookup, int entries, int lookups) {
+        int found = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < lookups; i++) {
+            if (lookup.apply(code(random.nextInt(entries))) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Различные 7-символьные коды: i умножается на нечетное число по модулю 62^7
+    private static String code(int i) {
+        long value = Math.floorMod(i * SCRAMBLE, SPACE);
+        char[] chars = new char[7];
+        for (int j = chars.length - 1; j >= 0; j--) {
+            chars[j] = BASE62_CHARS.charAt((int) (value % 62));
+            value /= 62;
+        }
+        return new String(chars);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,216 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.repository.LinkRepository;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.infra.storage.LinkWriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Время перезапуска долговечного репозитория: проигрывание полного журнала (каждая ссылка
+ * создана и clicks раз сохранена с новым счетчиком) против загрузки снимка с пустым хвостом.
+ *
+ * Журнал и снимок пишутся потоком, без хранилища в памяти: ссылки детерминированы номером,
+ * поэтому снимок строится заново, а куча целиком достается восстановлению. Каждый вариант
+ * восстанавливается дважды: в пустой приемник (чтение, проверка CRC и разбор записей) и в
+ * InMemoryLinkRepository (плюс построение индексов) - разница между ними и есть цена хранилища.
+ *
+ * Запуск (аргументы необязательны: число ссылок, число сохранений переходов на ссылку, каталог):
+ * java -Xmx4g -cp ... com.shortener.benchmark.WalRestartBenchmark 10000000 3 /tmp/wal-restart
+ */
+public class WalRestartBenchmark {
+    private static final int BATCH = 10_000;
+    private static final long ID_SEED = 0x5EED_0000_0000_0000L;
+
+    public static void main(String[] args) throws Exception {
+        int links = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int clicks = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path dir = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("wal-restart");
+        Path wal = dir.resolve("links.wal");
+        Clock clock = Clock.systemDefaultZone();
+        long expiresAt = clock.millis() + 30L * 86_400_000L;
+        UUID user = UUID.randomUUID();
+        deleteRecursively(dir);
+
+        try (LinkWriteAheadLog log = open(wal, clock)) {
+            log.recover(new CountingSink());
+            List<Link> batch = new ArrayList<>(BATCH);
+            for (int start = 0; start < links; start += BATCH) {
+                batch.clear();
+                for (int i = start; i < Math.min(links, start + BATCH); i++) {
+                    batch.add(link(i, user, 0, expiresAt, clock));
+                }
+                log.appendSaveAll(batch);
+                for (int c = 0; c < clicks; c++) {
+                    batch.forEach(Link::tryIncrementClicks);
+                    log.appendSaveAll(batch);
+                }
+            }
+        }
+        System.out.printf("log: %,d links x %d click saves, %,d MB%n", links, clicks, directorySize(dir) >> 20);
+
+        measureRestart("full log replay", wal, clock);
+
+        try (LinkWriteAheadLog log = open(wal, clock)) {
+            log.recover(new CountingSink());
+            long start = System.nanoTime();
+            // Состояние после всех переходов - то же, что дало бы проигрывание журнала
+            log.writeSnapshot(new GeneratedLinks(links, user, clicks, expiresAt, clock), log.rotate());
+            System.out.printf("snapshot written in %,d ms (%,d MB on disk)%n",
+                    (System.nanoTime() - start) / 1_000_000, directorySize(dir) >> 20);
+        }
+
+        measureRestart("snapshot + tail", wal, clock);
+        deleteRecursively(dir);
+    }
+
+    private static void measureRestart(String name, Path wal, Clock clock) throws IOException {
+        System.gc();
+        CountingSink sink = new CountingSink();
+        long start = System.nanoTime();
+        try (LinkWriteAheadLog log = open(wal, clock)) {
+            long records = log.recover(sink);
+            System.out.printf("%s, decode only: %,d records in %,d ms%n",
+                    name, records, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        System.gc();
+        start = System.nanoTime();
+        InMemoryLinkRepository storage = new InMemoryLinkRepository(0, 0);
+        try (LinkWriteAheadLog log = open(wal, clock)) {
+            long records = log.recover(storage);
+            System.out.printf("%s, into memory: %,d links restored from %,d records in %,d ms%n",
+                    name, storage.count(), records, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static LinkWriteAheadLog open(Path wal, Clock clock) throws IOException {
+        return new LinkWriteAheadLog(wal, LinkWriteAheadLog.FsyncPolicy.INTERVAL, 1000, clock);
+    }
+
+    private static Link link(int i, UUID user, int clicks, long expiresAt, Clock clock) {
+        return Link.restore(new UUID(ID_SEED, i), user, "https://example.com/articles/" + i, "c" + i,
+                clock.millis(), expiresAt, 1_000_000, clicks, true, "", clock);
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            Files.createDirectories(dir);
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Ссылки снимка, построенные по номеру во время обхода.
+     */
+    private static final class GeneratedLinks extends AbstractCollection<Link> {
+        private final int links;
+        private final UUID user;
+        private final int clicks;
+        private final long expiresAt;
+        private final Clock clock;
+
+        GeneratedLinks(int links, UUID user, int clicks, long expiresAt, Clock clock) {
+            this.links = links;
+            this.user = user;
+            this.clicks = clicks;
+            this.expiresAt = expiresAt;
+            this.clock = clock;
+        }
+
+        @Override
+        public Iterator<Link> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < links;
+                }
+
+                @Override
+                public Link next() {
+                    return link(next++, user, clicks, expiresAt, clock);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return links;
+        }
+    }
+
+    /**
+     * Приемник восстановления, который только считает записи: ссылки сразу становятся мусором.
+     */
+    private static final class CountingSink implements LinkRepository {
+        private long saved;
+
+        @Override
+        public Optional<Link> findById(UUID id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Link> findByShortCode(String shortCode) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Link> findByUserId(UUID userId) {
+            return List.of();
+        }
+
+        @Override
+        public List<Link> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public Link save(Link link) {
+            saved++;
+            return link;
+        }
+
+        @Override
+        public int saveAllIfPresent(Collection<Link> links) {
+            return 0;
+        }
+
+        @Override
+        public void delete(UUID id) {
+        }
+
+        @Override
+        public void deleteAll() {
+        }
+
+        @Override
+        public long count() {
+            return saved;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.shortener.benchmark;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.infra.storage.JournaledLinkRepository;
+import com.shortener.infra.storage.LinkWriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Пропускная способность save через журнал упреждающей записи для каждой политики fsync.
+ * Четыре потока пишут снимки своих ссылок, как редиректы, сохраняющие счетчик переходов;
+ * MEMORY - репозиторий без журнала для сравнения. Журнал пишется во временный каталог
+ * (-Djava.io.tmpdir, чтобы измерить другой диск).
+ *
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WriteAheadLog
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class WriteAheadLogBenchmark {
+
+    @Param({"MEMORY", "ALWAYS", "GROUP", "INTERVAL"})
+    public String policy;
+
+    private Path dir;
+    private InMemoryLinkRepository memory;
+    private JournaledLinkRepository journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        memory = new InMemoryLinkRepository();
+        if (!"MEMORY".equals(policy)) {
+            dir = Files.createTempDirectory("wal-benchmark");
+            journal = new JournaledLinkRepository(memory, new LinkWriteAheadLog(dir.resolve("links.wal"),
+                    LinkWriteAheadLog.FsyncPolicy.valueOf(policy), 100, Clock.systemDefaultZone()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WriterState {
+        Link link;
+
+        @Setup
+        public void setUp() {
+            String code = UUID.randomUUID().toString().substring(0, 7);
+            link = new Link(UUID.randomUUID(), "https://example.com/articles/" + code, code,
+                    LocalDateTime.now().plusHours(24), 1_000_000, "benchmark");
+        }
+    }
+
+    @Benchmark
+    public Link save(WriterState writer) {
+        return journal != null ? journal.save(writer.link) : memory.save(writer.link);
+    }
+}
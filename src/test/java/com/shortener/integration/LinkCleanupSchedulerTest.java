@@ -4,10 +4,12 @@ import com.shortener.core.domain.Link;
 import com.shortener.core.service.NotificationService;
 import com.shortener.infra.scheduler.LinkCleanupScheduler;
 import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.support.ManualClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -108,6 +110,28 @@ class LinkCleanupSchedulerTest {
         assertTrue(repository.findByShortCode("active123").isPresent());
     }
 
+    @Test
+    void testCleanupOnVirtualTime() throws Exception {
+        ManualClock clock = new ManualClock();
+        LinkCleanupScheduler virtualScheduler = new LinkCleanupScheduler(
+                repository, notificationService, true, 1, clock);
+
+        Link link = new Link(UUID.randomUUID(), "https://example.com", "virtual1",
+                LocalDateTime.now(clock).plusHours(24), 10, "Virtual", clock);
+        repository.save(link);
+
+        Method method = LinkCleanupScheduler.class.getDeclaredMethod("cleanupExpiredLinks");
+        method.setAccessible(true);
+
+        clock.advance(Duration.ofHours(23));
+        method.invoke(virtualScheduler);
+        assertTrue(repository.findByShortCode("virtual1").isPresent());
+
+        clock.advance(Duration.ofHours(2));
+        method.invoke(virtualScheduler);
+        assertFalse(repository.findByShortCode("virtual1").isPresent());
+    }
+
     // Helper method to create Link for testing with custom timestamps
     private Link createLinkForTest(UUID userId, String originalUrl, String shortCode,
                                    LocalDateTime createdAt, LocalDateTime expiresAt,
@@ -0,0 +1,80 @@
+package com.shortener.integration;
+
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.support.CodeGeneratorNode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Несколько JVM одновременно арендуют номера узлов в общем каталоге и генерируют коды:
+ * коды всех процессов должны быть глобально уникальны.
+ */
+class MultiNodeCodeGenerationTest {
+    private static final int NODES = 4;
+    private static final int CODES_PER_NODE = 20_000;
+
+    @TempDir
+    Path leaseDir;
+
+    @ParameterizedTest
+    @EnumSource(value = ShortCodeGenerator.Algorithm.class, names = {"RANDOM", "MURMUR3", "COUNTER"})
+    void testProcessesGenerateDisjointCodes(ShortCodeGenerator.Algorithm algorithm) throws Exception {
+        // 62^4 ~ 14.8M кодов: без разделения 80k случайных кодов четырех процессов дали бы
+        // сотни совпадений, а счетчики с нуля - полностью одинаковые коды
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            processes.add(new ProcessBuilder(javaBinary(), "-cp", testClassPath(),
+                    CodeGeneratorNode.class.getName(), leaseDir.toString(), String.valueOf(NODES),
+                    algorithm.name(), "4", String.valueOf(CODES_PER_NODE))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+
+        Set<String> nodeIds = new HashSet<>();
+        Set<String> codes = new HashSet<>();
+        int total = 0;
+        for (Process process : processes) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII))) {
+                nodeIds.add(reader.readLine());
+                String code;
+                while ((code = reader.readLine()) != null) {
+                    codes.add(code);
+                    total++;
+                }
+            }
+            assertTrue(process.waitFor(60, TimeUnit.SECONDS), "Node process did not finish");
+            assertEquals(0, process.exitValue());
+        }
+
+        assertEquals(Set.of("node 0", "node 1", "node 2", "node 3"), nodeIds);
+        assertEquals(NODES * CODES_PER_NODE, total);
+        assertEquals(total, codes.size(), "Codes collided across nodes");
+    }
+
+    private static String javaBinary() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static String testClassPath() {
+        // Surefire может запускать тесты через jar-манифест; полный путь он кладет в отдельное свойство
+        String surefirePath = System.getProperty("surefire.test.class.path");
+        return surefirePath != null && !surefirePath.isEmpty()
+                ? surefirePath
+                : System.getProperty("java.class.path");
+    }
+}
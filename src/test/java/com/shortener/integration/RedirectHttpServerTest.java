@@ -0,0 +1,224 @@
+package com.shortener.integration;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.domain.User;
+import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.http.RedirectHttpServer;
+import com.shortener.infra.http.RedirectResponseCache;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.support.ManualClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectHttpServerTest {
+    private ManualClock clock;
+    private LinkService linkService;
+    private InMemoryLinkRepository repository;
+    private RedirectResponseCache responseCache;
+    private RedirectHttpServer server;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        clock = new ManualClock();
+        repository = new InMemoryLinkRepository();
+        linkService = new LinkService(repository,
+                new ShortCodeGenerator(ShortCodeGenerator.Algorithm.BASE62, 7), 24, 100, clock);
+        user = new User();
+        responseCache = new RedirectResponseCache(100);
+        repository.addRemovalListener(link -> responseCache.evict(link.getShortCode()));
+        server = new RedirectHttpServer(linkService, 0, 4, 2000, false, responseCache);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testRedirectAndKeepAlive() throws IOException {
+        Link link = linkService.createLink(user, "https://example.com/page?x=1", 10, null);
+
+        try (Connection connection = new Connection(server.getPort())) {
+            Response first = connection.get("/" + link.getShortCode());
+            assertEquals(302, first.status);
+            assertEquals("https://example.com/page?x=1", first.headers.get("location"));
+            assertNull(first.headers.get("connection"));
+
+            // Второй запрос по тому же соединению
+            Response second = connection.get("/" + link.getShortCode() + "?utm=1");
+            assertEquals(302, second.status);
+        }
+
+        assertEquals(2, link.getCurrentClicks());
+        assertEquals(2L, server.getMetrics().get("redirects"));
+        assertEquals(1L, responseCache.getEncodes());
+        assertEquals(1L, responseCache.getHits());
+    }
+
+    @Test
+    void testCachedResponseDiesWithLink() throws IOException {
+        Link link = linkService.createLink(user, "https://example.com/old", 10, null);
+
+        try (Connection connection = new Connection(server.getPort())) {
+            assertEquals(302, connection.get("/" + link.getShortCode()).status);
+            assertEquals(1, responseCache.size());
+
+            repository.delete(link.getId());
+
+            assertEquals(0, responseCache.size());
+            assertEquals(404, connection.get("/" + link.getShortCode()).status);
+        }
+    }
+
+    @Test
+    void testHttp10KeepAlive() throws IOException {
+        Link link = linkService.createLink(user, "https://example.com/legacy", 10, null);
+
+        try (Connection connection = new Connection(server.getPort())) {
+            Response response = connection.send("GET /" + link.getShortCode() +
+                    " HTTP/1.0\r\nConnection: keep-alive\r\n\r\n");
+            assertEquals(302, response.status);
+            assertEquals("keep-alive", response.headers.get("connection"));
+            assertEquals("https://example.com/legacy", response.headers.get("location"));
+
+            assertEquals(404, connection.get("/missing1").status);
+        }
+    }
+
+    @Test
+    void testIdleConnectionClosed() throws IOException {
+        server.close();
+        server = new RedirectHttpServer(linkService, 0, 2, 100);
+        server.start();
+
+        try (Connection connection = new Connection(server.getPort())) {
+            assertEquals(404, connection.get("/missing1").status);
+            assertNull(connection.reader.readLine());
+        }
+    }
+
+    @Test
+    void testUnknownCodeReturns404() throws IOException {
+        try (Connection connection = new Connection(server.getPort())) {
+            assertEquals(404, connection.get("/missing1").status);
+            assertEquals(404, connection.get("/").status);
+            assertEquals(404, connection.get("/nested/path").status);
+        }
+    }
+
+    @Test
+    void testExpiredAndExhaustedLinksReturn410() throws IOException {
+        Link limited = linkService.createLink(user, "https://example.com/limited", 1, null);
+        Link expiring = linkService.createLink(user, "https://example.com/expiring", 10, null);
+
+        try (Connection connection = new Connection(server.getPort())) {
+            assertEquals(302, connection.get("/" + limited.getShortCode()).status);
+            assertEquals(410, connection.get("/" + limited.getShortCode()).status);
+
+            clock.advance(Duration.ofHours(25));
+            assertEquals(410, connection.get("/" + expiring.getShortCode()).status);
+        }
+    }
+
+    @Test
+    void testHeadDoesNotCountClick() throws IOException {
+        Link link = linkService.createLink(user, "https://example.com/preview", 1, null);
+
+        try (Connection connection = new Connection(server.getPort())) {
+            for (int i = 0; i < 3; i++) {
+                Response response = connection.send("HEAD /" + link.getShortCode() + " HTTP/1.1\r\nHost: test\r\n\r\n");
+                assertEquals(302, response.status);
+                assertEquals("https://example.com/preview", response.headers.get("location"));
+            }
+            assertEquals(0, link.getCurrentClicks());
+            assertTrue(link.isActive());
+
+            // Единственный разрешенный переход по-прежнему доступен
+            assertEquals(302, connection.get("/" + link.getShortCode()).status);
+            assertEquals(1, link.getCurrentClicks());
+        }
+    }
+
+    @Test
+    void testConnectionCloseHonoured() throws IOException {
+        try (Connection connection = new Connection(server.getPort())) {
+            Response response = connection.send("GET /missing1 HTTP/1.1\r\nHost: test\r\nConnection: close\r\n\r\n");
+            assertEquals(404, response.status);
+            assertEquals("close", response.headers.get("connection"));
+            assertNull(connection.reader.readLine());
+        }
+    }
+
+    @Test
+    void testUnsupportedMethodAndMalformedRequest() throws IOException {
+        try (Connection connection = new Connection(server.getPort())) {
+            assertEquals(405, connection.send("POST /abc HTTP/1.1\r\nHost: test\r\n\r\n").status);
+        }
+        try (Connection connection = new Connection(server.getPort())) {
+            assertEquals(400, connection.send("garbage\r\n\r\n").status);
+        }
+    }
+
+    private static class Response {
+        int status;
+        final Map<String, String> headers = new HashMap<>();
+    }
+
+    private static class Connection implements AutoCloseable {
+        private final Socket socket;
+        private final OutputStream out;
+        final BufferedReader reader;
+
+        Connection(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(5000);
+            out = socket.getOutputStream();
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+        }
+
+        Response get(String target) throws IOException {
+            return send("GET " + target + " HTTP/1.1\r\nHost: test\r\n\r\n");
+        }
+
+        Response send(String request) throws IOException {
+            out.write(request.getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+
+            Response response = new Response();
+            String statusLine = reader.readLine();
+            assertNotNull(statusLine, "Server closed connection");
+            response.status = Integer.parseInt(statusLine.split(" ")[1]);
+            String line;
+            while (!(line = reader.readLine()).isEmpty()) {
+                int colon = line.indexOf(':');
+                response.headers.put(line.substring(0, colon).toLowerCase(), line.substring(colon + 1).trim());
+            }
+            int length = Integer.parseInt(response.headers.getOrDefault("content-length", "0"));
+            for (int i = 0; i < length; i++) {
+                reader.read();
+            }
+            return response;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.shortener.support;
+
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.cluster.NodeLease;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отдельный процесс сервиса для многопроцессных тестов: арендует номер узла в общем каталоге
+ * и печатает сгенерированные коды, по одному в строке (первая строка - номер узла).
+ *
+ * Аргументы: каталог аренды, число узлов, алгоритм, длина кода, число кодов.
+ */
+public final class CodeGeneratorNode {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = Integer.parseInt(args[1]);
+        ShortCodeGenerator.Algorithm algorithm = ShortCodeGenerator.Algorithm.valueOf(args[2]);
+        int codeLength = Integer.parseInt(args[3]);
+        int codes = Integer.parseInt(args[4]);
+
+        try (NodeLease lease = NodeLease.acquire(Paths.get(args[0]), nodeCount)) {
+            // Каждый процесс начинает свой счетчик с нуля: без доли узла коды COUNTER совпали бы
+            ShortCodeGenerator generator = new ShortCodeGenerator(algorithm, codeLength,
+                    new AtomicLong()::getAndAdd, 100, 0, 1000, 0, lease.getPartition());
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+            out.write("node " + lease.getPartition().getNodeId());
+            out.newLine();
+            UUID user = UUID.randomUUID();
+            for (int i = 0; i < codes; i++) {
+                out.write(generator.generateCode("https://example.com/" + i, user));
+                out.newLine();
+            }
+            out.flush();
+        }
+    }
+}
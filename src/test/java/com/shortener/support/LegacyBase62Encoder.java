@@ -0,0 +1,34 @@
+package com.shortener.support;
+
+import java.math.BigInteger;
+
+/**
+ * Прежняя реализация кодирования BASE62 через BigInteger - эталон для проверки совместимости
+ * и базовая линия бенчмарка.
+ */
+public final class LegacyBase62Encoder {
+    private static final String BASE62_CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private LegacyBase62Encoder() {
+    }
+
+    public static String encode(byte[] digest, int codeLength) {
+        BigInteger number = new BigInteger(1, digest);
+
+        StringBuilder code = new StringBuilder();
+        while (number.compareTo(BigInteger.ZERO) > 0 && code.length() < codeLength) {
+            BigInteger[] divmod = number.divideAndRemainder(BigInteger.valueOf(62));
+            code.insert(0, BASE62_CHARS.charAt(divmod[1].intValue()));
+            number = divmod[0];
+        }
+
+        while (code.length() < codeLength) {
+            code.append(BASE62_CHARS.charAt(
+                    (int) (Math.random() * BASE62_CHARS.length())
+            ));
+        }
+
+        return code.substring(0, codeLength);
+    }
+}
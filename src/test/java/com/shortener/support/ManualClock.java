@@ -0,0 +1,53 @@
+package com.shortener.support;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Часы с виртуальным временем для тестов: время стоит на месте,
+ * пока тест явно не сдвинет его через {@link #advance(Duration)}.
+ */
+public class ManualClock extends Clock {
+    private final AtomicLong millis;
+    private final ZoneId zone;
+
+    public ManualClock() {
+        this(Instant.parse("2024-01-15T12:00:00Z"), ZoneId.systemDefault());
+    }
+
+    public ManualClock(Instant start, ZoneId zone) {
+        this(new AtomicLong(start.toEpochMilli()), zone);
+    }
+
+    private ManualClock(AtomicLong millis, ZoneId zone) {
+        this.millis = millis;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        millis.addAndGet(duration.toMillis());
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis.get());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new ManualClock(millis, zone);
+    }
+}
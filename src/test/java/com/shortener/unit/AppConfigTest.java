@@ -98,6 +98,113 @@ class AppConfigTest {
         assertEquals(168, ttl);
     }
 
+    @Test
+    void testGetCounterSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertEquals(1000, config.getCounterBlockSize());
+        assertEquals(7256485113L, config.getCounterScrambleKey());
+    }
+
+    @Test
+    void testGetCodePoolSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertFalse(config.isCodePoolEnabled());
+        assertEquals(10000, config.getCodePoolSize());
+        assertEquals(2500, config.getCodePoolLowWatermark());
+        assertEquals(1, config.getCodePoolProducerThreads());
+    }
+
+    @Test
+    void testGetAdaptiveLengthSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertFalse(config.isAdaptiveCodeLengthEnabled());
+        assertEquals(0.5, config.getCodeLengthGrowthThreshold());
+    }
+
+    @Test
+    void testGetClusterSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertEquals(1, config.getNodeCount());
+        assertEquals(0, config.getNodeId());
+        assertEquals("", config.getNodeLeaseDir());
+    }
+
+    @Test
+    void testGetBlockedWordsFile() {
+        assertEquals("", AppConfig.getInstance().getBlockedWordsFile());
+    }
+
+    @Test
+    void testGetDedupCacheSize() {
+        assertEquals(100_000L, AppConfig.getInstance().getDedupCacheSize());
+    }
+
+    @Test
+    void testGetStorageEngineSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertEquals("MEMORY", config.getStorageEngine());
+        assertEquals("data/links-mapped", config.getMappedStorageDir());
+    }
+
+    @Test
+    void testGetBloomFilterSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertEquals(1_000_000, config.getBloomFilterExpectedLinks());
+        assertEquals(0.01, config.getBloomFilterFalsePositiveRate());
+    }
+
+    @Test
+    void testGetWalSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertFalse(config.isWalEnabled());
+        assertEquals("data/links.wal", config.getWalPath());
+        assertEquals("GROUP", config.getWalFsyncPolicy());
+        assertEquals(100, config.getWalFsyncIntervalMillis());
+        assertEquals(300, config.getWalSnapshotIntervalSeconds());
+    }
+
+    @Test
+    void testGetHotLinkCacheSize() {
+        assertEquals(0, AppConfig.getInstance().getHotLinkCacheSize());
+    }
+
+    @Test
+    void testGetClockSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertEquals("SYSTEM", config.getClockMode());
+        assertEquals(10, config.getClockTickMillis());
+    }
+
+    @Test
+    void testGetClickBufferSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertFalse(config.isClickWriteBehindEnabled());
+        assertEquals(1000, config.getClickBatchSize());
+        assertEquals(1000, config.getClickFlushIntervalMillis());
+    }
+
+    @Test
+    void testGetHttpSettings() {
+        AppConfig config = AppConfig.getInstance();
+
+        assertFalse(config.isHttpEnabled());
+        assertEquals(8080, config.getHttpPort());
+        assertEquals(64, config.getHttpWorkerThreads());
+        assertEquals(5000, config.getHttpKeepAliveTimeoutMillis());
+        assertEquals(100_000, config.getHttpResponseCacheSize());
+        assertTrue(config.isCliEnabled());
+        assertFalse(config.isVirtualThreadsEnabled());
+    }
+
     @Test
     void testGetLoggingLevel() {
         AppConfig config = AppConfig.getInstance();
@@ -0,0 +1,92 @@
+package com.shortener.unit;
+
+import com.shortener.core.service.Base62Encoder;
+import com.shortener.support.LegacyBase62Encoder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base62EncoderTest {
+
+    @Test
+    void testMatchesLegacyEncoding() {
+        Random random = new Random(7);
+        byte[] digest = new byte[16];
+        for (int i = 0; i < 20_000; i++) {
+            random.nextBytes(digest);
+            int length = 1 + random.nextInt(30);
+            assertCompatible(digest, length);
+        }
+    }
+
+    @Test
+    void testMatchesLegacyOnEdgeValues() {
+        byte[][] digests = {
+                new byte[16],
+                bytes("00000000000000000000000000000001"),
+                bytes("0000000000000000000000000000003e"),
+                bytes("0000000000000000ffffffffffffffff"),
+                bytes("ffffffffffffffff0000000000000000"),
+                bytes("ffffffffffffffffffffffffffffffff"),
+                bytes("80000000000000000000000000000000")
+        };
+        for (byte[] digest : digests) {
+            for (int length = 1; length <= 25; length++) {
+                assertCompatible(digest, length);
+            }
+        }
+    }
+
+    @Test
+    void testPaddingIsDeterministic() {
+        byte[] digest = bytes("000000000000000000000000000003e8");
+
+        String first = Base62Encoder.encode(digest, 10);
+        String second = Base62Encoder.encode(digest, 10);
+
+        assertEquals(10, first.length());
+        assertEquals(first, second);
+        assertTrue(first.startsWith("G8"));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encode(new byte[8], 7));
+        assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encode(new byte[16], 0));
+    }
+
+    /**
+     * Прежний алгоритм детерминирован, пока у числа хватает цифр; дальше он добивал код
+     * случайными символами - сравниваются только детерминированные цифры.
+     */
+    private static void assertCompatible(byte[] digest, int length) {
+        String expected = LegacyBase62Encoder.encode(digest, length);
+        String actual = Base62Encoder.encode(digest, length);
+        int digits = base62Digits(new BigInteger(1, digest));
+
+        assertEquals(length, actual.length());
+        int deterministic = Math.min(length, digits);
+        assertEquals(expected.substring(0, deterministic), actual.substring(0, deterministic));
+    }
+
+    private static int base62Digits(BigInteger number) {
+        int digits = 0;
+        BigInteger base = BigInteger.valueOf(62);
+        while (number.signum() > 0) {
+            number = number.divide(base);
+            digits++;
+        }
+        return digits;
+    }
+
+    private static byte[] bytes(String hex) {
+        byte[] result = new byte[hex.length() / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package com.shortener.unit;
+
+import com.shortener.core.service.BlockedWordFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockedWordFilterTest {
+
+    @Test
+    void testMatchesWordAnywhereInCode() {
+        BlockedWordFilter filter = BlockedWordFilter.compile(List.of("bad", "worse"));
+
+        assertTrue(filter.matches("bad1234"));
+        assertTrue(filter.matches("12bad34"));
+        assertTrue(filter.matches("xyzWORSE"));
+        assertFalse(filter.matches("ba1d234"));
+        assertFalse(filter.matches("Xyz1234"));
+        assertEquals(2, filter.size());
+    }
+
+    @Test
+    void testIgnoresCaseAndLeetspeak() {
+        BlockedWordFilter filter = BlockedWordFilter.compile(List.of("Hello", "test"));
+
+        assertTrue(filter.matches("xxHELLOx"));
+        assertTrue(filter.matches("xxh3ll0x"));
+        assertTrue(filter.matches("xxH311Ox"));
+        assertTrue(filter.matches("7e57abcd"));
+        assertFalse(filter.matches("h3ll-0xx"), "Separator breaks the word");
+    }
+
+    @Test
+    void testOverlappingWordsFoundThroughSuffixLinks() {
+        // "she" внутри "ushers" и "he" как суффикс другой ветки бора
+        BlockedWordFilter filter = BlockedWordFilter.compile(List.of("he", "she", "his", "hers"));
+
+        assertTrue(filter.matches("usher"));
+        assertTrue(filter.matches("ahis"));
+        assertTrue(filter.matches("sxhe"));
+        assertFalse(filter.matches("shx"));
+    }
+
+    @Test
+    void testEmptyAndDuplicateWords() {
+        BlockedWordFilter filter = BlockedWordFilter.compile(List.of("", "--", "abc", "ABC", "a8c"));
+
+        assertEquals(1, filter.size());
+        assertFalse(BlockedWordFilter.EMPTY.matches("anything"));
+        assertTrue(BlockedWordFilter.EMPTY.isEmpty());
+    }
+
+    @Test
+    void testAgreesWithNaiveScan() {
+        Random random = new Random(20);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            words.add(randomLetters(random, 2 + random.nextInt(3)));
+        }
+        BlockedWordFilter filter = BlockedWordFilter.compile(words);
+
+        for (int i = 0; i < 20_000; i++) {
+            String code = randomLetters(random, 7);
+            boolean expected = words.stream().anyMatch(code::contains);
+            assertEquals(expected, filter.matches(code), code);
+        }
+    }
+
+    private static String randomLetters(Random random, int length) {
+        // Без l: в фильтре l совпадает с i, и наивный contains дал бы другой ответ
+        String letters = "abcdefghijkmnopqrstuvwxyz";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
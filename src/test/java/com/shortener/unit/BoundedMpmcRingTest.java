@@ -0,0 +1,94 @@
+package com.shortener.unit;
+
+import com.shortener.infra.concurrent.BoundedMpmcRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedMpmcRingTest {
+
+    @Test
+    void testFifoAndCapacity() {
+        BoundedMpmcRing<Integer> ring = new BoundedMpmcRing<>(3);
+        assertEquals(4, ring.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void testConcurrentProducersAndConsumers_NoLossNoDuplicates() throws Exception {
+        BoundedMpmcRing<Integer> ring = new BoundedMpmcRing<>(64);
+        int producers = 4;
+        int perProducer = 50_000;
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers * 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!ring.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            AtomicInteger consumed = new AtomicInteger();
+            for (int c = 0; c < producers; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (consumed.get() < producers * perProducer) {
+                        Integer value = ring.poll();
+                        if (value == null) {
+                            Thread.yield();
+                        } else {
+                            consumed.incrementAndGet();
+                            if (!received.add(value)) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, duplicates.get());
+        assertEquals(producers * perProducer, received.size());
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,118 @@
+package com.shortener.unit;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.CachingLinkRepository;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.support.ManualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingLinkRepositoryTest {
+    private ManualClock clock;
+    private CountingRepository delegate;
+    private CachingLinkRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock();
+        delegate = new CountingRepository();
+        repository = new CachingLinkRepository(delegate, 100, clock);
+    }
+
+    @Test
+    void testRepeatedLookupServedFromCache() {
+        Link link = repository.save(newLink("hot1", 2));
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(link, repository.findByShortCode("hot1").orElseThrow());
+        }
+
+        assertEquals(1, delegate.lookups.get());
+        assertEquals(9L, repository.getMetrics().get("hits"));
+        assertEquals(1L, repository.getMetrics().get("loads"));
+    }
+
+    @Test
+    void testMissesAreNotCached() {
+        assertTrue(repository.findByShortCode("absent").isEmpty());
+        Link link = repository.save(newLink("absent", 2));
+
+        assertEquals(Optional.of(link), repository.findByShortCode("absent"));
+    }
+
+    @Test
+    void testSaveReplacesCachedLink() {
+        Link original = repository.save(newLink("code1", 2));
+        repository.findByShortCode("code1");
+
+        repository.delete(original.getId());
+        Link replacement = repository.save(newLink("code1", 2));
+
+        assertSame(replacement, repository.findByShortCode("code1").orElseThrow());
+    }
+
+    @Test
+    void testDeleteInvalidatesEntry() {
+        Link link = repository.save(newLink("gone1", 2));
+        repository.findByShortCode("gone1");
+
+        repository.delete(link.getId());
+
+        assertTrue(repository.findByShortCode("gone1").isEmpty());
+    }
+
+    @Test
+    void testDeleteAllInvalidatesEntries() {
+        repository.save(newLink("all1", 2));
+        repository.save(newLink("all2", 2));
+        repository.findByShortCode("all1");
+        repository.findByShortCode("all2");
+
+        repository.deleteAll();
+
+        assertTrue(repository.findByShortCode("all1").isEmpty());
+        assertTrue(repository.findByShortCode("all2").isEmpty());
+    }
+
+    @Test
+    void testEntryDoesNotOutliveLink() {
+        repository.save(newLink("ttl1", 2));
+        repository.findByShortCode("ttl1");
+
+        clock.advance(Duration.ofHours(1));
+        repository.findByShortCode("ttl1");
+        assertEquals(1, delegate.lookups.get());
+
+        clock.advance(Duration.ofHours(1).plusMillis(1));
+        repository.findByShortCode("ttl1");
+        assertEquals(2, delegate.lookups.get());
+    }
+
+    @Test
+    void testInvalidSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingLinkRepository(delegate, 0, clock));
+    }
+
+    private Link newLink(String shortCode, int ttlHours) {
+        return new Link(UUID.randomUUID(), "https://example.com/" + shortCode, shortCode,
+                LocalDateTime.now(clock).plusHours(ttlHours), 100, null, clock);
+    }
+
+    private static class CountingRepository extends InMemoryLinkRepository {
+        final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public Link findByShortCodeOrNull(String shortCode) {
+            lookups.incrementAndGet();
+            return super.findByShortCodeOrNull(shortCode);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.shortener.unit;
+
+import com.shortener.infra.clock.CoarseClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoarseClockTest {
+
+    @Test
+    void testMillisCloseToSystemTime() {
+        try (CoarseClock clock = CoarseClock.start(5)) {
+            long diff = Math.abs(System.currentTimeMillis() - clock.millis());
+            assertTrue(diff < 1000, "Coarse time should be close to system time, diff=" + diff);
+            assertEquals(clock.millis() / 1000, clock.instant().toEpochMilli() / 1000);
+        }
+    }
+
+    @Test
+    void testTickerAdvancesTime() throws InterruptedException {
+        try (CoarseClock clock = CoarseClock.start(5)) {
+            long before = clock.millis();
+            long deadline = System.currentTimeMillis() + 2000;
+            while (clock.millis() == before && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(clock.millis() > before, "Ticker should publish new time");
+        }
+    }
+
+    @Test
+    void testWithZoneSharesTicker() {
+        try (CoarseClock clock = CoarseClock.start(10)) {
+            Clock utc = clock.withZone(ZoneOffset.UTC);
+
+            assertEquals(ZoneOffset.UTC, utc.getZone());
+            assertEquals(ZoneId.systemDefault(), clock.getZone());
+            assertSame(clock, clock.withZone(ZoneId.systemDefault()));
+            assertTrue(Math.abs(utc.millis() - clock.millis()) <= clock.getTickMillis());
+        }
+    }
+
+    @Test
+    void testInvalidTickPeriod() {
+        assertThrows(IllegalArgumentException.class, () -> CoarseClock.start(0));
+    }
+}
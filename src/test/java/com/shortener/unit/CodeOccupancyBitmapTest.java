@@ -0,0 +1,134 @@
+package com.shortener.unit;
+
+import com.shortener.core.service.CodeOccupancyBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeOccupancyBitmapTest {
+    private static final String BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    void testAddContainsRemove() {
+        CodeOccupancyBitmap codes = new CodeOccupancyBitmap(BASE62, 7);
+
+        assertTrue(codes.add("abc1234"));
+        assertFalse(codes.add("abc1234"));
+        assertTrue(codes.contains("abc1234"));
+        assertFalse(codes.contains("abc1235"));
+        assertEquals(1, codes.size());
+
+        assertTrue(codes.remove("abc1234"));
+        assertFalse(codes.remove("abc1234"));
+        assertFalse(codes.contains("abc1234"));
+        assertEquals(0, codes.size());
+    }
+
+    @Test
+    void testCodesOutsideSpaceUseFallback() {
+        CodeOccupancyBitmap codes = new CodeOccupancyBitmap(BASE62, 7);
+
+        assertTrue(codes.add("short"));
+        assertTrue(codes.add("abc-_12"));
+        assertTrue(codes.add("abc1234"));
+        assertTrue(codes.contains("short"));
+        assertFalse(codes.add("abc-_12"));
+        assertEquals(3, codes.size());
+        assertEquals(2, codes.getMetrics().get("fallbackCodes"));
+
+        codes.clear();
+        assertEquals(0, codes.size());
+        assertFalse(codes.contains("short"));
+    }
+
+    @Test
+    void testDenseContainerSwitchesToBitmapAndBack() {
+        // 3 символа: одно пространство 62^3 < 2^16, контейнер переходит в карту после 2048 кодов
+        CodeOccupancyBitmap codes = new CodeOccupancyBitmap(BASE62, 3);
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            all.add(code(i, 3));
+            assertTrue(codes.add(all.get(i)));
+        }
+        assertEquals(1L, codes.getMetrics().get("bitmapContainers"));
+        assertTrue(all.stream().allMatch(codes::contains));
+
+        for (int i = 0; i < 4500; i++) {
+            assertTrue(codes.remove(all.get(i)));
+        }
+        assertEquals(0L, codes.getMetrics().get("bitmapContainers"));
+        assertEquals(500, codes.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i >= 4500, codes.contains(all.get(i)));
+        }
+    }
+
+    @Test
+    void testMatchesHashSetOnRandomOperations() {
+        CodeOccupancyBitmap codes = new CodeOccupancyBitmap(BASE62, 4);
+        Set<String> expected = new HashSet<>();
+        Random random = new Random(17);
+
+        for (int i = 0; i < 200_000; i++) {
+            String code = code(random.nextInt(100_000), 4);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(code), codes.remove(code));
+            } else {
+                assertEquals(expected.add(code), codes.add(code));
+            }
+        }
+        assertEquals(expected.size(), codes.size());
+        for (int i = 0; i < 100_000; i++) {
+            String code = code(i, 4);
+            assertEquals(expected.contains(code), codes.contains(code));
+        }
+    }
+
+    @Test
+    void testConcurrentAddsReserveEachCodeOnce() throws Exception {
+        CodeOccupancyBitmap codes = new CodeOccupancyBitmap(BASE62, 7);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    int added = 0;
+                    for (int i = 0; i < 50_000; i++) {
+                        if (codes.add(code(i * 7919L, 7))) {
+                            added++;
+                        }
+                    }
+                    return added;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(50_000, total);
+            assertEquals(50_000, codes.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String code(long value, int length) {
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = BASE62.charAt((int) (value % 62));
+            value /= 62;
+        }
+        return new String(chars);
+    }
+}
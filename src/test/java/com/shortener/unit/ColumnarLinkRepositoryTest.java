@@ -0,0 +1,162 @@
+package com.shortener.unit;
+
+import com.shortener.core.domain.AccessStatus;
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.ColumnarLinkRepository;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarLinkRepositoryTest extends LinkRepositoryContractTest<ColumnarLinkRepository> {
+
+    @Override
+    protected ColumnarLinkRepository createRepository() {
+        return new ColumnarLinkRepository();
+    }
+
+    @Test
+    void testAllFieldsRoundTripThroughColumns() {
+        repository.save(copyOf(testLink, 3, true));
+
+        Link found = repository.findById(testLink.getId()).orElseThrow();
+        assertEquals("abc123", found.getShortCode());
+        assertEquals("https://example.com", found.getOriginalUrl());
+        assertEquals("Test link", found.getDescription());
+        assertEquals(userId, found.getUserId());
+        assertEquals(testLink.getCreatedAtMillis(), found.getCreatedAtMillis());
+        assertEquals(testLink.getExpiresAtMillis(), found.getExpiresAtMillis());
+        assertEquals(3, found.getCurrentClicks());
+        assertEquals(100, found.getMaxClicks());
+        assertTrue(found.isActive());
+    }
+
+    @Test
+    void testUnpackableCodeStoredAsString() {
+        Link custom = new Link(userId, "https://example.com/custom", "my.custom.alias",
+                LocalDateTime.now().plusHours(24), 10, "");
+        repository.save(custom);
+
+        assertEquals(custom.getId(), repository.findByShortCode("my.custom.alias").orElseThrow().getId());
+        repository.delete(custom.getId());
+        assertFalse(repository.findByShortCode("my.custom.alias").isPresent());
+    }
+
+    @Test
+    void testSaveWritesClickStateOfExistingRecord() {
+        repository.save(testLink);
+        repository.save(copyOf(testLink, 7, false));
+
+        Link found = repository.findByShortCode("abc123").orElseThrow();
+        assertEquals(7, found.getCurrentClicks());
+        assertFalse(found.isActive());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void testViewsShareClickStateThroughColumns() {
+        repository.save(copyOf(testLink, 0, true));
+
+        Link first = repository.findByShortCode("abc123").orElseThrow();
+        Link second = repository.findById(testLink.getId()).orElseThrow();
+        assertEquals(AccessStatus.GRANTED, first.tryIncrementClicks());
+        assertEquals(AccessStatus.GRANTED, second.tryIncrementClicks());
+        // Повторный save представления не откатывает переход, засчитанный через другое
+        repository.save(first);
+
+        assertEquals(2, first.getCurrentClicks());
+        assertEquals(2, repository.findByShortCode("abc123").orElseThrow().getCurrentClicks());
+        assertEquals(testLink, first);
+    }
+
+    @Test
+    void testViewOfDeletedLinkDoesNotTouchReusedSlot() {
+        repository.save(copyOf(testLink, 0, true));
+        Link stale = repository.findByShortCode("abc123").orElseThrow();
+        repository.delete(testLink.getId());
+
+        Link reused = Link.restore(UUID.randomUUID(), userId, "https://example2.com", "def456",
+                0, Long.MAX_VALUE, 100, 0, true, "", Clock.systemDefaultZone());
+        repository.save(reused);
+        assertEquals(1, repository.getMetrics().get("slots"));
+
+        // Запись отдана другой ссылке - представление удаленной живет своим состоянием
+        assertEquals(AccessStatus.GRANTED, stale.tryIncrementClicks());
+        assertEquals(1, stale.getCurrentClicks());
+        assertEquals(0, repository.findByShortCode("def456").orElseThrow().getCurrentClicks());
+    }
+
+    @Test
+    void testFreedSlotsAreReused() {
+        repository.save(testLink);
+        repository.save(new Link(userId, "https://example2.com", "def456",
+                LocalDateTime.now().plusHours(24), 10, ""));
+        repository.delete(testLink.getId());
+        repository.save(new Link(userId, "https://example3.com", "ghi789",
+                LocalDateTime.now().plusHours(24), 10, ""));
+
+        Map<String, Object> metrics = repository.getMetrics();
+        assertEquals(2, metrics.get("slots"));
+        assertEquals(1, metrics.get("users"));
+        assertTrue((long) metrics.get("garbageStringBytes") > 0);
+    }
+
+    @Test
+    void testMatchesInMemoryRepositoryUnderRandomOperations() {
+        InMemoryLinkRepository expected = new InMemoryLinkRepository(0, 0.01);
+        List<UUID> users = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<Link> saved = new ArrayList<>();
+        Random random = new Random(42);
+
+        // Больше одной страницы колонок и начальной емкости индексов
+        for (int i = 0; i < 40_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 7 || saved.isEmpty()) {
+                String code = random.nextInt(20) == 0 ? "alias." + random.nextInt(500) : "c" + random.nextInt(20_000);
+                Link link = Link.restore(UUID.randomUUID(), users.get(random.nextInt(users.size())),
+                        "https://example.com/" + i, code, 0, Long.MAX_VALUE, 10, 0, true,
+                        i % 2 == 0 ? "" : "d" + i, Clock.systemDefaultZone());
+                saved.add(link);
+                expected.save(link);
+                repository.save(link);
+            } else {
+                UUID id = saved.get(random.nextInt(saved.size())).getId();
+                expected.delete(id);
+                repository.delete(id);
+            }
+        }
+
+        assertEquals(expected.count(), repository.count());
+        for (Link link : expected.findAll()) {
+            assertEquals(expected.findByShortCode(link.getShortCode()).map(Link::getId),
+                    repository.findByShortCode(link.getShortCode()).map(Link::getId));
+            assertEquals(link.getDescription(), repository.findById(link.getId()).orElseThrow().getDescription());
+        }
+        for (UUID user : users) {
+            assertEquals(idsOf(expected.findByUserId(user)), idsOf(repository.findByUserId(user)));
+        }
+    }
+
+    private static List<UUID> idsOf(List<Link> links) {
+        return links.stream()
+                .map(Link::getId)
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.toList());
+    }
+
+    private static Link copyOf(Link link, int currentClicks, boolean active) {
+        return Link.restore(link.getId(), link.getUserId(), link.getOriginalUrl(), link.getShortCode(),
+                link.getCreatedAtMillis(), link.getExpiresAtMillis(), link.getMaxClicks(), currentClicks,
+                active, link.getDescription(), Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,71 @@
+package com.shortener.unit;
+
+import com.shortener.core.service.CounterCodeEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CounterCodeEncoderTest {
+
+    @Test
+    void testSequentialEncoding() {
+        CounterCodeEncoder encoder = new CounterCodeEncoder(3, 0);
+
+        assertEquals("000", encoder.encode(0));
+        assertEquals("001", encoder.encode(1));
+        assertEquals("00z", encoder.encode(61));
+        assertEquals("010", encoder.encode(62));
+        assertEquals("zzz", encoder.encode(62L * 62 * 62 - 1));
+    }
+
+    @Test
+    void testScrambleIsBijectionOnCodeSpace() {
+        CounterCodeEncoder encoder = new CounterCodeEncoder(2, 42);
+        Set<String> codes = new HashSet<>();
+
+        for (long id = 0; id < encoder.capacity(); id++) {
+            String code = encoder.encode(id);
+            assertEquals(2, code.length());
+            assertTrue(codes.add(code), "Duplicate code " + code);
+            assertEquals(id, encoder.decode(code));
+        }
+    }
+
+    @Test
+    void testScrambledCodesDoNotLookSequential() {
+        CounterCodeEncoder encoder = new CounterCodeEncoder(7, 7256485113L);
+
+        String first = encoder.encode(1000);
+        String second = encoder.encode(1001);
+
+        assertEquals(7, first.length());
+        assertNotEquals(first.substring(0, 6), second.substring(0, 6));
+        assertEquals(1000, encoder.decode(first));
+    }
+
+    @Test
+    void testCodesGrowAfterCapacity() {
+        CounterCodeEncoder encoder = new CounterCodeEncoder(1, 99);
+        Set<String> codes = new HashSet<>();
+
+        for (long id = 0; id < 62 + 62 * 62; id++) {
+            assertTrue(codes.add(encoder.encode(id)));
+        }
+
+        assertEquals(1, encoder.encode(61).length());
+        assertEquals(2, encoder.encode(62).length());
+        assertEquals(3, encoder.encode(62 + 62 * 62).length());
+        assertEquals(62 + 62 * 62, encoder.decode(encoder.encode(62 + 62 * 62)));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new CounterCodeEncoder(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CounterCodeEncoder(11, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CounterCodeEncoder(7, 1).encode(-1));
+        assertThrows(IllegalArgumentException.class, () -> new CounterCodeEncoder(7, 1).decode("abc"));
+    }
+}
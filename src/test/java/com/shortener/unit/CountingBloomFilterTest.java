@@ -0,0 +1,83 @@
+package com.shortener.unit;
+
+import com.shortener.infra.storage.CountingBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("code" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("code" + i));
+        }
+        assertEquals(10_000, filter.approximateElementCount());
+    }
+
+    @Test
+    void testFalsePositiveRateCloseToTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("code" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("miss" + i)) {
+                falsePositives++;
+            }
+        }
+
+        double observed = falsePositives / 100_000.0;
+        assertTrue(observed < 0.03, "Observed false positive rate too high: " + observed);
+        assertEquals(0.01, filter.estimatedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void testRemove() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+
+        filter.add("abc123");
+        filter.add("def456");
+        filter.remove("abc123");
+
+        assertFalse(filter.mightContain("abc123"));
+        assertTrue(filter.mightContain("def456"));
+        assertEquals(1, filter.approximateElementCount());
+    }
+
+    @Test
+    void testClear() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        filter.add("abc123");
+
+        filter.clear();
+
+        assertFalse(filter.mightContain("abc123"));
+        assertEquals(0, filter.approximateElementCount());
+        assertEquals(0.0, filter.estimatedFalsePositiveRate());
+    }
+
+    @Test
+    void testSizing() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000_000, 0.01);
+
+        // ~9.6 бит-счетчиков на элемент при 1%, 4 бита на счетчик
+        assertTrue(filter.getCounterCount() >= 9_585_059);
+        assertEquals(7, filter.getHashFunctions());
+        assertEquals(filter.getCounterCount() / 2, filter.memoryBytes());
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(100, 1.5));
+    }
+}
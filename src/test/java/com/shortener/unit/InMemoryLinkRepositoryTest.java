@@ -2,166 +2,70 @@ package com.shortener.unit;
 
 import com.shortener.core.domain.Link;
 import com.shortener.infra.storage.InMemoryLinkRepository;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-class InMemoryLinkRepositoryTest {
-    private InMemoryLinkRepository repository;
-    private UUID userId;
-    private Link testLink;
-
-    @BeforeEach
-    void setUp() {
-        repository = new InMemoryLinkRepository();
-        userId = UUID.randomUUID();
-
-        testLink = new Link(
-                userId,
-                "https://example.com",
-                "abc123",
-                LocalDateTime.now().plusHours(24),
-                100,
-                "Test link"
-        );
-    }
-
-    @Test
-    void testSaveAndFindById() {
-        repository.save(testLink);
+class InMemoryLinkRepositoryTest extends LinkRepositoryContractTest<InMemoryLinkRepository> {
 
-        Optional<Link> found = repository.findById(testLink.getId());
-        assertTrue(found.isPresent());
-        assertEquals(testLink.getId(), found.get().getId());
+    @Override
+    protected InMemoryLinkRepository createRepository() {
+        return new InMemoryLinkRepository();
     }
 
     @Test
-    void testFindByShortCode() {
+    void testShortCodeFilterAnswersMissesWithoutIndex() {
         repository.save(testLink);
 
-        Optional<Link> found = repository.findByShortCode("abc123");
-        assertTrue(found.isPresent());
-        assertEquals(testLink.getShortCode(), found.get().getShortCode());
-    }
-
-    @Test
-    void testFindByUserId() {
-        repository.save(testLink);
+        assertFalse(repository.findByShortCode("zzz999").isPresent());
+        assertTrue(repository.findByShortCode("abc123").isPresent());
 
-        UUID otherUserId = UUID.randomUUID();
-        Link otherLink = new Link(
-                otherUserId,
-                "https://example2.com",
-                "def456",
-                LocalDateTime.now().plusHours(24),
-                50,
-                "Other link"
-        );
-        repository.save(otherLink);
-
-        List<Link> userLinks = repository.findByUserId(userId);
-        assertEquals(1, userLinks.size());
-        assertEquals(testLink.getId(), userLinks.get(0).getId());
-
-        List<Link> otherUserLinks = repository.findByUserId(otherUserId);
-        assertEquals(1, otherUserLinks.size());
-        assertEquals(otherLink.getId(), otherUserLinks.get(0).getId());
+        Map<String, Object> metrics = repository.getShortCodeFilterMetrics();
+        assertEquals(1L, metrics.get("approximateElementCount"));
+        assertEquals(1L, (long) metrics.get("filteredMisses") + (long) metrics.get("falsePositives"));
+        assertTrue((long) metrics.get("memoryBytes") > 0);
+        assertTrue((double) metrics.get("estimatedFalsePositiveRate") < 0.01);
     }
 
     @Test
-    void testFindAll() {
-        assertEquals(0, repository.findAll().size());
-
+    void testShortCodeFilterUpdatedOnDelete() {
         repository.save(testLink);
-        assertEquals(1, repository.findAll().size());
-
-        Link link2 = new Link(
-                userId,
-                "https://example2.com",
-                "def456",
-                LocalDateTime.now().plusHours(24),
-                50,
-                "Link 2"
-        );
-        repository.save(link2);
-
-        assertEquals(2, repository.findAll().size());
-    }
-
-    @Test
-    void testDelete() {
         repository.save(testLink);
-        assertEquals(1, repository.findAll().size());
-
         repository.delete(testLink.getId());
-        assertEquals(0, repository.findAll().size());
-        assertFalse(repository.findById(testLink.getId()).isPresent());
+
+        assertEquals(0L, repository.getShortCodeFilterMetrics().get("approximateElementCount"));
         assertFalse(repository.findByShortCode("abc123").isPresent());
-    }
 
-    @Test
-    void testDeleteAll() {
         repository.save(testLink);
-
-        Link link2 = new Link(
-                userId,
-                "https://example2.com",
-                "def456",
-                LocalDateTime.now().plusHours(24),
-                50,
-                "Link 2"
-        );
-        repository.save(link2);
-
-        assertEquals(2, repository.findAll().size());
-
-        repository.deleteAll();
-        assertEquals(0, repository.findAll().size());
+        assertTrue(repository.findByShortCode("abc123").isPresent());
     }
 
     @Test
-    void testCount() {
-        assertEquals(0, repository.count());
-
+    void testShortCodeFilterCountsCodeTakeoverOnce() {
+        Link newer = new Link(userId, "https://example.com/other", "abc123",
+                LocalDateTime.now().plusHours(24), 100, "");
         repository.save(testLink);
-        assertEquals(1, repository.count());
-
-        Link link2 = new Link(
-                userId,
-                "https://example2.com",
-                "def456",
-                LocalDateTime.now().plusHours(24),
-                50,
-                "Link 2"
-        );
-        repository.save(link2);
-
-        assertEquals(2, repository.count());
+        repository.save(newer);
+        assertEquals(1L, repository.getShortCodeFilterMetrics().get("approximateElementCount"));
+
+        // Прежняя ссылка уже не владеет кодом - фильтр не трогается
+        repository.delete(testLink.getId());
+        assertTrue(repository.findByShortCode("abc123").isPresent());
+
+        repository.delete(newer.getId());
+        assertEquals(0L, repository.getShortCodeFilterMetrics().get("approximateElementCount"));
     }
 
     @Test
-    void testSaveUpdatesExistingLink() {
-        repository.save(testLink);
+    void testWithoutShortCodeFilter() {
+        InMemoryLinkRepository unfiltered = new InMemoryLinkRepository(0, 0.01);
+        unfiltered.save(testLink);
 
-        // Simulate updating the link
-        Link updatedLink = new Link(
-                testLink.getUserId(),
-                "https://updated.com",
-                testLink.getShortCode(),
-                LocalDateTime.now().plusHours(48),
-                200,
-                "Updated link"
-        );
-        // Note: In real scenario, we would update the existing link object
-        // but for repository test, we test that save overwrites
-
-        repository.save(testLink); // Saving same link again
-        assertEquals(1, repository.count());
+        assertTrue(unfiltered.findByShortCode("abc123").isPresent());
+        assertFalse(unfiltered.findByShortCode("zzz999").isPresent());
+        assertTrue(unfiltered.getShortCodeFilterMetrics().isEmpty());
     }
 }
@@ -0,0 +1,278 @@
+package com.shortener.unit;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.infra.storage.JournaledLinkRepository;
+import com.shortener.infra.storage.LinkWriteAheadLog;
+import com.shortener.support.ManualClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledLinkRepositoryTest {
+    private final ManualClock clock = new ManualClock();
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @EnumSource(LinkWriteAheadLog.FsyncPolicy.class)
+    void testLinksAndClicksSurviveRestart(LinkWriteAheadLog.FsyncPolicy policy) throws Exception {
+        UUID user = UUID.randomUUID();
+        Link kept;
+        Link deleted;
+        try (JournaledLinkRepository repository = open(policy)) {
+            kept = repository.save(newLink(user, "keep123", "Kept"));
+            deleted = repository.save(newLink(user, "gone123", ""));
+            kept.tryIncrementClicks();
+            kept.tryIncrementClicks();
+            repository.save(kept);
+            repository.delete(deleted.getId());
+        }
+
+        InMemoryLinkRepository storage = new InMemoryLinkRepository();
+        try (JournaledLinkRepository repository = open(storage, policy)) {
+            Link restored = repository.findByShortCode("keep123").orElseThrow();
+            assertEquals(kept.getId(), restored.getId());
+            assertEquals(user, restored.getUserId());
+            assertEquals(kept.getOriginalUrl(), restored.getOriginalUrl());
+            assertEquals(kept.getCreatedAtMillis(), restored.getCreatedAtMillis());
+            assertEquals(kept.getExpiresAtMillis(), restored.getExpiresAtMillis());
+            assertEquals(2, restored.getCurrentClicks());
+            assertEquals(5, restored.getMaxClicks());
+            assertEquals("Kept", restored.getDescription());
+            assertTrue(restored.isActive());
+
+            assertTrue(repository.findByShortCode("gone123").isEmpty());
+            assertEquals(List.of(restored), storage.findByUserId(user));
+            assertEquals(4, repository.getRecoveredRecords());
+        }
+    }
+
+    @Test
+    void testDeleteAllIsJournaled() throws Exception {
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            repository.save(newLink(UUID.randomUUID(), "first12", ""));
+            repository.deleteAll();
+            repository.save(newLink(UUID.randomUUID(), "second1", ""));
+        }
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            assertEquals(1, repository.count());
+            assertTrue(repository.findByShortCode("second1").isPresent());
+        }
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws Exception {
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            repository.save(newLink(UUID.randomUUID(), "intact1", ""));
+            repository.save(newLink(UUID.randomUUID(), "broken1", ""));
+        }
+        // Обрываем последнюю запись, как при сбое посреди записи
+        Path wal = dir.resolve("links.wal.000000000001");
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        long truncatedSize = Files.size(wal);
+
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            assertEquals(1, repository.count());
+            assertTrue(repository.findByShortCode("intact1").isPresent());
+            repository.save(newLink(UUID.randomUUID(), "after12", ""));
+        }
+        assertTrue(Files.size(wal) < truncatedSize);
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            assertEquals(2, repository.count());
+        }
+    }
+
+    @Test
+    void testCorruptionBeforeLastSegmentFailsRecovery() throws Exception {
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            repository.save(newLink(UUID.randomUUID(), "first12", ""));
+            repository.save(newLink(UUID.randomUUID(), "second1", ""));
+        }
+        // Перезапуск начинает второй сегмент
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            repository.save(newLink(UUID.randomUUID(), "third12", ""));
+        }
+        // Портим байт внутри первой записи первого сегмента - не обрыв, а потеря данных
+        Path first = dir.resolve("links.wal.000000000001");
+        Path second = dir.resolve("links.wal.000000000002");
+        try (FileChannel channel = FileChannel.open(first, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer body = ByteBuffer.allocate(1);
+            channel.read(body, 20);
+            body.put(0, (byte) ~body.get(0)).rewind();
+            channel.write(body, 20);
+        }
+        long firstSize = Files.size(first);
+        long secondSize = Files.size(second);
+
+        IOException error = assertThrows(IOException.class, () -> open(LinkWriteAheadLog.FsyncPolicy.ALWAYS));
+        assertTrue(error.getMessage().contains(first.getFileName().toString()), error.getMessage());
+        // Ни поврежденный сегмент, ни следующие за ним не отрезаются
+        assertEquals(firstSize, Files.size(first));
+        assertEquals(secondSize, Files.size(second));
+    }
+
+    @Test
+    void testSnapshotReplacesClickHistory() throws Exception {
+        Link link;
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.INTERVAL)) {
+            link = repository.save(newLink(UUID.randomUUID(), "clicks1", ""));
+            for (int i = 0; i < 4; i++) {
+                link.tryIncrementClicks();
+                repository.save(link);
+            }
+            repository.snapshot();
+            // Хвост после снимка
+            link.tryIncrementClicks();
+            repository.save(link);
+            repository.delete(repository.save(newLink(UUID.randomUUID(), "gone123", "")).getId());
+        }
+        assertTrue(Files.exists(dir.resolve("links.wal.snapshot")));
+        assertFalse(Files.exists(dir.resolve("links.wal.000000000001")), "Segment covered by snapshot");
+
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.INTERVAL)) {
+            assertEquals(5, repository.findByShortCode("clicks1").orElseThrow().getCurrentClicks());
+            assertTrue(repository.findByShortCode("gone123").isEmpty());
+            assertEquals(1, repository.count());
+            assertEquals(1L, repository.getMetrics().get("snapshotLinks"));
+            // Ссылка снимка плюс три записи хвоста
+            assertEquals(4, repository.getRecoveredRecords());
+        }
+    }
+
+    @Test
+    void testSnapshotWhileWriting() throws Exception {
+        int writers = 3;
+        int perWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.INTERVAL)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < writers; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        Link link = repository.save(newLink(UUID.randomUUID(), "s" + thread + "x" + i, ""));
+                        link.tryIncrementClicks();
+                        repository.save(link);
+                    }
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                repository.snapshot();
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.INTERVAL)) {
+            assertEquals(writers * perWriter, repository.count());
+            assertTrue(repository.findAll().stream().allMatch(link -> link.getCurrentClicks() == 1));
+        }
+    }
+
+    @Test
+    void testConcurrentGroupCommitSharesFsyncs() throws Exception {
+        int threads = 4;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.GROUP)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        repository.save(newLink(UUID.randomUUID(), "g" + thread + "x" + i, ""));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals((long) threads * perThread, repository.getMetrics().get("records"));
+            assertTrue((long) repository.getMetrics().get("fsyncs") <= threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.GROUP)) {
+            assertEquals(threads * perThread, repository.count());
+        }
+    }
+
+    @Test
+    void testDeleteRacingBatchSaveIsReplayedInApplyOrder() throws Exception {
+        CountDownLatch deleteStarted = new CountDownLatch(1);
+        InMemoryLinkRepository storage = new InMemoryLinkRepository() {
+            @Override
+            public void saveAll(Collection<Link> links) {
+                // Пачка уже в журнале; даем удалению шанс вклиниться до применения к памяти
+                try {
+                    deleteStarted.await(200, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.saveAll(links);
+            }
+        };
+        Link link = newLink(UUID.randomUUID(), "race123", "");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        boolean liveBeforeRestart;
+        try (JournaledLinkRepository repository = open(storage, LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            repository.save(link);
+            Future<?> flush = executor.submit(() -> repository.saveAll(List.of(link)));
+            Thread.sleep(50);
+            deleteStarted.countDown();
+            repository.delete(link.getId());
+            flush.get(5, TimeUnit.SECONDS);
+            liveBeforeRestart = repository.findById(link.getId()).isPresent();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (JournaledLinkRepository repository = open(LinkWriteAheadLog.FsyncPolicy.ALWAYS)) {
+            assertFalse(liveBeforeRestart);
+            assertEquals(liveBeforeRestart, repository.findById(link.getId()).isPresent());
+        }
+    }
+
+    private JournaledLinkRepository open(LinkWriteAheadLog.FsyncPolicy policy) throws Exception {
+        return open(new InMemoryLinkRepository(), policy);
+    }
+
+    private JournaledLinkRepository open(InMemoryLinkRepository storage, LinkWriteAheadLog.FsyncPolicy policy)
+            throws Exception {
+        return new JournaledLinkRepository(storage,
+                new LinkWriteAheadLog(dir.resolve("links.wal"), policy, 10, clock));
+    }
+
+    private Link newLink(UUID user, String code, String description) {
+        LocalDateTime expiresAt = LocalDateTime.now(clock).plus(Duration.ofHours(24));
+        return new Link(user, "https://example.com/" + code, code, expiresAt, 5, description, clock);
+    }
+}
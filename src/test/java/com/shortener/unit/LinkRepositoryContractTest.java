@@ -0,0 +1,245 @@
+package com.shortener.unit;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.ObservableLinkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Общий контракт хранилищ ссылок: каждая реализация наследует эти тесты.
+ */
+abstract class LinkRepositoryContractTest<R extends ObservableLinkRepository> {
+    protected R repository;
+    protected UUID userId;
+    protected Link testLink;
+
+    protected abstract R createRepository() throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = createRepository();
+        userId = UUID.randomUUID();
+
+        testLink = new Link(
+                userId,
+                "https://example.com",
+                "abc123",
+                LocalDateTime.now().plusHours(24),
+                100,
+                "Test link"
+        );
+    }
+
+    @Test
+    void testSaveAndFindById() {
+        repository.save(testLink);
+
+        Optional<Link> found = repository.findById(testLink.getId());
+        assertTrue(found.isPresent());
+        assertEquals(testLink.getId(), found.get().getId());
+    }
+
+    @Test
+    void testFindByShortCode() {
+        repository.save(testLink);
+
+        Optional<Link> found = repository.findByShortCode("abc123");
+        assertTrue(found.isPresent());
+        assertEquals(testLink.getShortCode(), found.get().getShortCode());
+    }
+
+    @Test
+    void testFindByUserId() {
+        repository.save(testLink);
+
+        UUID otherUserId = UUID.randomUUID();
+        Link otherLink = new Link(
+                otherUserId,
+                "https://example2.com",
+                "def456",
+                LocalDateTime.now().plusHours(24),
+                50,
+                "Other link"
+        );
+        repository.save(otherLink);
+
+        List<Link> userLinks = repository.findByUserId(userId);
+        assertEquals(1, userLinks.size());
+        assertEquals(testLink.getId(), userLinks.get(0).getId());
+
+        List<Link> otherUserLinks = repository.findByUserId(otherUserId);
+        assertEquals(1, otherUserLinks.size());
+        assertEquals(otherLink.getId(), otherUserLinks.get(0).getId());
+    }
+
+    @Test
+    void testFindAll() {
+        assertEquals(0, repository.findAll().size());
+
+        repository.save(testLink);
+        assertEquals(1, repository.findAll().size());
+
+        Link link2 = new Link(
+                userId,
+                "https://example2.com",
+                "def456",
+                LocalDateTime.now().plusHours(24),
+                50,
+                "Link 2"
+        );
+        repository.save(link2);
+
+        assertEquals(2, repository.findAll().size());
+    }
+
+    @Test
+    void testDelete() {
+        repository.save(testLink);
+        assertEquals(1, repository.findAll().size());
+
+        repository.delete(testLink.getId());
+        assertEquals(0, repository.findAll().size());
+        assertFalse(repository.findById(testLink.getId()).isPresent());
+        assertFalse(repository.findByShortCode("abc123").isPresent());
+    }
+
+    @Test
+    void testDeleteAll() {
+        repository.save(testLink);
+
+        Link link2 = new Link(
+                userId,
+                "https://example2.com",
+                "def456",
+                LocalDateTime.now().plusHours(24),
+                50,
+                "Link 2"
+        );
+        repository.save(link2);
+
+        assertEquals(2, repository.findAll().size());
+
+        repository.deleteAll();
+        assertEquals(0, repository.findAll().size());
+    }
+
+    @Test
+    void testCount() {
+        assertEquals(0, repository.count());
+
+        repository.save(testLink);
+        assertEquals(1, repository.count());
+
+        Link link2 = new Link(
+                userId,
+                "https://example2.com",
+                "def456",
+                LocalDateTime.now().plusHours(24),
+                50,
+                "Link 2"
+        );
+        repository.save(link2);
+
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void testSaveUpdatesExistingLink() {
+        repository.save(testLink);
+
+        // Simulate updating the link
+        Link updatedLink = new Link(
+                testLink.getUserId(),
+                "https://updated.com",
+                testLink.getShortCode(),
+                LocalDateTime.now().plusHours(48),
+                200,
+                "Updated link"
+        );
+        // Note: In real scenario, we would update the existing link object
+        // but for repository test, we test that save overwrites
+
+        repository.save(testLink); // Saving same link again
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void testRemovalListenerNotifiedOnDelete() {
+        List<String> removed = new ArrayList<>();
+        repository.addRemovalListener(link -> removed.add(link.getShortCode()));
+        repository.save(testLink);
+
+        repository.delete(UUID.randomUUID());
+        assertTrue(removed.isEmpty());
+
+        repository.delete(testLink.getId());
+        assertEquals(List.of("abc123"), removed);
+    }
+
+    @Test
+    void testRemovalListenerNotifiedOnDeleteAll() {
+        List<String> removed = new ArrayList<>();
+        repository.addRemovalListener(link -> removed.add(link.getShortCode()));
+        repository.save(testLink);
+
+        repository.deleteAll();
+
+        assertEquals(List.of("abc123"), removed);
+    }
+
+    @Test
+    void testSharedCodeNotReleasedWhileAnotherLinkOwnsIt() {
+        List<String> released = new ArrayList<>();
+        repository.addRemovalListener(link -> released.add(link.getShortCode()));
+        Link newer = new Link(userId, "https://example.com/other", "abc123",
+                LocalDateTime.now().plusHours(24), 100, "");
+        repository.save(testLink);
+        repository.save(newer);
+
+        // Старая ссылка удаляется, код по-прежнему ведет на новую
+        repository.delete(testLink.getId());
+        assertTrue(released.isEmpty());
+        assertEquals(newer.getId(), repository.findByShortCode("abc123").orElseThrow().getId());
+
+        repository.delete(newer.getId());
+        assertEquals(List.of("abc123"), released);
+    }
+
+    @Test
+    void testDeleteAllReleasesSharedCodeOnce() {
+        List<String> released = new ArrayList<>();
+        repository.addRemovalListener(link -> released.add(link.getShortCode()));
+        repository.save(testLink);
+        repository.save(new Link(userId, "https://example.com/other", "abc123",
+                LocalDateTime.now().plusHours(24), 100, ""));
+
+        repository.deleteAll();
+
+        assertEquals(List.of("abc123"), released);
+    }
+
+    @Test
+    void testSaveAllIfPresentSkipsDeletedLinks() {
+        Link deleted = new Link(userId, "https://example.com/gone", "gone123",
+                LocalDateTime.now().plusHours(24), 100, "");
+        repository.save(testLink);
+        repository.save(deleted);
+        repository.delete(deleted.getId());
+        testLink.tryIncrementClicks();
+
+        assertEquals(1, repository.saveAllIfPresent(List.of(testLink, deleted)));
+
+        assertEquals(1, repository.findById(testLink.getId()).orElseThrow().getCurrentClicks());
+        assertTrue(repository.findById(deleted.getId()).isEmpty());
+        assertTrue(repository.findByShortCode("gone123").isEmpty());
+        assertEquals(1, repository.count());
+    }
+}
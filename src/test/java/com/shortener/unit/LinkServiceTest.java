@@ -3,14 +3,18 @@ package com.shortener.unit;
 import com.shortener.core.domain.Link;
 import com.shortener.core.domain.User;
 import com.shortener.core.exception.AccessDeniedException;
+import com.shortener.core.exception.LinkExpiredException;
 import com.shortener.core.exception.LinkNotFoundException;
 import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ResolveResult;
 import com.shortener.core.service.ShortCodeGenerator;
 import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.support.ManualClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Constructor;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -109,6 +113,59 @@ class LinkServiceTest {
         );
     }
 
+    @Test
+    void testResolve_ReturnsRedirectAndCountsClick() {
+        Link link = linkService.createLink(testUser, "https://example.com", 10, null);
+
+        ResolveResult result = linkService.resolve(link.getShortCode());
+
+        assertEquals(ResolveResult.Status.REDIRECT, result.getStatus());
+        assertEquals("https://example.com", result.getOriginalUrl());
+        assertEquals(1, link.getCurrentClicks());
+    }
+
+    @Test
+    void testResolve_RedirectResultSharedPerLink() {
+        Link link = linkService.createLink(testUser, "https://example.com", 10, null);
+        Link other = linkService.createLink(testUser, "https://example.org", 10, null);
+
+        ResolveResult first = linkService.resolve(link.getShortCode());
+
+        assertSame(first, linkService.resolve(link.getShortCode()));
+        assertEquals("https://example.org", linkService.resolve(other.getShortCode()).getOriginalUrl());
+        assertEquals(2, link.getCurrentClicks());
+    }
+
+    @Test
+    void testResolve_MissesReturnPreallocatedResults() {
+        LocalDateTime now = LocalDateTime.now();
+        Link expiredLink = createTestLink(testUser.getId(), "https://expired.com", "expired123",
+                now.minusHours(2), now.minusHours(1), 10, 0, true, "Expired");
+        Link inactiveLink = createTestLink(testUser.getId(), "https://inactive.com", "inactive1",
+                now.minusHours(1), now.plusHours(1), 10, 0, false, "Inactive");
+        repository.save(expiredLink);
+        repository.save(inactiveLink);
+
+        Link limited = linkService.createLink(testUser, "https://limited.com", 1, null);
+        linkService.resolve(limited.getShortCode());
+
+        assertSame(ResolveResult.NOT_FOUND, linkService.resolve("missing1"));
+        assertSame(ResolveResult.EXPIRED, linkService.resolve("expired123"));
+        assertSame(ResolveResult.INACTIVE, linkService.resolve("inactive1"));
+        assertSame(ResolveResult.LIMIT_REACHED, linkService.resolve(limited.getShortCode()));
+        assertNull(ResolveResult.NOT_FOUND.getOriginalUrl());
+    }
+
+    @Test
+    void testGetOriginalUrl_MapsResolveStatusesToExceptions() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(createTestLink(testUser.getId(), "https://expired.com", "expired123",
+                now.minusHours(2), now.minusHours(1), 10, 0, true, "Expired"));
+
+        assertThrows(LinkNotFoundException.class, () -> linkService.getOriginalUrl("missing1"));
+        assertThrows(LinkExpiredException.class, () -> linkService.getOriginalUrl("expired123"));
+    }
+
     @Test
     void testGetLink_AccessDeniedForOtherUser() {
         Link link = linkService.createLink(
@@ -191,6 +248,27 @@ class LinkServiceTest {
         );
     }
 
+    @Test
+    void testCreateLink_ReusesCodeOnlyWhileLinkIsLive() {
+        ManualClock clock = new ManualClock();
+        LinkService service = new LinkService(repository,
+                new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7), 24, 100, clock);
+
+        Link first = service.createLink(testUser, "https://example.com", null, null);
+        Link second = service.createLink(testUser, "https://example.com", null, null);
+        assertEquals(first.getShortCode(), second.getShortCode());
+
+        // Удаленная ссылка: код больше не выдается по этому URL
+        service.deleteLink(second.getShortCode(), testUser.getId());
+        Link afterDelete = service.createLink(testUser, "https://example.com", null, null);
+        assertNotEquals(first.getShortCode(), afterDelete.getShortCode());
+
+        // Истекшая ссылка, еще не убранная очисткой, - тоже
+        clock.advance(Duration.ofHours(25));
+        Link afterExpiry = service.createLink(testUser, "https://example.com", null, null);
+        assertNotEquals(afterDelete.getShortCode(), afterExpiry.getShortCode());
+    }
+
     @Test
     void testGetUserLinks() {
         // Создаем несколько ссылок для пользователя
@@ -1,11 +1,22 @@
 package com.shortener.unit;
 
 import com.shortener.core.domain.Link;
+import com.shortener.support.ManualClock;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Constructor;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,7 +40,8 @@ class LinkTest {
         assertEquals(userId, link.getUserId());
         assertEquals("https://example.com", link.getOriginalUrl());
         assertEquals("abc123", link.getShortCode());
-        assertEquals(expiresAt, link.getExpiresAt());
+        // Время хранится с точностью до миллисекунд
+        assertEquals(expiresAt.truncatedTo(ChronoUnit.MILLIS), link.getExpiresAt());
         assertEquals(100, link.getMaxClicks());
         assertEquals(0, link.getCurrentClicks());
         assertTrue(link.isActive());
@@ -123,6 +135,70 @@ class LinkTest {
         assertThrows(IllegalStateException.class, link::incrementClicks);
     }
 
+    @Test
+    void testConcurrentIncrementClicksNeverExceedsLimit() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(24);
+
+        Link link = new Link(userId, "https://example.com", "abc123", expiresAt, 1000, null);
+
+        int threads = 8;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        try {
+                            link.incrementClicks();
+                            accepted.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // Лимит исчерпан другими потоками
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        // 8 x 500 попыток на лимит 1000: ни одного потерянного или лишнего клика
+        assertEquals(1000, accepted.get());
+        assertEquals(1000, link.getCurrentClicks());
+        assertFalse(link.isActive());
+    }
+
+    @Test
+    void testRaisingLimitRacingLastClickKeepsLinkActive() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 2000; i++) {
+                // 4 из 5 переходов: следующий забирает последний разрешенный клик
+                Link link = Link.restore(UUID.randomUUID(), UUID.randomUUID(), "https://example.com", "abc123",
+                        0, Long.MAX_VALUE, 5, 4, true, "", Clock.systemDefaultZone());
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<?> click = executor.submit(() -> {
+                    barrier.await();
+                    return link.tryIncrementClicks();
+                });
+                barrier.await(5, TimeUnit.SECONDS);
+                link.updateMaxClicks(10);
+                click.get(5, TimeUnit.SECONDS);
+
+                assertEquals(5, link.getCurrentClicks());
+                assertEquals(10, link.getMaxClicks());
+                assertTrue(link.isActive(), "link deactivated below raised limit at " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void testUpdateMaxClicksValid() {
         UUID userId = UUID.randomUUID();
@@ -181,6 +257,29 @@ class LinkTest {
         assertFalse(activeLink.isExpired());
     }
 
+    @Test
+    void testExpirationOnVirtualTime() {
+        ManualClock clock = new ManualClock();
+        LocalDateTime expiresAt = LocalDateTime.now(clock).plusHours(24);
+
+        Link link = new Link(UUID.randomUUID(), "https://example.com", "abc123",
+                expiresAt, 10, null, clock);
+
+        assertEquals(LocalDateTime.now(clock), link.getCreatedAt());
+        assertFalse(link.isExpired());
+        assertEquals(24, link.getHoursRemaining());
+
+        clock.advance(Duration.ofHours(23).plusMinutes(30));
+        assertTrue(link.isExpiringSoon(1));
+        assertTrue(link.canBeAccessed());
+
+        clock.advance(Duration.ofHours(1));
+        assertTrue(link.isExpired());
+        assertEquals("EXPIRED", link.getStatusDescription());
+        assertThrows(IllegalStateException.class, link::incrementClicks);
+        assertFalse(link.isActive());
+    }
+
     @Test
     void testHasReachedLimit() {
         UUID userId = UUID.randomUUID();
@@ -0,0 +1,187 @@
+package com.shortener.unit;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.infra.storage.MappedLinkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLinkRepositoryTest extends LinkRepositoryContractTest<MappedLinkRepository> {
+    @TempDir
+    Path directory;
+
+    @Override
+    protected MappedLinkRepository createRepository() throws Exception {
+        return new MappedLinkRepository(directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void testRecordsAndStringsLiveOffHeap() {
+        repository.save(testLink);
+
+        Map<String, Object> metrics = repository.getMetrics();
+        assertEquals(1, metrics.get("links"));
+        assertEquals(96L, metrics.get("recordBytes"));
+        assertTrue((long) metrics.get("stringBytes") >= "abc123https://example.comTest link".length());
+        assertTrue((long) metrics.get("indexBytes") > 0);
+    }
+
+    @Test
+    void testSaveWritesClickStateOfExistingRecord() {
+        repository.save(testLink);
+
+        Link clicked = copyOf(testLink, 7, false);
+        repository.save(clicked);
+
+        Link found = repository.findByShortCode("abc123").orElseThrow();
+        assertEquals(7, found.getCurrentClicks());
+        assertFalse(found.isActive());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void testReadersShareMaterializedLink() {
+        repository.save(copyOf(testLink, 0, true));
+
+        Link first = repository.findByShortCode("abc123").orElseThrow();
+        Link second = repository.findById(testLink.getId()).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals("https://example.com", first.getOriginalUrl());
+        assertEquals("Test link", first.getDescription());
+        assertEquals(testLink.getExpiresAtMillis(), first.getExpiresAtMillis());
+    }
+
+    @Test
+    void testReusedCodeIsReleasedOnlyByItsOwner() {
+        Link reuse = new Link(userId, "https://example.org", "abc123",
+                LocalDateTime.now().plusHours(24), 10, "Reuse");
+        repository.save(testLink);
+        repository.save(reuse);
+
+        assertEquals(reuse.getId(), repository.findByShortCode("abc123").orElseThrow().getId());
+        repository.delete(testLink.getId());
+        assertEquals(reuse.getId(), repository.findByShortCode("abc123").orElseThrow().getId());
+        repository.delete(reuse.getId());
+        assertFalse(repository.findByShortCode("abc123").isPresent());
+    }
+
+    @Test
+    void testUserLinksSurviveDeletesInAnyPosition() {
+        List<Link> links = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Link link = new Link(userId, "https://example.com/" + i, "code" + i,
+                    LocalDateTime.now().plusHours(24), 10, "");
+            links.add(link);
+            repository.save(link);
+        }
+
+        // Голова списка - последняя сохраненная ссылка, хвост - первая
+        repository.delete(links.get(4).getId());
+        repository.delete(links.get(2).getId());
+        repository.delete(links.get(0).getId());
+
+        assertEquals(List.of("code1", "code3"), repository.findByUserId(userId).stream()
+                .map(Link::getShortCode)
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testFreedSlotsAreReused() {
+        Link other = new Link(userId, "https://example2.com", "def456",
+                LocalDateTime.now().plusHours(24), 10, "");
+        repository.save(testLink);
+        repository.save(other);
+        repository.delete(testLink.getId());
+        repository.save(new Link(userId, "https://example3.com", "ghi789",
+                LocalDateTime.now().plusHours(24), 10, ""));
+
+        assertEquals(2, repository.getMetrics().get("slots"));
+        assertTrue((long) repository.getMetrics().get("garbageStringBytes") > 0);
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void testMatchesInMemoryRepositoryUnderRandomOperations() {
+        InMemoryLinkRepository expected = new InMemoryLinkRepository(0, 0.01);
+        List<UUID> users = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<Link> saved = new ArrayList<>();
+        Random random = new Random(42);
+
+        // Больше начальной емкости индексов: таблицы перестраиваются по ходу
+        for (int i = 0; i < 20_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || saved.isEmpty()) {
+                Link link = new Link(users.get(random.nextInt(users.size())), "https://example.com/" + i,
+                        "c" + random.nextInt(8_000), LocalDateTime.now().plusHours(24), 10, "");
+                saved.add(link);
+                expected.save(link);
+                repository.save(link);
+            } else if (operation < 9) {
+                UUID id = saved.get(random.nextInt(saved.size())).getId();
+                expected.delete(id);
+                repository.delete(id);
+            } else {
+                String code = "c" + random.nextInt(8_000);
+                assertEquals(expected.findByShortCode(code).map(Link::getId),
+                        repository.findByShortCode(code).map(Link::getId));
+            }
+        }
+
+        assertEquals(expected.count(), repository.count());
+        for (Link link : expected.findAll()) {
+            assertEquals(expected.findByShortCode(link.getShortCode()).map(Link::getId),
+                    repository.findByShortCode(link.getShortCode()).map(Link::getId));
+            assertTrue(repository.findById(link.getId()).isPresent());
+        }
+        for (UUID user : users) {
+            assertEquals(idsOf(expected.findByUserId(user)), idsOf(repository.findByUserId(user)));
+        }
+    }
+
+    @Test
+    void testStorageReusableAfterDeleteAll() {
+        repository.save(testLink);
+        repository.deleteAll();
+
+        assertFalse(repository.findByShortCode("abc123").isPresent());
+        assertTrue(repository.findByUserId(userId).isEmpty());
+
+        repository.save(testLink);
+        assertEquals(testLink.getId(), repository.findByShortCode("abc123").orElseThrow().getId());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    private static List<UUID> idsOf(List<Link> links) {
+        return links.stream()
+                .map(Link::getId)
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.toList());
+    }
+
+    private static Link copyOf(Link link, int currentClicks, boolean active) {
+        return Link.restore(link.getId(), link.getUserId(), link.getOriginalUrl(), link.getShortCode(),
+                link.getCreatedAtMillis(), link.getExpiresAtMillis(), link.getMaxClicks(), currentClicks,
+                active, link.getDescription(), Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,39 @@
+package com.shortener.unit;
+
+import com.shortener.infra.cluster.NodeLease;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeLeaseTest {
+
+    @TempDir
+    Path leaseDir;
+
+    @Test
+    void testLeasesTakeFreeNodeIds() throws Exception {
+        try (NodeLease first = NodeLease.acquire(leaseDir, 2);
+             NodeLease second = NodeLease.acquire(leaseDir, 2)) {
+            assertEquals(0, first.getPartition().getNodeId());
+            assertEquals(1, second.getPartition().getNodeId());
+            assertEquals(2, second.getPartition().getNodeCount());
+
+            assertThrows(IllegalStateException.class, () -> NodeLease.acquire(leaseDir, 2));
+        }
+    }
+
+    @Test
+    void testClosedLeaseIsReused() throws Exception {
+        NodeLease first = NodeLease.acquire(leaseDir, 3);
+        try (NodeLease second = NodeLease.acquire(leaseDir, 3)) {
+            first.close();
+            try (NodeLease third = NodeLease.acquire(leaseDir, 3)) {
+                assertEquals(0, third.getPartition().getNodeId());
+            }
+            assertEquals(1, second.getPartition().getNodeId());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.shortener.unit;
+
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.concurrent.PregeneratedCodePool;
+import com.shortener.infra.concurrent.Threads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PregeneratedCodePoolTest {
+    private PregeneratedCodePool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testProducerFillsPoolToCapacity() throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        pool = new PregeneratedCodePool(() -> "c" + next.getAndIncrement(), code -> { },
+                64, 16, 2, Threads.factory("test-pool", false));
+        pool.start();
+
+        awaitDepth(64);
+        assertEquals(64, next.get());
+        assertEquals("c0", pool.poll());
+    }
+
+    @Test
+    void testRefillsAfterDroppingToLowWatermark() throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        pool = new PregeneratedCodePool(() -> "c" + next.getAndIncrement(), code -> { },
+                32, 8, 1, Threads.factory("test-pool", false));
+        pool.start();
+        awaitDepth(32);
+
+        for (int i = 0; i < 24; i++) {
+            assertNotNull(pool.poll());
+        }
+
+        awaitDepth(32);
+        assertEquals(0L, pool.getStarvations());
+    }
+
+    @Test
+    void testEmptyPoolCountsStarvation() {
+        pool = new PregeneratedCodePool(() -> "code", code -> { }, 8, 2, 1, Threads.factory("test-pool", false));
+
+        assertNull(pool.poll());
+        assertEquals(1L, pool.getStarvations());
+        Map<String, Object> metrics = pool.getMetrics();
+        assertEquals(0, metrics.get("depth"));
+        assertEquals(1L, metrics.get("starvations"));
+    }
+
+    @Test
+    void testShutdownReleasesUnusedCodes() throws Exception {
+        Set<String> released = new HashSet<>();
+        AtomicInteger next = new AtomicInteger();
+        pool = new PregeneratedCodePool(() -> "c" + next.getAndIncrement(), released::add,
+                16, 4, 1, Threads.factory("test-pool", false));
+        pool.start();
+        awaitDepth(16);
+        pool.poll();
+
+        pool.shutdown();
+
+        assertEquals(15, released.size());
+        assertFalse(released.contains("c0"));
+        assertEquals(0, pool.getDepth());
+    }
+
+    @Test
+    void testGeneratorTakesCodesFromPool() throws Exception {
+        ShortCodeGenerator generator = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7);
+        pool = new PregeneratedCodePool(generator::generateFreshCode, generator::releaseCode,
+                16, 4, 1, Threads.factory("test-pool", false));
+        generator.setCodePool(pool);
+        pool.start();
+        awaitDepth(16);
+
+        UUID user = UUID.randomUUID();
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            String code = generator.generateCode("https://example.com/" + i, user);
+            assertEquals(7, code.length());
+            assertTrue(codes.add(code), "Duplicate code generated: " + code);
+        }
+        assertTrue((Long) pool.getMetrics().get("taken") > 0);
+    }
+
+    @Test
+    void testPoolRejectedForUrlDerivedCodes() {
+        ShortCodeGenerator generator = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.HASH, 7);
+
+        assertFalse(generator.supportsCodePool());
+        assertThrows(IllegalArgumentException.class, () -> generator.setCodePool(() -> "code"));
+        assertThrows(IllegalStateException.class, generator::generateFreshCode);
+    }
+
+    private void awaitDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getDepth() < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, pool.getDepth());
+    }
+}
@@ -0,0 +1,99 @@
+package com.shortener.unit;
+
+import com.shortener.infra.http.RedirectResponseCache;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectResponseCacheTest {
+
+    @Test
+    void testResponseEncodedOnceAndShared() {
+        RedirectResponseCache cache = new RedirectResponseCache(10);
+
+        ByteBuffer first = cache.get("abc", "https://example.com");
+        ByteBuffer second = cache.get("abc", "https://example.com");
+        ByteBuffer third = cache.get("abc", "https://example.com");
+
+        assertSame(second, third);
+        assertTrue(first.isReadOnly());
+        assertTrue(second.isReadOnly());
+        assertEquals(1L, cache.getEncodes());
+        assertEquals(2L, cache.getHits());
+        assertEquals(decode(first.duplicate()), decode(second.duplicate()));
+        assertEquals("HTTP/1.1 302 Found\r\n" +
+                "Location: https://example.com\r\n" +
+                "Cache-Control: no-store\r\n" +
+                "Content-Length: 0\r\n\r\n", decode(first.duplicate()));
+    }
+
+    @Test
+    void testDuplicateLeavesCachedBufferIntact() {
+        RedirectResponseCache cache = new RedirectResponseCache(10);
+        ByteBuffer response = cache.get("abc", "https://example.com");
+        int length = response.remaining();
+
+        ByteBuffer duplicate = response.duplicate();
+        duplicate.position(duplicate.limit());
+
+        assertEquals(length, cache.get("abc", "https://example.com").remaining());
+    }
+
+    @Test
+    void testReusedCodeGetsFreshResponse() {
+        RedirectResponseCache cache = new RedirectResponseCache(10);
+        cache.get("abc", "https://old.example.com");
+
+        ByteBuffer response = cache.get("abc", "https://new.example.com");
+
+        assertTrue(decode(response.duplicate()).contains("Location: https://new.example.com\r\n"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testFirstResponseOnHeapRepeatedInDirectBuffer() {
+        RedirectResponseCache cache = new RedirectResponseCache(10);
+
+        assertFalse(cache.get("abc", "https://example.com").isDirect());
+        assertTrue(cache.get("abc", "https://example.com").isDirect());
+    }
+
+    @Test
+    void testHotCodeDisplacesColdCodes() {
+        RedirectResponseCache cache = new RedirectResponseCache(10);
+        for (int i = 0; i < 10; i++) {
+            cache.get("cold" + i, "https://example.com/" + i);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            cache.get("hot", "https://example.com/hot");
+            cache.get("once" + i, "https://example.com/once");
+        }
+
+        assertTrue(cache.get("hot", "https://example.com/hot").isDirect());
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void testEvictAndSizeLimit() {
+        RedirectResponseCache cache = new RedirectResponseCache(1);
+        cache.get("a", "https://example.com/a");
+        cache.get("b", "https://example.com/b");
+
+        assertEquals(1, cache.size());
+
+        cache.evict("a");
+        cache.evict("b");
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new RedirectResponseCache(0));
+    }
+
+    private static String decode(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
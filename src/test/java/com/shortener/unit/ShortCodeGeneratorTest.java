@@ -1,12 +1,31 @@
 package com.shortener.unit;
 
+import com.shortener.core.service.Base62Encoder;
+import com.shortener.core.service.BlockedWordFilter;
+import com.shortener.core.service.CounterCodeEncoder;
+import com.shortener.core.service.IdBlockAllocator;
+import com.shortener.core.service.NodePartition;
+import com.shortener.core.service.SequentialIdBlockAllocator;
 import com.shortener.core.service.ShortCodeGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -92,4 +111,365 @@ class ShortCodeGeneratorTest {
         // тестируем с не-null параметрами
         assertDoesNotThrow(() -> generator.generateCode(url, UUID.randomUUID()));
     }
+
+    @Test
+    void testConcurrentGeneration_NoDuplicates() throws Exception {
+        for (ShortCodeGenerator.Algorithm algorithm : ShortCodeGenerator.Algorithm.values()) {
+            ShortCodeGenerator concurrent = new ShortCodeGenerator(algorithm, 5);
+            int threads = 8;
+            int perThread = 5_000;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    UUID user = UUID.randomUUID();
+                    List<String> codes = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        codes.add(concurrent.generateCode("https://example.com/" + thread + "/" + i, user));
+                    }
+                    return codes;
+                }));
+            }
+            start.countDown();
+
+            Set<String> unique = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                unique.addAll(result.get(30, TimeUnit.SECONDS));
+            }
+            executor.shutdown();
+
+            assertEquals(threads * perThread, unique.size(), "Duplicate codes for " + algorithm);
+        }
+    }
+
+    @Test
+    void testConcurrentGeneration_SameUrlGetsOneCode() throws Exception {
+        UUID user = UUID.randomUUID();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                codes.add(generator.generateCode("https://example.com/shared", user));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, codes.size());
+    }
+
+    @Test
+    void testCounterAlgorithm_BlocksFromSharedAllocator() {
+        AtomicLong counter = new AtomicLong();
+        ShortCodeGenerator first = new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.COUNTER, 7, counter::getAndAdd, 10, 12345);
+        ShortCodeGenerator second = new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.COUNTER, 7, counter::getAndAdd, 10, 12345);
+        UUID user = UUID.randomUUID();
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            assertTrue(codes.add(first.generateCode("https://example.com/a/" + i, user)));
+            assertTrue(codes.add(second.generateCode("https://example.com/b/" + i, user)));
+        }
+
+        // По три блока по 10 идентификаторов на каждый генератор
+        assertEquals(60, counter.get());
+        assertTrue(codes.stream().allMatch(code -> code.length() == 7));
+    }
+
+    @Test
+    void testCounterAlgorithm_SameUrlSameCode() {
+        ShortCodeGenerator counterGen = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.COUNTER, 7);
+        UUID user = UUID.randomUUID();
+
+        String code1 = counterGen.generateCode("https://example.com", user);
+        String code2 = counterGen.generateCode("https://example.com", user);
+        String code3 = counterGen.generateCode("https://example.com", UUID.randomUUID());
+
+        assertEquals(code1, code2);
+        assertNotEquals(code1, code3);
+    }
+
+    @Test
+    void testDigestAlgorithms_SameCodesAsStringInput() throws Exception {
+        // Коды BASE62/HASH не должны измениться от сборки входа хеша в байтах
+        String url = "https://пример.рф/путь?q=1";
+        UUID user = UUID.fromString("0a1b2c3d-0000-4fff-8abc-00000000000f");
+        byte[] input = (url + ":" + user + ":1").getBytes(StandardCharsets.UTF_8);
+
+        String base62 = Base62Encoder.encode(MessageDigest.getInstance("MD5").digest(input), 9);
+        String hash = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(MessageDigest.getInstance("SHA-256").digest(input)).substring(0, 9);
+
+        assertEquals(base62, new ShortCodeGenerator(ShortCodeGenerator.Algorithm.BASE62, 9).generateCode(url, user));
+        assertEquals(hash, new ShortCodeGenerator(ShortCodeGenerator.Algorithm.HASH, 9).generateCode(url, user));
+    }
+
+    @Test
+    void testMurmur3Algorithm_DeterministicAndUnique() {
+        ShortCodeGenerator murmurGen = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.MURMUR3, 7);
+        UUID user = UUID.randomUUID();
+        Set<String> codes = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            String code = murmurGen.generateCode("https://example.com/" + i, user);
+            assertEquals(7, code.length());
+            assertTrue(codes.add(code), "Duplicate code generated: " + code);
+        }
+
+        ShortCodeGenerator otherGen = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.MURMUR3, 7);
+        assertEquals(murmurGen.generateCode("https://example.com/1", user),
+                otherGen.generateCode("https://example.com/1", user));
+    }
+
+    @Test
+    void testDedupIndex_RejectedByVerifierGetsNewCode() {
+        UUID user = UUID.randomUUID();
+        String code1 = generator.generateCode("https://example.com", user);
+
+        generator.setReuseVerifier((shortCode, originalUrl, userId) -> false);
+        String code2 = generator.generateCode("https://example.com", user);
+
+        assertNotEquals(code1, code2);
+    }
+
+    @Test
+    void testDedupIndex_VerifierSeesUrlAndUser() {
+        UUID user = UUID.randomUUID();
+        List<String> checked = new ArrayList<>();
+        generator.setReuseVerifier((shortCode, originalUrl, userId) -> {
+            checked.add(shortCode + " " + originalUrl + " " + userId);
+            return true;
+        });
+
+        String code = generator.generateCode("https://example.com", user);
+        assertEquals(code, generator.generateCode("https://example.com", user));
+        assertEquals(List.of(code + " https://example.com " + user), checked);
+    }
+
+    @Test
+    void testDedupIndex_IsBounded() {
+        ShortCodeGenerator smallIndexGen = new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.RANDOM, 7, new AtomicLong()::getAndAdd, 1000, 0, 10);
+        UUID user = UUID.randomUUID();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            codes.add(smallIndexGen.generateCode("https://example.com/" + i, user));
+        }
+
+        int reused = 0;
+        for (int i = 0; i < 100; i++) {
+            if (codes.get(i).equals(smallIndexGen.generateCode("https://example.com/" + i, user))) {
+                reused++;
+            }
+        }
+        assertTrue(reused <= 10, "Index kept " + reused + " of 100 pairs with size 10");
+    }
+
+    @Test
+    void testReleasedCodeCanBeIssuedAgain() {
+        UUID user = UUID.randomUUID();
+        String code1 = generator.generateCode("https://example.com", user);
+
+        // Ссылка удалена: индекс больше не отдает код, а занятый код дает вторую попытку
+        generator.setReuseVerifier((shortCode, originalUrl, userId) -> false);
+        String code2 = generator.generateCode("https://example.com", user);
+        assertNotEquals(code1, code2);
+
+        generator.releaseCode(code1);
+        generator.releaseCode(code2);
+        assertEquals(code1, generator.generateCode("https://example.com", user));
+    }
+
+    @Test
+    void testAdaptiveLength_GrowsAfterThreshold() {
+        // 62^2 = 3844 двухсимвольных кода: после четверти занятых новые коды длиной 3
+        ShortCodeGenerator adaptiveGen = new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.RANDOM, 2, new AtomicLong()::getAndAdd, 1000, 0, 100_000, 0.25);
+        UUID user = UUID.randomUUID();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            codes.add(adaptiveGen.generateCode("https://example.com/" + i, user));
+        }
+
+        assertEquals(3000, new HashSet<>(codes).size());
+        assertEquals(3, adaptiveGen.getCurrentCodeLength());
+        assertEquals(961, codes.stream().filter(code -> code.length() == 2).count());
+        assertTrue(codes.stream().skip(961).allMatch(code -> code.length() == 3));
+        assertEquals(3, adaptiveGen.getOccupancyMetrics().get("codeLength"));
+
+        // Выданные двухсимвольные коды по-прежнему заняты и освобождаются
+        String shortCode = codes.get(0);
+        adaptiveGen.releaseCode(shortCode);
+        adaptiveGen.clearCache();
+        assertEquals(2, adaptiveGen.getCurrentCodeLength());
+    }
+
+    @Test
+    void testAdaptiveLength_FullSpaceDoesNotFail() {
+        // Порог почти 1: последние свободные коды могут не найтись за 100 попыток - тогда длина растет сразу
+        ShortCodeGenerator adaptiveGen = new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.BASE62, 1, new AtomicLong()::getAndAdd, 1000, 0, 100_000, 0.999);
+        UUID user = UUID.randomUUID();
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(codes.add(adaptiveGen.generateCode("https://example.com/" + i, user)));
+        }
+        assertTrue(adaptiveGen.getCurrentCodeLength() >= 2);
+    }
+
+    @Test
+    void testAdaptiveLength_StopsAtShortCodeLimit() {
+        ShortCodeGenerator adaptiveGen = new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.RANDOM, 10, new AtomicLong()::getAndAdd, 1000, 0, 100_000, 0.01);
+        assertEquals(10, adaptiveGen.generateCode("https://example.com", UUID.randomUUID()).length());
+        assertEquals(10, adaptiveGen.getCurrentCodeLength());
+    }
+
+    @Test
+    void testAdaptiveLength_RejectsInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.RANDOM, 7, new AtomicLong()::getAndAdd, 1000, 0, 100_000, 1.0));
+    }
+
+    @Test
+    void testNodePartition_CodesStayInNodeSlice() {
+        String base62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+        for (ShortCodeGenerator.Algorithm algorithm : new ShortCodeGenerator.Algorithm[]{
+                ShortCodeGenerator.Algorithm.RANDOM, ShortCodeGenerator.Algorithm.BASE62,
+                ShortCodeGenerator.Algorithm.MURMUR3}) {
+            ShortCodeGenerator nodeGen = new ShortCodeGenerator(algorithm, 7, new AtomicLong()::getAndAdd,
+                    1000, 0, 100_000, 0, new NodePartition(1, 3));
+            UUID user = UUID.randomUUID();
+            for (int i = 0; i < 200; i++) {
+                String code = nodeGen.generateCode("https://example.com/" + i, user);
+                assertEquals(7, code.length());
+                long value = 0;
+                for (char c : code.toCharArray()) {
+                    value = value * 62 + base62.indexOf(c);
+                }
+                assertEquals(1, value % 3, algorithm + " code outside node slice: " + code);
+            }
+        }
+    }
+
+    @Test
+    void testNodePartition_CounterNodesDoNotOverlap() {
+        // Каждый узел считает с нуля, как отдельный процесс без общего счетчика
+        Set<String> codes = new HashSet<>();
+        for (int node = 0; node < 4; node++) {
+            ShortCodeGenerator nodeGen = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.COUNTER, 5,
+                    new AtomicLong()::getAndAdd, 10, 7256485113L, 100_000, 0, new NodePartition(node, 4));
+            UUID user = UUID.randomUUID();
+            for (int i = 0; i < 500; i++) {
+                assertTrue(codes.add(nodeGen.generateCode("https://example.com/" + i, user)));
+            }
+        }
+        assertEquals(2000, codes.size());
+    }
+
+    @Test
+    void testNodePartition_RejectsTooManyNodesForCodeSpace() {
+        assertThrows(IllegalArgumentException.class, () -> new ShortCodeGenerator(
+                ShortCodeGenerator.Algorithm.RANDOM, 1, new AtomicLong()::getAndAdd, 1000, 0, 100_000, 0,
+                new NodePartition(0, 100)));
+        assertThrows(IllegalArgumentException.class, () -> new NodePartition(3, 3));
+    }
+
+    @Test
+    void testBlockedWords_NeverIssued() {
+        // Однобуквенные слова "a" и "b" (а с ними 4 и 8) встречаются в большой доле случайных кодов
+        BlockedWordFilter filter = BlockedWordFilter.compile(List.of("a", "b"));
+        for (ShortCodeGenerator.Algorithm algorithm : ShortCodeGenerator.Algorithm.values()) {
+            ShortCodeGenerator filteredGen = new ShortCodeGenerator(algorithm, 7);
+            filteredGen.setBlockedWords(filter);
+            UUID user = UUID.randomUUID();
+            for (int i = 0; i < 500; i++) {
+                String code = filteredGen.generateCode("https://example.com/" + i, user);
+                assertFalse(filter.matches(code), algorithm + " issued blocked code " + code);
+            }
+        }
+    }
+
+    @Test
+    void testReservedCodesAreNotIssuedAgain() {
+        // Коды, выданные до перезапуска: новый генератор COUNTER снова начинает с нуля
+        ShortCodeGenerator before = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.COUNTER, 7);
+        UUID user = UUID.randomUUID();
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            issued.add(before.generateCode("https://example.com/" + i, user));
+        }
+
+        ShortCodeGenerator after = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.COUNTER, 7);
+        issued.forEach(after::reserveCode);
+        for (int i = 0; i < 50; i++) {
+            assertFalse(issued.contains(after.generateCode("https://example.com/" + i, user)));
+        }
+    }
+
+    @Test
+    void testCounterResumesPastCodesIssuedBeforeRestart() {
+        long scrambleKey = 7256485113L;
+        ShortCodeGenerator before = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.COUNTER, 7,
+                new SequentialIdBlockAllocator(), 10, scrambleKey);
+        UUID user = UUID.randomUUID();
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            issued.add(before.generateCode("https://example.com/" + i, user));
+        }
+
+        // После перезапуска счетчик снова с нуля, но отметка восстанавливается по выданным кодам
+        SequentialIdBlockAllocator ids = new SequentialIdBlockAllocator();
+        AtomicInteger allocations = new AtomicInteger();
+        IdBlockAllocator counting = new IdBlockAllocator() {
+            @Override
+            public long allocate(int size) {
+                allocations.incrementAndGet();
+                return ids.allocate(size);
+            }
+
+            @Override
+            public void advanceTo(long id) {
+                ids.advanceTo(id);
+            }
+        };
+        ShortCodeGenerator after = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.COUNTER, 7,
+                counting, 10, scrambleKey);
+        issued.forEach(after::reserveCode);
+        assertEquals(50, after.getCounterHighWaterMark());
+
+        // Первый новый код - сразу следующий идентификатор: ни одного пропуска и ни одного лишнего блока
+        String first = after.generateCode("https://example.com/new", user);
+        assertEquals(50, new CounterCodeEncoder(7, scrambleKey).decode(first));
+        assertEquals(1, allocations.get());
+        assertEquals(60, ids.peekNext());
+    }
+
+    @Test
+    void testCounterHighWaterMarkCountsOnlyOwnPartition() {
+        ShortCodeGenerator node1 = new ShortCodeGenerator(ShortCodeGenerator.Algorithm.COUNTER, 7,
+                new SequentialIdBlockAllocator(), 10, 0, 100_000, 0, new NodePartition(1, 4));
+        CounterCodeEncoder encoder = new CounterCodeEncoder(7, 0);
+
+        node1.reserveCode(encoder.encode(4 * 20 + 1));
+        // Код другого узла и код не из пространства COUNTER отметку не сдвигают
+        node1.reserveCode(encoder.encode(4 * 90 + 2));
+        node1.reserveCode("short");
+
+        assertEquals(21, node1.getCounterHighWaterMark());
+        assertEquals(4 * 21 + 1, encoder.decode(node1.generateFreshCode()));
+    }
 }
@@ -0,0 +1,160 @@
+package com.shortener.unit;
+
+import com.shortener.core.domain.Link;
+import com.shortener.infra.storage.ShortCodeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortCodeIndexTest {
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void testPackingIsInjectiveAcrossLengths() {
+        Set<Long> packed = new HashSet<>();
+        for (String code : new String[]{"0", "00", "000", "A", "a", "-", "_", "0A", "A0", "zzzzzzzzzz", "__________"}) {
+            long value = ShortCodeIndex.pack(code);
+            assertTrue(value > 0, code);
+            assertTrue(packed.add(value), code);
+        }
+        assertTrue(ShortCodeIndex.pack("__________") < (1L << 61));
+    }
+
+    @Test
+    void testUnpackRestoresCode() {
+        for (String code : new String[]{"0", "00", "abc123", "Zz-_09", "__________"}) {
+            assertEquals(code, ShortCodeIndex.unpack(ShortCodeIndex.pack(code)));
+        }
+    }
+
+    @Test
+    void testUnpackableCodes() {
+        assertEquals(0, ShortCodeIndex.pack(""));
+        assertEquals(0, ShortCodeIndex.pack("abcdefghijk"));
+        assertEquals(0, ShortCodeIndex.pack("my.link"));
+        assertEquals(0, ShortCodeIndex.pack("ссылка"));
+
+        ShortCodeIndex index = new ShortCodeIndex();
+        Link link = link("my.custom-link");
+        index.put("my.custom-link", link);
+
+        assertSame(link, index.get("my.custom-link"));
+        assertEquals(1, index.unpackedSize());
+        assertTrue(index.remove("my.custom-link", link.getId()));
+        assertNull(index.get("my.custom-link"));
+    }
+
+    @Test
+    void testPutReplacesAndReturnsPrevious() {
+        ShortCodeIndex index = new ShortCodeIndex();
+        Link first = link("abc123");
+        Link second = link("abc123");
+
+        assertNull(index.put("abc123", first));
+        assertSame(first, index.put("abc123", second));
+        assertSame(second, index.get("abc123"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testRemoveOnlyByCurrentOwner() {
+        ShortCodeIndex index = new ShortCodeIndex();
+        Link owner = link("abc123");
+        index.put("abc123", owner);
+
+        assertFalse(index.remove("abc123", UUID.randomUUID()));
+        assertFalse(index.remove("zzz999", owner.getId()));
+        assertSame(owner, index.get("abc123"));
+        assertTrue(index.remove("abc123", owner.getId()));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        ShortCodeIndex index = new ShortCodeIndex();
+        Map<String, Link> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        // Много роста таблицы и удалений со сдвигом цепочек
+        for (int i = 0; i < 200_000; i++) {
+            String code = Integer.toString(random.nextInt(50_000), 36);
+            if (random.nextInt(3) == 0) {
+                Link current = expected.get(code);
+                if (current != null) {
+                    assertTrue(index.remove(code, current.getId()));
+                    expected.remove(code);
+                }
+            } else {
+                Link link = link(code);
+                assertSame(expected.put(code, link), index.put(code, link));
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < 50_000; i++) {
+            String code = Integer.toString(i, 36);
+            assertSame(expected.get(code), index.get(code), code);
+        }
+        assertTrue(index.capacity() * 0.75 >= expected.size());
+    }
+
+    @Test
+    void testReadersNeverMissStableCodesDuringWrites() throws InterruptedException {
+        ShortCodeIndex index = new ShortCodeIndex();
+        Link[] stable = new Link[1_000];
+        for (int i = 0; i < stable.length; i++) {
+            stable[i] = link("s" + i);
+            index.put("s" + i, stable[i]);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                Random random = new Random();
+                while (running.get()) {
+                    int i = random.nextInt(stable.length);
+                    if (index.get("s" + i) != stable[i]) {
+                        misses.incrementAndGet();
+                    }
+                }
+            });
+            readers[t].start();
+        }
+
+        // Рост таблицы и удаления соседей по цепочкам, пока читатели ищут стабильные коды
+        for (int round = 0; round < 20; round++) {
+            Link[] churn = new Link[5_000];
+            for (int i = 0; i < churn.length; i++) {
+                churn[i] = link("c" + i);
+                index.put("c" + i, churn[i]);
+            }
+            for (int i = 0; i < churn.length; i++) {
+                index.remove("c" + i, churn[i].getId());
+            }
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, misses.get());
+        assertEquals(stable.length, index.size());
+    }
+
+    private Link link(String code) {
+        return Link.restore(UUID.randomUUID(), userId, "https://example.com", code, 0, Long.MAX_VALUE,
+                10, 0, true, "", Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,48 @@
+package com.shortener.unit;
+
+import com.shortener.infra.concurrent.Threads;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadsTest {
+
+    @Test
+    void testPlatformFactoryNamesDaemonThreads() {
+        ThreadFactory factory = Threads.factory("worker", false);
+
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+
+        assertEquals("worker-1", first.getName());
+        assertEquals("worker-2", second.getName());
+        assertTrue(first.isDaemon());
+    }
+
+    @Test
+    void testVirtualModeMatchesRuntimeSupport() {
+        boolean supported = Runtime.version().feature() >= 21;
+
+        assertEquals(supported, Threads.isVirtualSupported());
+        assertEquals(supported, Threads.resolveVirtualMode(true));
+        assertFalse(Threads.resolveVirtualMode(false));
+    }
+
+    @Test
+    void testWorkerPoolRunsTasksInEitherMode() throws Exception {
+        for (boolean virtual : new boolean[]{false, true}) {
+            ExecutorService pool = Threads.newWorkerPool("pool", 2, virtual);
+            try {
+                Future<String> name = pool.submit(() -> Thread.currentThread().getName());
+                assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("pool-"));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.shortener.unit;
 import com.shortener.core.domain.User;
 import com.shortener.core.service.UserService;
 import com.shortener.infra.storage.InMemoryUserRepository;
+import com.shortener.support.ManualClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -125,4 +127,20 @@ class UserServiceTest {
         assertTrue(userService.findUser(activeUser.getId()).isPresent());
         assertTrue(userService.findUser(inactiveUser.getId()).isPresent());
     }
+
+    @Test
+    void testCleanupInactiveUsersOnVirtualTime() {
+        ManualClock clock = new ManualClock();
+        UserService service = new UserService(new InMemoryUserRepository(), 168, clock);
+
+        User staleUser = service.createUser();
+        clock.advance(Duration.ofHours(100));
+        User recentUser = service.createUser();
+        clock.advance(Duration.ofHours(100));
+
+        service.cleanupInactiveUsers();
+
+        assertFalse(service.findUser(staleUser.getId()).isPresent());
+        assertTrue(service.findUser(recentUser.getId()).isPresent());
+    }
 }
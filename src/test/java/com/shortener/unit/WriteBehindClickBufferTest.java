@@ -0,0 +1,162 @@
+package com.shortener.unit;
+
+import com.shortener.core.domain.Link;
+import com.shortener.core.domain.User;
+import com.shortener.core.service.LinkService;
+import com.shortener.core.service.ResolveResult;
+import com.shortener.core.service.ShortCodeGenerator;
+import com.shortener.infra.storage.InMemoryLinkRepository;
+import com.shortener.infra.storage.WriteBehindClickBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindClickBufferTest {
+    private CountingRepository repository;
+    private WriteBehindClickBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CountingRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void testClicksAreNotSavedPerRedirect() {
+        buffer = new WriteBehindClickBuffer(repository, 100, 60_000);
+        LinkService service = new LinkService(repository, new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7), 24, 1000,
+                Clock.systemDefaultZone(), buffer);
+        Link link = service.createLink(new User(), "https://example.com", null, null);
+        int savesAfterCreate = repository.saves.get();
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(service.resolve(link.getShortCode()).isRedirect());
+        }
+
+        assertEquals(savesAfterCreate, repository.saves.get());
+        assertEquals(50L, buffer.getMetrics().get("pendingClicks"));
+
+        buffer.flush();
+
+        assertEquals(savesAfterCreate + 1, repository.saves.get());
+        assertEquals(1, repository.batches.get());
+        assertEquals(50L, buffer.getMetrics().get("flushedClicks"));
+        assertEquals(50, repository.findById(link.getId()).orElseThrow().getCurrentClicks());
+    }
+
+    @Test
+    void testClickLimitEnforcedBeforeFlush() {
+        buffer = new WriteBehindClickBuffer(repository, 100, 60_000);
+        LinkService service = new LinkService(repository, new ShortCodeGenerator(ShortCodeGenerator.Algorithm.RANDOM, 7), 24, 3,
+                Clock.systemDefaultZone(), buffer);
+        Link link = service.createLink(new User(), "https://example.com", 3, null);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.resolve(link.getShortCode()).isRedirect());
+        }
+
+        assertEquals(ResolveResult.Status.LIMIT_REACHED, service.resolve(link.getShortCode()).getStatus());
+    }
+
+    @Test
+    void testBatchSizeTriggersFlush() throws InterruptedException {
+        buffer = new WriteBehindClickBuffer(repository, 3, 60_000);
+        for (int i = 0; i < 3; i++) {
+            Link link = newLink();
+            link.incrementClicks();
+            buffer.recordClick(link);
+        }
+
+        awaitBatches(1);
+        assertEquals(0, buffer.getMetrics().get("pendingLinks"));
+    }
+
+    @Test
+    void testIntervalTriggersFlush() throws InterruptedException {
+        buffer = new WriteBehindClickBuffer(repository, 1000, 20);
+        buffer.start();
+        Link link = newLink();
+        link.incrementClicks();
+        buffer.recordClick(link);
+
+        awaitBatches(1);
+    }
+
+    @Test
+    void testShutdownFlushesPendingClicks() {
+        buffer = new WriteBehindClickBuffer(repository, 1000, 60_000);
+        buffer.start();
+        Link link = newLink();
+        link.incrementClicks();
+        buffer.recordClick(link);
+
+        buffer.shutdown();
+
+        assertEquals(1, repository.batches.get());
+        assertEquals(0, buffer.getMetrics().get("pendingLinks"));
+    }
+
+    @Test
+    void testDeletedLinkIsNotResurrected() {
+        buffer = new WriteBehindClickBuffer(repository, 1000, 60_000);
+        Link link = newLink();
+        link.incrementClicks();
+        buffer.recordClick(link);
+
+        repository.delete(link.getId());
+        buffer.flush();
+
+        assertTrue(repository.findById(link.getId()).isEmpty());
+        assertTrue(repository.findByShortCode(link.getShortCode()).isEmpty());
+    }
+
+    private Link newLink() {
+        Link link = new Link(UUID.randomUUID(), "https://example.com",
+                "c" + UUID.randomUUID().toString().substring(0, 6),
+                LocalDateTime.now().plusHours(1), 100, null);
+        repository.save(link);
+        repository.saves.set(0);
+        return link;
+    }
+
+    private void awaitBatches(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (repository.batches.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, repository.batches.get());
+    }
+
+    private static class CountingRepository extends InMemoryLinkRepository {
+        final AtomicInteger saves = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+
+        @Override
+        public Link save(Link link) {
+            saves.incrementAndGet();
+            return super.save(link);
+        }
+
+        @Override
+        public int saveAllIfPresent(Collection<Link> links) {
+            batches.incrementAndGet();
+            int saved = super.saveAllIfPresent(links);
+            saves.addAndGet(saved);
+            return saved;
+        }
+    }
+}